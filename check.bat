@@ -0,0 +1,18 @@
+@echo off
+
+set OUT=%TEMP%\minecraftpinger-checks
+if exist "%OUT%" rmdir /s /q "%OUT%"
+mkdir "%OUT%"
+
+echo Compiling checks...
+javac -encoding UTF-8 -d "%OUT%" src\*.java test\*.java
+if %ERRORLEVEL% NEQ 0 exit /b 1
+
+set STATUS=0
+for %%f in (test\*Check.java) do (
+    java -cp "%OUT%" %%~nf
+    if errorlevel 1 set STATUS=1
+)
+
+rmdir /s /q "%OUT%"
+exit /b %STATUS%
@@ -0,0 +1,14 @@
+#!/bin/bash
+
+out=$(mktemp -d)
+trap 'rm -rf "$out"' EXIT
+
+echo "Compiling checks..."
+javac -encoding UTF-8 -d "$out" src/*.java test/*.java || exit 1
+
+status=0
+for check in test/*Check.java; do
+    java -cp "$out" "$(basename "$check" .java)" || status=1
+done
+
+exit $status
@@ -0,0 +1,187 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptivePollScheduler {
+    public interface PollTask {
+        boolean poll(ServerConfig server);
+    }
+
+    private final String name;
+    private final PollTask task;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final double backoffFactor;
+    private final double jitterFraction;
+    private final AtomicLong phaseCounter;
+    private final ScheduledExecutorService executor;
+    private final Map<String, ServerSchedule> schedules;
+    private volatile Predicate<ServerConfig> focus;
+
+    public AdaptivePollScheduler(String name, int threads, long minIntervalMs, long maxIntervalMs,
+                                 double backoffFactor, double jitterFraction, PollTask task) {
+        this.name = name;
+        this.task = task;
+        this.minIntervalMs = Math.max(100, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.backoffFactor = Math.max(1.0, backoffFactor);
+        this.jitterFraction = Math.max(0.0, Math.min(0.5, jitterFraction));
+        this.phaseCounter = new AtomicLong();
+        this.schedules = new ConcurrentHashMap<>();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized boolean schedule(ServerConfig server) {
+        if (schedules.containsKey(server.getName())) {
+            return false;
+        }
+
+        ServerSchedule schedule = new ServerSchedule(server);
+        schedules.put(server.getName(), schedule);
+        schedule.submit(initialPhase());
+        return true;
+    }
+
+    public synchronized boolean unschedule(String serverName) {
+        ServerSchedule schedule = schedules.remove(serverName);
+        if (schedule == null) {
+            return false;
+        }
+
+        schedule.cancel();
+        return true;
+    }
+
+    public synchronized void unscheduleAll() {
+        for (ServerSchedule schedule : schedules.values()) {
+            schedule.cancel();
+        }
+        schedules.clear();
+        phaseCounter.set(0);
+    }
+
+    // Focused servers are held at the base interval instead of backing off, e.g. while a subscribed
+    // player is expected to come online.
+    public void setFocus(Predicate<ServerConfig> focus) {
+        this.focus = focus;
+    }
+
+    public void markActive(String serverName) {
+        ServerSchedule schedule = schedules.get(serverName);
+        if (schedule != null) {
+            schedule.wake();
+        }
+    }
+
+    public Map<String, Long> getCurrentIntervals() {
+        Map<String, Long> intervals = new TreeMap<>();
+        for (Map.Entry<String, ServerSchedule> entry : schedules.entrySet()) {
+            intervals.put(entry.getKey(), entry.getValue().intervalMs);
+        }
+        return intervals;
+    }
+
+    public long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+
+    public long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+
+    public void shutdown() {
+        unscheduleAll();
+        executor.shutdownNow();
+    }
+
+    // Waits for a poll that was already running when shutdown() was called.
+    public boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        return executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Golden-ratio sequence: each new server lands in the largest remaining gap of the
+    // base interval, so phases stay evenly spread however many servers are added.
+    private long initialPhase() {
+        double fraction = (phaseCounter.getAndIncrement() * 0.6180339887498949) % 1.0;
+        return (long) (fraction * minIntervalMs);
+    }
+
+    private long jittered(long delayMs) {
+        if (jitterFraction == 0.0) {
+            return delayMs;
+        }
+        double offset = ThreadLocalRandom.current().nextDouble(-jitterFraction, jitterFraction);
+        return Math.max(0, Math.round(delayMs * (1.0 + offset)));
+    }
+
+    private long nextInterval(long current, boolean changed) {
+        if (changed) {
+            return minIntervalMs;
+        }
+        return Math.min(maxIntervalMs, (long) Math.ceil(current * backoffFactor));
+    }
+
+    private class ServerSchedule implements Runnable {
+        private final ServerConfig server;
+        private volatile long intervalMs;
+        private volatile boolean cancelled;
+        private ScheduledFuture<?> future;
+
+        ServerSchedule(ServerConfig server) {
+            this.server = server;
+            this.intervalMs = minIntervalMs;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+
+            boolean changed = false;
+            try {
+                changed = task.poll(server);
+            } catch (Exception e) {
+                System.err.println("[" + name + "] Poll failed for " + server.getName() + ": " + e.getMessage());
+            }
+
+            Predicate<ServerConfig> currentFocus = focus;
+            if (!changed && currentFocus != null) {
+                try {
+                    changed = currentFocus.test(server);
+                } catch (Exception e) {
+                    System.err.println("[" + name + "] Focus check failed for " + server.getName() + ": " + e.getMessage());
+                }
+            }
+
+            intervalMs = nextInterval(intervalMs, changed);
+            submit(jittered(intervalMs));
+        }
+
+        synchronized void submit(long delayMs) {
+            if (cancelled || executor.isShutdown()) return;
+            future = executor.schedule(this, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void wake() {
+            intervalMs = minIntervalMs;
+            if (future != null && future.getDelay(TimeUnit.MILLISECONDS) > minIntervalMs && future.cancel(false)) {
+                submit(0);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -9,12 +9,43 @@ public class ConfigLoader {
     private String discordWebhook;
     private int dashboardPort;
     private boolean historyEnabled;
+    private int historyBatchSize;
+    private int historyFlushIntervalMs;
+    private int historyMaxPending;
+    private int historyHeartbeatMinutes;
+    private int historyStaleSessionMinutes;
+    private String historyBackend;
+    private String historyLocalDir;
+    private int historyLocalOpenPartitions;
+    private int historyCacheSize;
+    private int historyCacheTtlSeconds;
+    private String historyRollupDir;
+    private int historyHourlyRetentionDays;
+    private int historyRawRetentionDays;
+    private boolean historySpoolEnabled;
+    private String historySpoolDir;
+    private int historySpoolSegmentKb;
+    private int historySpoolMaxMb;
     private boolean autoUpdateEnabled;
     private int autoUpdateCheckIntervalMinutes;
     private String autoUpdateRepositoryOwner;
     private String autoUpdateRepositoryName;
     private int realTimeCliIntervalSeconds;
     private int realTimeDashboardIntervalSeconds;
+    private int realTimeBackgroundIntervalSeconds;
+    private int realTimeCliMaxIntervalSeconds;
+    private int realTimeDashboardMaxIntervalSeconds;
+    private int realTimeBackgroundMaxIntervalSeconds;
+    private double realTimeBackoffFactor;
+    private int realTimeJitterPercent;
+    private double realTimeForecastThreshold;
+    private double realTimeForecastHalfLifeWeeks;
+    private int eventBusCapacity;
+    private int eventBusBlockTimeoutMs;
+    private int timelineCapacity;
+    private int healthDownAfterFailures;
+    private int healthUpAfterSuccesses;
+    private boolean healthNotifyDiscord;
     private List<Integer> portCheckerDefaultPorts;
     private int portCheckerScanTimeoutMs;
     private boolean portCheckerParallelChecks;
@@ -47,6 +78,23 @@ public class ConfigLoader {
         discordWebhook = properties.getProperty("discord.webhook", "");
         dashboardPort = Integer.parseInt(properties.getProperty("dashboard.port", "8080"));
         historyEnabled = Boolean.parseBoolean(properties.getProperty("history.enabled", "false"));
+        historyBatchSize = Integer.parseInt(properties.getProperty("history.batchSize", "200"));
+        historyFlushIntervalMs = Integer.parseInt(properties.getProperty("history.flushIntervalMs", "2000"));
+        historyMaxPending = Integer.parseInt(properties.getProperty("history.maxPending", "20000"));
+        historyHeartbeatMinutes = Integer.parseInt(properties.getProperty("history.heartbeatMinutes", "0"));
+        historyStaleSessionMinutes = Integer.parseInt(properties.getProperty("history.staleSessionMinutes", "20"));
+        historyBackend = properties.getProperty("history.backend", "supabase");
+        historyLocalDir = properties.getProperty("history.localDir", "history-data");
+        historyLocalOpenPartitions = Integer.parseInt(properties.getProperty("history.localOpenPartitions", "40"));
+        historyCacheSize = Integer.parseInt(properties.getProperty("history.cacheSize", "256"));
+        historyCacheTtlSeconds = Integer.parseInt(properties.getProperty("history.cacheTtlSeconds", "300"));
+        historyRollupDir = properties.getProperty("history.rollupDir", "history-rollups");
+        historyHourlyRetentionDays = Integer.parseInt(properties.getProperty("history.hourlyRetentionDays", "35"));
+        historyRawRetentionDays = Integer.parseInt(properties.getProperty("history.rawRetentionDays", "0"));
+        historySpoolEnabled = Boolean.parseBoolean(properties.getProperty("history.spoolEnabled", "true"));
+        historySpoolDir = properties.getProperty("history.spoolDir", "history-spool");
+        historySpoolSegmentKb = Integer.parseInt(properties.getProperty("history.spoolSegmentKb", "4096"));
+        historySpoolMaxMb = Integer.parseInt(properties.getProperty("history.spoolMaxMb", "512"));
 
         autoUpdateEnabled = Boolean.parseBoolean(properties.getProperty("autoUpdate.enabled", "true"));
         autoUpdateCheckIntervalMinutes = Integer.parseInt(properties.getProperty("autoUpdate.checkIntervalMinutes", "60"));
@@ -55,6 +103,21 @@ public class ConfigLoader {
 
         realTimeCliIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.cliIntervalSeconds", "1"));
         realTimeDashboardIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.dashboardIntervalSeconds", "60"));
+        realTimeBackgroundIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.backgroundIntervalSeconds", "60"));
+        realTimeCliMaxIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.cliMaxIntervalSeconds", "30"));
+        realTimeDashboardMaxIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.dashboardMaxIntervalSeconds", "300"));
+        realTimeBackgroundMaxIntervalSeconds = Integer.parseInt(properties.getProperty("realtime.backgroundMaxIntervalSeconds", "600"));
+        realTimeBackoffFactor = Double.parseDouble(properties.getProperty("realtime.backoffFactor", "2.0"));
+        realTimeJitterPercent = Integer.parseInt(properties.getProperty("realtime.jitterPercent", "10"));
+        realTimeForecastThreshold = Double.parseDouble(properties.getProperty("realtime.forecastThreshold", "0.5"));
+        realTimeForecastHalfLifeWeeks = Double.parseDouble(properties.getProperty("realtime.forecastHalfLifeWeeks", "4"));
+
+        eventBusCapacity = Integer.parseInt(properties.getProperty("eventbus.capacity", "4096"));
+        eventBusBlockTimeoutMs = Integer.parseInt(properties.getProperty("eventbus.blockTimeoutMs", "50"));
+        timelineCapacity = Integer.parseInt(properties.getProperty("timeline.capacity", "4096"));
+        healthDownAfterFailures = Integer.parseInt(properties.getProperty("health.downAfterFailures", "3"));
+        healthUpAfterSuccesses = Integer.parseInt(properties.getProperty("health.upAfterSuccesses", "2"));
+        healthNotifyDiscord = Boolean.parseBoolean(properties.getProperty("health.notifyDiscord", "true"));
 
         loadPortCheckerConfig(properties);
     }
@@ -135,6 +198,74 @@ public class ConfigLoader {
         return historyEnabled;
     }
 
+    public int getHistoryBatchSize() {
+        return historyBatchSize;
+    }
+
+    public int getHistoryFlushIntervalMs() {
+        return historyFlushIntervalMs;
+    }
+
+    public int getHistoryMaxPending() {
+        return historyMaxPending;
+    }
+
+    public int getHistoryHeartbeatMinutes() {
+        return historyHeartbeatMinutes;
+    }
+
+    public int getHistoryStaleSessionMinutes() {
+        return historyStaleSessionMinutes;
+    }
+
+    public String getHistoryBackend() {
+        return historyBackend;
+    }
+
+    public String getHistoryLocalDir() {
+        return historyLocalDir;
+    }
+
+    public int getHistoryLocalOpenPartitions() {
+        return historyLocalOpenPartitions;
+    }
+
+    public int getHistoryCacheSize() {
+        return historyCacheSize;
+    }
+
+    public int getHistoryCacheTtlSeconds() {
+        return historyCacheTtlSeconds;
+    }
+
+    public String getHistoryRollupDir() {
+        return historyRollupDir;
+    }
+
+    public int getHistoryHourlyRetentionDays() {
+        return historyHourlyRetentionDays;
+    }
+
+    public int getHistoryRawRetentionDays() {
+        return historyRawRetentionDays;
+    }
+
+    public boolean isHistorySpoolEnabled() {
+        return historySpoolEnabled;
+    }
+
+    public String getHistorySpoolDir() {
+        return historySpoolDir;
+    }
+
+    public int getHistorySpoolSegmentKb() {
+        return historySpoolSegmentKb;
+    }
+
+    public int getHistorySpoolMaxMb() {
+        return historySpoolMaxMb;
+    }
+
     public boolean isAutoUpdateEnabled() {
         return autoUpdateEnabled;
     }
@@ -159,6 +290,62 @@ public class ConfigLoader {
         return realTimeDashboardIntervalSeconds;
     }
 
+    public int getRealTimeBackgroundIntervalSeconds() {
+        return realTimeBackgroundIntervalSeconds;
+    }
+
+    public int getRealTimeCliMaxIntervalSeconds() {
+        return realTimeCliMaxIntervalSeconds;
+    }
+
+    public int getRealTimeDashboardMaxIntervalSeconds() {
+        return realTimeDashboardMaxIntervalSeconds;
+    }
+
+    public int getRealTimeBackgroundMaxIntervalSeconds() {
+        return realTimeBackgroundMaxIntervalSeconds;
+    }
+
+    public double getRealTimeBackoffFactor() {
+        return realTimeBackoffFactor;
+    }
+
+    public int getRealTimeJitterPercent() {
+        return realTimeJitterPercent;
+    }
+
+    public double getRealTimeForecastThreshold() {
+        return realTimeForecastThreshold;
+    }
+
+    public double getRealTimeForecastHalfLifeWeeks() {
+        return realTimeForecastHalfLifeWeeks;
+    }
+
+    public int getEventBusCapacity() {
+        return eventBusCapacity;
+    }
+
+    public int getEventBusBlockTimeoutMs() {
+        return eventBusBlockTimeoutMs;
+    }
+
+    public int getTimelineCapacity() {
+        return timelineCapacity;
+    }
+
+    public int getHealthDownAfterFailures() {
+        return healthDownAfterFailures;
+    }
+
+    public int getHealthUpAfterSuccesses() {
+        return healthUpAfterSuccesses;
+    }
+
+    public boolean isHealthNotifyDiscord() {
+        return healthNotifyDiscord;
+    }
+
     public List<Integer> getPortCheckerDefaultPorts() {
         return portCheckerDefaultPorts;
     }
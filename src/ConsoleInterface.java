@@ -67,10 +67,10 @@ public class ConsoleInterface {
         System.out.println("  analytics <playername>         - Show player analytics & insights");
         System.out.println("  realtime <playername> [server] - Start real-time monitoring");
         System.out.println("  realtime stop                  - Stop real-time monitoring");
-        System.out.println("  rtadd <player> [server]        - Add player to multi-player monitoring");
-        System.out.println("  rtremove <player>              - Remove player from monitoring");
+        System.out.println("  rtadd <player> [server|all]    - Add player to multi-player monitoring");
+        System.out.println("  rtremove <player> [server]     - Remove player from monitoring");
         System.out.println("  rtlist                         - List monitored players");
-        System.out.println("  rtbackground <player(s)>       - Start background monitoring");
+        System.out.println("  rtbackground <player(s)> [@server] - Start background monitoring");
         System.out.println("  rtstop                         - Stop background monitoring");
         System.out.println("  timeline [count]               - Show recent events (default 20)");
         System.out.println("  perfstats [server]             - Show performance statistics");
@@ -195,9 +195,10 @@ public class ConsoleInterface {
             case "rtremove":
                 if (parts.length < 2) {
                     System.out.println("Error: Please provide a player name.");
-                    System.out.println("Usage: rtremove <playername>");
+                    System.out.println("Usage: rtremove <playername> [server]");
                 } else {
-                    multiRealTime.removeCliPlayer(parts[1]);
+                    String[] args = parts[1].split("\\s+", 2);
+                    multiRealTime.removeCliPlayer(args[0], args.length > 1 ? args[1] : null);
                 }
                 break;
 
@@ -208,12 +209,21 @@ public class ConsoleInterface {
             case "rtbackground":
                 if (parts.length < 2) {
                     System.out.println("Error: Please provide player names.");
-                    System.out.println("Usage: rtbackground <player1> [player2] ...");
+                    System.out.println("Usage: rtbackground <player1> [player2] ... [@server]");
                 } else {
                     String[] playerNames = parts[1].split("\\s+");
-                    Set<String> players = new HashSet<>(Arrays.asList(playerNames));
-                    multiRealTime.startBackgroundMonitoring(players);
-                    System.out.println("Background monitoring started for " + players.size() + " player(s)");
+                    Set<String> players = new HashSet<>();
+                    String serverName = null;
+                    for (String name : playerNames) {
+                        if (name.startsWith("@")) {
+                            serverName = name.substring(1);
+                        } else {
+                            players.add(name);
+                        }
+                    }
+                    if (multiRealTime.startBackgroundMonitoring(players, serverName)) {
+                        System.out.println("Background monitoring started for " + players.size() + " player(s)");
+                    }
                 }
                 break;
 
@@ -445,7 +455,14 @@ public class ConsoleInterface {
         System.out.println("Loading history for " + playerName + " (last " + days + " days)...");
         System.out.println();
 
-        List<HistoryEntry> history = historyService.getPlayerHistory(playerName, days);
+        HistoryPage page = historyService.getPlayerHistory(playerName, days);
+        List<HistoryEntry> history = page.entries();
+        if (page.partial()) {
+            System.out.println("Warning: The history store failed part-way; showing partial results.");
+        }
+        if (page.truncated()) {
+            System.out.println("Note: Only the newest " + history.size() + " records in range are shown.");
+        }
 
         if (history.isEmpty()) {
             System.out.println("No history found for " + playerName);
@@ -466,12 +483,12 @@ public class ConsoleInterface {
         System.out.println();
         System.out.println("Total records: " + history.size());
 
-        Map<String, Integer> summary = historyService.getDailySummary(playerName, days);
+        Map<String, Long> summary = historyService.getDailySummary(playerName, days);
         if (!summary.isEmpty()) {
             System.out.println();
-            System.out.println("Daily summary (online checks):");
-            for (Map.Entry<String, Integer> entry : summary.entrySet()) {
-                System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " times");
+            System.out.println("Daily summary (online time, UTC days):");
+            for (Map.Entry<String, Long> entry : summary.entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + Utils.formatDuration(entry.getValue()));
             }
         }
     }
@@ -516,18 +533,18 @@ public class ConsoleInterface {
     }
 
     private void listRealTimePlayers() {
-        List<String> cliPlayers = multiRealTime.listCliPlayers();
-        List<String> bgPlayers = multiRealTime.listBackgroundPlayers();
+        Map<String, List<String>> cliPlayers = multiRealTime.getCliSubscriptions();
+        Map<String, List<String>> bgPlayers = multiRealTime.getBackgroundSubscriptions();
 
         System.out.println("\nReal-Time Monitored Players:");
         System.out.println("CLI Mode (" + cliPlayers.size() + "):");
-        for (String player : cliPlayers) {
-            System.out.println("  - " + player);
+        for (Map.Entry<String, List<String>> entry : cliPlayers.entrySet()) {
+            System.out.println("  - " + entry.getKey() + " (" + String.join(", ", entry.getValue()) + ")");
         }
 
         System.out.println("\nBackground Mode (" + bgPlayers.size() + "):");
-        for (String player : bgPlayers) {
-            System.out.println("  - " + player);
+        for (Map.Entry<String, List<String>> entry : bgPlayers.entrySet()) {
+            System.out.println("  - " + entry.getKey() + " (" + String.join(", ", entry.getValue()) + ")");
         }
         System.out.println();
     }
@@ -18,8 +18,9 @@ public class DashboardServer {
     private final LiveTimeline timeline;
     private final ServerPerformanceMonitor perfMonitor;
     private final PortChecker portChecker;
+    private final MonitorPipeline pipeline;
 
-    public DashboardServer(int port, MultiServerChecker serverChecker, HistoryService historyService, ConfigLoader config, UpdateManager updateManager, RealTimeCheckController realTimeController, MultiPlayerRealTimeController multiRealTime, PlayerAnalytics analytics, LiveTimeline timeline, ServerPerformanceMonitor perfMonitor, PortChecker portChecker) {
+    public DashboardServer(int port, MultiServerChecker serverChecker, HistoryService historyService, ConfigLoader config, UpdateManager updateManager, RealTimeCheckController realTimeController, MultiPlayerRealTimeController multiRealTime, PlayerAnalytics analytics, LiveTimeline timeline, ServerPerformanceMonitor perfMonitor, PortChecker portChecker, MonitorPipeline pipeline) {
         this.port = port;
         this.serverChecker = serverChecker;
         this.historyService = historyService;
@@ -31,6 +32,7 @@ public class DashboardServer {
         this.timeline = timeline;
         this.perfMonitor = perfMonitor;
         this.portChecker = portChecker;
+        this.pipeline = pipeline;
     }
 
     public void start() throws IOException {
@@ -47,8 +49,13 @@ public class DashboardServer {
         server.createContext("/realtime/toggle", this::handleRealtimeToggle);
 
         server.createContext("/api/analytics", this::handleAnalytics);
+        server.createContext("/api/leaderboard", this::handleLeaderboard);
+        server.createContext("/api/copresence", this::handleCoPresence);
+        server.createContext("/api/forecast", this::handleForecast);
+        server.createContext("/api/rollups", this::handleRollups);
         server.createContext("/api/timeline", this::handleTimeline);
         server.createContext("/api/performance", this::handlePerformance);
+        server.createContext("/api/stats", this::handleStats);
         server.createContext("/api/realtime/multi/add", this::handleMultiRealtimeAdd);
         server.createContext("/api/realtime/multi/remove", this::handleMultiRealtimeRemove);
         server.createContext("/api/realtime/multi/list", this::handleMultiRealtimeList);
@@ -127,10 +134,11 @@ public class DashboardServer {
 
         String query = exchange.getRequestURI().getQuery();
         String playerName = getQueryParam(query, "player");
+        String serverName = getQueryParam(query, "server");
         String daysStr = getQueryParam(query, "days");
 
-        if (playerName == null || playerName.isEmpty()) {
-            sendResponse(exchange, 400, "{\"error\":\"Player name required\"}", "application/json");
+        if ((playerName == null || playerName.isEmpty()) && (serverName == null || serverName.isEmpty())) {
+            sendResponse(exchange, 400, "{\"error\":\"Player or server name required\"}", "application/json");
             return;
         }
 
@@ -141,10 +149,14 @@ public class DashboardServer {
             } catch (NumberFormatException e) {}
         }
 
-        List<HistoryEntry> history = historyService.getPlayerHistory(playerName, days);
-        String json = buildHistoryJSON(history);
+        HistoryPage history = playerName != null && !playerName.isEmpty()
+                ? historyService.getPlayerHistory(playerName, days)
+                : historyService.getServerHistory(serverName, days);
+        String json = buildHistoryJSON(history.entries());
 
         setCORSHeaders(exchange);
+        exchange.getResponseHeaders().set("X-History-Partial", String.valueOf(history.partial()));
+        exchange.getResponseHeaders().set("X-History-Truncated", String.valueOf(history.truncated()));
         sendResponse(exchange, 200, json, "application/json");
     }
 
@@ -758,10 +770,229 @@ public class DashboardServer {
         sendResponse(exchange, 200, json, "application/json");
     }
 
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String playersParam = getQueryParam(query, "players");
+        String serverName = getQueryParam(query, "server");
+        String metricParam = getQueryParam(query, "metric");
+
+        PlayerAnalytics.LeaderboardMetric metric = PlayerAnalytics.LeaderboardMetric.PLAYTIME;
+        if (metricParam != null) {
+            try {
+                metric = PlayerAnalytics.LeaderboardMetric.valueOf(metricParam.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                sendResponse(exchange, 400, "{\"error\":\"Unknown metric\"}", "application/json");
+                return;
+            }
+        }
+
+        int days = 7;
+        int limit = 10;
+        try {
+            String daysStr = getQueryParam(query, "days");
+            String limitStr = getQueryParam(query, "limit");
+            if (daysStr != null) days = Integer.parseInt(daysStr);
+            if (limitStr != null) limit = Math.min(Integer.parseInt(limitStr), 1000);
+        } catch (NumberFormatException e) {}
+
+        List<PlayerAnalytics.PlayerInsights> ranked;
+        if (playersParam != null) {
+            Set<String> players = new LinkedHashSet<>(Arrays.asList(playersParam.split(",")));
+            ranked = analytics.getCohortLeaderboard(players, days, metric, limit);
+        } else {
+            ranked = analytics.getLeaderboard(serverName, days, metric, limit);
+        }
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < ranked.size(); i++) {
+            if (i > 0) json.append(",");
+            json.append(insightsToJson(ranked.get(i)));
+        }
+        json.append("]");
+
+        setCORSHeaders(exchange);
+        sendResponse(exchange, 200, json.toString(), "application/json");
+    }
+
+    private void handleCoPresence(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String playerName = getQueryParam(query, "player");
+        String playersParam = getQueryParam(query, "players");
+
+        int days = 30;
+        int limit = 10;
+        try {
+            String daysStr = getQueryParam(query, "days");
+            String limitStr = getQueryParam(query, "limit");
+            if (daysStr != null) days = Integer.parseInt(daysStr);
+            if (limitStr != null) limit = Math.min(Integer.parseInt(limitStr), 1000);
+        } catch (NumberFormatException e) {}
+
+        StringBuilder json = new StringBuilder();
+        if (playerName != null) {
+            json.append("{\"playerName\":\"").append(Utils.escapeJson(playerName)).append("\",\"companions\":[");
+            List<PlayerAnalytics.Companion> companions = analytics.getFrequentCompanions(playerName, days, limit);
+            for (int i = 0; i < companions.size(); i++) {
+                if (i > 0) json.append(",");
+                json.append("{\"playerName\":\"").append(Utils.escapeJson(companions.get(i).getPlayerName()))
+                    .append("\",\"sharedMinutes\":").append(companions.get(i).getSharedMinutes()).append("}");
+            }
+            json.append("]}");
+        } else if (playersParam != null) {
+            PlayerAnalytics.CoPresenceMatrix matrix =
+                analytics.getCoPresenceMatrix(Arrays.asList(playersParam.split(",")), days);
+            json.append("{\"players\":").append(listToJson(matrix.getPlayerNames())).append(",\"minutes\":[");
+            int[][] minutes = matrix.getMinutes();
+            for (int i = 0; i < minutes.length; i++) {
+                if (i > 0) json.append(",");
+                json.append("[");
+                for (int j = 0; j < minutes[i].length; j++) {
+                    if (j > 0) json.append(",");
+                    json.append(minutes[i][j]);
+                }
+                json.append("]");
+            }
+            json.append("]}");
+        } else {
+            sendResponse(exchange, 400, "{\"error\":\"Missing player or players parameter\"}", "application/json");
+            return;
+        }
+
+        setCORSHeaders(exchange);
+        sendResponse(exchange, 200, json.toString(), "application/json");
+    }
+
+    private void handleForecast(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String playerName = getQueryParam(query, "player");
+        String playersParam = getQueryParam(query, "players");
+        PresenceForecaster forecaster = analytics.getForecaster();
+        double threshold = config.getRealTimeForecastThreshold();
+
+        StringBuilder json = new StringBuilder();
+        if (playerName != null) {
+            double probability = forecaster.probabilityNextHour(playerName);
+            json.append("{\"playerName\":\"").append(Utils.escapeJson(playerName)).append("\",");
+            json.append("\"nextHour\":").append(String.format(Locale.ROOT, "%.3f", probability)).append(",");
+            json.append("\"likely\":").append(probability >= threshold).append(",\"weekly\":[");
+            double[][] weekly = forecaster.getWeeklyProfile(playerName);
+            for (int day = 0; day < weekly.length; day++) {
+                if (day > 0) json.append(",");
+                json.append("[");
+                for (int hour = 0; hour < weekly[day].length; hour++) {
+                    if (hour > 0) json.append(",");
+                    json.append(String.format(Locale.ROOT, "%.3f", weekly[day][hour]));
+                }
+                json.append("]");
+            }
+            json.append("]}");
+        } else if (playersParam != null) {
+            List<String> players = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(playersParam.split(","))));
+            forecaster.prefetch(players);
+            Map<String, Double> probabilities = new HashMap<>();
+            for (String player : players) {
+                probabilities.put(player, forecaster.probabilityNextHour(player));
+            }
+            players.sort(Comparator.comparingDouble(probabilities::get).reversed());
+
+            json.append("[");
+            for (int i = 0; i < players.size(); i++) {
+                double probability = probabilities.get(players.get(i));
+                if (i > 0) json.append(",");
+                json.append("{\"playerName\":\"").append(Utils.escapeJson(players.get(i))).append("\",");
+                json.append("\"nextHour\":").append(String.format(Locale.ROOT, "%.3f", probability)).append(",");
+                json.append("\"likely\":").append(probability >= threshold).append("}");
+            }
+            json.append("]");
+        } else {
+            sendResponse(exchange, 400, "{\"error\":\"Missing player or players parameter\"}", "application/json");
+            return;
+        }
+
+        setCORSHeaders(exchange);
+        sendResponse(exchange, 200, json.toString(), "application/json");
+    }
+
+    private void handleRollups(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String playerName = getQueryParam(query, "player");
+        String serverName = getQueryParam(query, "server");
+        String daysStr = getQueryParam(query, "days");
+
+        HistoryRollups.Scope scope = playerName != null ? HistoryRollups.Scope.PLAYER : HistoryRollups.Scope.SERVER;
+        String name = playerName != null ? playerName : serverName;
+        if (name == null || name.isEmpty()) {
+            sendResponse(exchange, 400, "{\"error\":\"Player or server name required\"}", "application/json");
+            return;
+        }
+
+        int days = 30;
+        if (daysStr != null) {
+            try {
+                days = Integer.parseInt(daysStr);
+            } catch (NumberFormatException e) {}
+        }
+
+        Map<String, Long> daily = historyService.getDailyOnlineTime(scope, name, days);
+        long[] hourly = historyService.getHourlyOnlineTime(scope, name, days);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"name\":\"").append(Utils.escapeJson(name)).append("\",");
+        json.append("\"scope\":\"").append(scope.name().toLowerCase()).append("\",");
+        json.append("\"dailyMinutes\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : daily.entrySet()) {
+            if (!first) json.append(",");
+            json.append("\"").append(entry.getKey()).append("\":").append(entry.getValue() / 60_000L);
+            first = false;
+        }
+        json.append("},\"hourlyMinutes\":[");
+        for (int hour = 0; hour < hourly.length; hour++) {
+            if (hour > 0) json.append(",");
+            json.append(hourly[hour] / 60_000L);
+        }
+        json.append("]}");
+
+        setCORSHeaders(exchange);
+        sendResponse(exchange, 200, json.toString(), "application/json");
+    }
+
     private void handleTimeline(HttpExchange exchange) throws IOException {
-        List<LiveTimeline.TimelineEvent> events = timeline.getRecentEvents(50);
-        String json = timelineToJson(events);
-        sendResponse(exchange, 200, json, "application/json");
+        String query = exchange.getRequestURI().getQuery();
+        String afterStr = getQueryParam(query, "after");
+        String epoch = getQueryParam(query, "epoch");
+        long lastSequence = timeline.getLastSequence();
+        exchange.getResponseHeaders().set("X-Timeline-Epoch", timeline.getEpoch());
+        exchange.getResponseHeaders().set("X-Timeline-Sequence", String.valueOf(lastSequence));
+
+        long after = -1;
+        int limit = 50;
+        try {
+            if (afterStr != null) {
+                after = Long.parseLong(afterStr);
+                limit = 1000;
+            }
+            String limitStr = getQueryParam(query, "limit");
+            if (limitStr != null) limit = Math.min(Integer.parseInt(limitStr), timeline.getCapacity());
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid after or limit\"}", "application/json");
+            return;
+        }
+
+        List<LiveTimeline.TimelineEvent> events;
+        boolean staleCursor = (epoch != null && !epoch.equals(timeline.getEpoch())) || after > lastSequence;
+        if (afterStr == null || staleCursor) {
+            // No cursor, or one issued by an earlier process: start over from the latest events.
+            events = timeline.getRecentEvents(limit);
+        } else if (after == lastSequence) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        } else {
+            events = timeline.since(after, limit);
+        }
+
+        sendResponse(exchange, 200, timelineToJson(events), "application/json");
     }
 
     private void handlePerformance(HttpExchange exchange) throws IOException {
@@ -783,6 +1014,66 @@ public class DashboardServer {
         }
     }
 
+    private void handleStats(HttpExchange exchange) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"events\":{\"capacity\":").append(pipeline.getCapacity()).append(",\"consumers\":[");
+        List<String> consumers = pipeline.getConsumerNames();
+        for (int i = 0; i < consumers.size(); i++) {
+            String name = consumers.get(i);
+            if (i > 0) json.append(",");
+            json.append("{\"name\":\"").append(Utils.escapeJson(name)).append("\",");
+            json.append("\"lag\":").append(pipeline.getLag(name)).append(",");
+            json.append("\"dropped\":").append(pipeline.getDroppedCount(name)).append("}");
+        }
+        json.append("]},");
+
+        json.append("\"polling\":{\"realtime\":");
+        appendIntervals(json, realTimeController.getPollIntervals());
+        json.append(",\"multi\":");
+        appendIntervals(json, multiRealTime.getPollIntervals());
+        json.append("},");
+
+        json.append("\"historyWriters\":[");
+        List<HistoryWriter> writers = historyService.getWriters();
+        for (int i = 0; i < writers.size(); i++) {
+            HistoryWriter writer = writers.get(i);
+            if (i > 0) json.append(",");
+            json.append("{\"table\":\"").append(Utils.escapeJson(writer.getTable())).append("\",");
+            json.append("\"pending\":").append(writer.getPendingCount()).append(",");
+            json.append("\"written\":").append(writer.getWrittenRows()).append(",");
+            json.append("\"dropped\":").append(writer.getDroppedRows()).append(",");
+            json.append("\"quarantined\":").append(writer.getQuarantinedRows()).append(",");
+            json.append("\"requests\":").append(writer.getRequestCount()).append("}");
+        }
+        json.append("],");
+
+        HistoryCache cache = historyService.getCache();
+        json.append("\"historyCache\":{\"entries\":").append(cache.size());
+        json.append(",\"hits\":").append(cache.getHits());
+        json.append(",\"misses\":").append(cache.getMisses()).append("}}");
+
+        sendResponse(exchange, 200, json.toString(), "application/json");
+    }
+
+    // Current poll interval in ms per server, grouped by monitor.
+    private void appendIntervals(StringBuilder json, Map<String, Map<String, Long>> intervals) {
+        json.append("{");
+        boolean firstGroup = true;
+        for (Map.Entry<String, Map<String, Long>> group : intervals.entrySet()) {
+            if (!firstGroup) json.append(",");
+            firstGroup = false;
+            json.append("\"").append(Utils.escapeJson(group.getKey())).append("\":{");
+            boolean first = true;
+            for (Map.Entry<String, Long> server : group.getValue().entrySet()) {
+                if (!first) json.append(",");
+                first = false;
+                json.append("\"").append(Utils.escapeJson(server.getKey())).append("\":").append(server.getValue());
+            }
+            json.append("}");
+        }
+        json.append("}");
+    }
+
     private void handleMultiRealtimeAdd(HttpExchange exchange) throws IOException {
         String query = exchange.getRequestURI().getQuery();
         String playerName = getQueryParam(query, "player");
@@ -795,8 +1086,9 @@ public class DashboardServer {
     private void handleMultiRealtimeRemove(HttpExchange exchange) throws IOException {
         String query = exchange.getRequestURI().getQuery();
         String playerName = getQueryParam(query, "player");
+        String serverName = getQueryParam(query, "server");
 
-        boolean success = multiRealTime.removeCliPlayer(playerName);
+        boolean success = multiRealTime.removeCliPlayer(playerName, serverName);
         sendResponse(exchange, 200, "{\"success\":" + success + "}", "application/json");
     }
 
@@ -814,6 +1106,7 @@ public class DashboardServer {
     private void handleBackgroundStart(HttpExchange exchange) throws IOException {
         String query = exchange.getRequestURI().getQuery();
         String playersParam = getQueryParam(query, "players");
+        String serverName = getQueryParam(query, "server");
 
         if (playersParam == null) {
             sendResponse(exchange, 400, "{\"error\":\"Missing players parameter\"}", "application/json");
@@ -822,7 +1115,7 @@ public class DashboardServer {
 
         String[] playerNames = playersParam.split(",");
         Set<String> players = new HashSet<>(Arrays.asList(playerNames));
-        boolean success = multiRealTime.startBackgroundMonitoring(players);
+        boolean success = multiRealTime.startBackgroundMonitoring(players, serverName);
         sendResponse(exchange, 200, "{\"success\":" + success + "}", "application/json");
     }
 
@@ -832,29 +1125,18 @@ public class DashboardServer {
     }
 
     private String insightsToJson(PlayerAnalytics.PlayerInsights insights) {
-        Map<Integer, Integer> hourlyActivity = insights.getHourlyActivity();
-        StringBuilder hourlyJson = new StringBuilder("{");
-        boolean first = true;
-        for (Map.Entry<Integer, Integer> entry : hourlyActivity.entrySet()) {
-            if (!first) hourlyJson.append(",");
-            hourlyJson.append("\"").append(entry.getKey()).append("\":").append(entry.getValue());
-            first = false;
-        }
-        hourlyJson.append("}");
-
-        return String.format(
-            "{\"playerName\":\"%s\",\"totalOnlineTime\":%d,\"dailyOnlineTime\":%d," +
-            "\"weeklyOnlineTime\":%d,\"sessionCount\":%d,\"averageSessionLength\":%d," +
-            "\"longestSession\":%d,\"hourlyActivity\":%s}",
-            Utils.escapeJson(insights.getPlayerName()),
-            insights.getTotalOnlineTime(),
-            insights.getDailyOnlineTime(),
-            insights.getWeeklyOnlineTime(),
-            insights.getSessionCount(),
-            insights.getAverageSessionLength(),
-            insights.getLongestSession(),
-            hourlyJson
-        );
+        StringBuilder json = new StringBuilder();
+        json.append("{\"playerName\":\"").append(Utils.escapeJson(insights.getPlayerName())).append("\",");
+        json.append("\"totalOnlineTime\":").append(insights.getTotalOnlineTime()).append(",");
+        json.append("\"dailyOnlineTime\":").append(insights.getDailyOnlineTime()).append(",");
+        json.append("\"weeklyOnlineTime\":").append(insights.getWeeklyOnlineTime()).append(",");
+        json.append("\"sessionCount\":").append(insights.getSessionCount()).append(",");
+        json.append("\"averageSessionLength\":").append(insights.getAverageSessionLength()).append(",");
+        json.append("\"longestSession\":").append(insights.getLongestSession()).append(",");
+        Utils.appendJsonArray(json.append("\"hourlyActivity\":"), insights.getHourlyActivity()).append(",");
+        Utils.appendJsonArray(json.append("\"weekdayActivity\":"), insights.getWeekdayActivity()).append(",");
+        Utils.appendJsonArray(json.append("\"dailyActivity\":"), insights.getDailyActivity());
+        return json.append("}").toString();
     }
 
     private String timelineToJson(List<LiveTimeline.TimelineEvent> events) {
@@ -863,8 +1145,9 @@ public class DashboardServer {
             LiveTimeline.TimelineEvent event = events.get(i);
             if (i > 0) json.append(",");
             json.append(String.format(
-                "{\"timestamp\":%d,\"type\":\"%s\",\"playerName\":\"%s\"," +
+                "{\"sequence\":%d,\"timestamp\":%d,\"type\":\"%s\",\"playerName\":\"%s\"," +
                 "\"serverName\":\"%s\",\"message\":\"%s\"}",
+                event.getSequence(),
                 event.getTimestamp(),
                 event.getType().toString(),
                 Utils.escapeJson(event.getPlayerName() != null ? event.getPlayerName() : ""),
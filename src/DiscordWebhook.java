@@ -4,14 +4,8 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.time.Clock;
-import java.time.Instant;
-import java.util.Date;
 
 public record DiscordWebhook(String webhookUrl) {
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm:ss");
-
     public boolean isEnabled() {
         return webhookUrl != null && !webhookUrl.isEmpty();
     }
@@ -20,12 +14,11 @@ public record DiscordWebhook(String webhookUrl) {
         if (!isEnabled()) return;
 
         try {
-            String time = TIME_FORMAT.format(new Date());
             String message = String.format(
                     "{\"embeds\":[{\"title\":\"Player Online\",\"description\":\"**%s** is now online on **%s**\",\"color\":5763719,\"timestamp\":\"%s\",\"footer\":{\"text\":\"Minecraft Player Checker\"}}]}",
                     escapeJson(playerName),
                     escapeJson(serverName),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(Date.from(Instant.now(Clock.systemUTC())))
+                    Timestamps.formatIso(System.currentTimeMillis())
             );
 
             sendWebhook(message);
@@ -42,7 +35,7 @@ public record DiscordWebhook(String webhookUrl) {
                     "{\"embeds\":[{\"title\":\"Player Offline\",\"description\":\"**%s** is now offline on **%s**\",\"color\":15158332,\"timestamp\":\"%s\",\"footer\":{\"text\":\"Minecraft Player Checker\"}}]}",
                     escapeJson(playerName),
                     escapeJson(serverName),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(new Date())
+                    Timestamps.formatIso(System.currentTimeMillis())
             );
 
             sendWebhook(message);
@@ -59,7 +52,7 @@ public record DiscordWebhook(String webhookUrl) {
                     "{\"embeds\":[{\"title\":\"Server Outage\",\"description\":\"**%s** is currently unreachable.\\n\\nError: %s\",\"color\":15105570,\"timestamp\":\"%s\",\"footer\":{\"text\":\"Minecraft Player Checker\"}}]}",
                     escapeJson(serverName),
                     escapeJson(error),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(new Date())
+                    Timestamps.formatIso(System.currentTimeMillis())
             );
 
             sendWebhook(message);
@@ -75,7 +68,7 @@ public record DiscordWebhook(String webhookUrl) {
             String message = String.format(
                     "{\"embeds\":[{\"title\":\"Server Online\",\"description\":\"**%s** is now online again.\",\"color\":5763719,\"timestamp\":\"%s\",\"footer\":{\"text\":\"Minecraft Player Checker\"}}]}",
                     escapeJson(serverName),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(new Date())
+                    Timestamps.formatIso(System.currentTimeMillis())
             );
 
             sendWebhook(message);
@@ -91,7 +84,7 @@ public record DiscordWebhook(String webhookUrl) {
             String message = String.format(
                     "{\"embeds\":[{\"title\":\"Daily Summary\",\"description\":\"%s\",\"color\":3447003,\"timestamp\":\"%s\",\"footer\":{\"text\":\"Minecraft Player Checker\"}}]}",
                     escapeJson(summary),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(new Date())
+                    Timestamps.formatIso(System.currentTimeMillis())
             );
 
             sendWebhook(message);
@@ -0,0 +1,270 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Multi-producer ring read by independent consumers. Each slot's published sequence doubles as a
+// lock: a producer claims the slot by swapping in a writing marker, stores the event, then publishes
+// its sequence, and a producer a full lap ahead waits for the claim to clear. Consumers re-read the
+// sequence after the event, so an event taken while its slot was being reclaimed counts as dropped.
+public class EventBus<E> {
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public enum OverflowPolicy {
+        // Publishers wait up to blockTimeoutMs for the consumer, then overwrite; every loss is logged.
+        BLOCK_WITH_TIMEOUT,
+        DROP_OLDEST
+    }
+
+    public interface EventHandler<E> {
+        void onBatch(List<E> batch) throws Exception;
+    }
+
+    private final String name;
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Object> entries;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor;
+    private final long blockTimeoutNanos;
+    private final List<Consumer> consumers;
+    private volatile boolean running;
+
+    public EventBus(String name, int requestedCapacity, long blockTimeoutMs) {
+        int size = Integer.highestOneBit(Math.max(16, requestedCapacity) - 1) << 1;
+        this.name = name;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.cursor = new AtomicLong();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.consumers = new CopyOnWriteArrayList<>();
+        this.running = true;
+    }
+
+    public synchronized void addConsumer(String consumerName, OverflowPolicy policy, int batchSize,
+                                         EventHandler<E> handler) {
+        Consumer consumer = new Consumer(consumerName, policy, Math.max(1, batchSize), handler, cursor.get());
+        consumers.add(consumer);
+        consumer.thread.start();
+    }
+
+    public void publish(E event) {
+        if (!running) return;
+
+        long sequence = cursor.getAndIncrement();
+        awaitCapacity(sequence);
+
+        int index = (int) (sequence & mask);
+        if (!claim(index, sequence)) {
+            return;
+        }
+        entries.set(index, event);
+        published.set(index, sequence);
+
+        for (Consumer consumer : consumers) {
+            if (consumer.parked) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    // False when a producer a lap ahead already owns the slot; consumers see the gap and count the
+    // event as dropped.
+    private boolean claim(int index, long sequence) {
+        while (true) {
+            long current = published.get(index);
+            if (isWriting(current)) {
+                Thread.onSpinWait();
+            } else if (current > sequence) {
+                return false;
+            } else if (published.compareAndSet(index, current, writing(sequence))) {
+                return true;
+            }
+        }
+    }
+
+    private static long writing(long sequence) {
+        return -sequence - 2;
+    }
+
+    private static boolean isWriting(long slotSequence) {
+        return slotSequence <= -2;
+    }
+
+    private void awaitCapacity(long sequence) {
+        long deadline = 0;
+        for (Consumer consumer : consumers) {
+            if (consumer.policy != OverflowPolicy.BLOCK_WITH_TIMEOUT) continue;
+
+            long backoffNanos = 1000;
+            while (sequence - consumer.sequence.get() >= capacity && running) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + blockTimeoutNanos;
+                } else if (now >= deadline) {
+                    return;
+                }
+                LockSupport.unpark(consumer.thread);
+                LockSupport.parkNanos(this, Math.min(backoffNanos, deadline - now));
+                backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    public long getDroppedCount(String consumerName) {
+        for (Consumer consumer : consumers) {
+            if (consumer.name.equals(consumerName)) {
+                return consumer.dropped.get();
+            }
+        }
+        return 0;
+    }
+
+    public List<String> getConsumerNames() {
+        List<String> names = new ArrayList<>();
+        for (Consumer consumer : consumers) {
+            names.add(consumer.name);
+        }
+        return names;
+    }
+
+    public long getLag(String consumerName) {
+        for (Consumer consumer : consumers) {
+            if (consumer.name.equals(consumerName)) {
+                return Math.max(0, cursor.get() - consumer.sequence.get());
+            }
+        }
+        return 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class Consumer implements Runnable {
+        private final String name;
+        private final OverflowPolicy policy;
+        private final int batchSize;
+        private final EventHandler<E> handler;
+        private final AtomicLong sequence;
+        private final AtomicLong dropped;
+        private final Thread thread;
+        private volatile boolean parked;
+
+        Consumer(String name, OverflowPolicy policy, int batchSize, EventHandler<E> handler, long start) {
+            this.name = name;
+            this.policy = policy;
+            this.batchSize = batchSize;
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+            this.dropped = new AtomicLong();
+            this.thread = new Thread(this, EventBus.this.name + "-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<E> batch = new ArrayList<>(batchSize);
+            long idleNanos = TimeUnit.MICROSECONDS.toNanos(100);
+
+            while (true) {
+                boolean stopping = !running;
+                long next = drain(sequence.get(), batch);
+                sequence.set(next);
+
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                    idleNanos = TimeUnit.MICROSECONDS.toNanos(100);
+                    continue;
+                }
+
+                if (stopping) {
+                    return;
+                }
+
+                // A claimed but unpublished slot (its producer may be waiting on another consumer)
+                // is retried soon; otherwise the next publish unparks this thread.
+                parked = true;
+                LockSupport.parkNanos(this, next >= cursor.get() ? idleNanos : Math.min(idleNanos, MAX_BACKOFF_NANOS));
+                idleNanos = Math.min(idleNanos * 2, TimeUnit.MILLISECONDS.toNanos(50));
+                parked = false;
+            }
+        }
+
+        private long drain(long next, List<E> batch) {
+            long before = dropped.get();
+            long result = drainSlots(next, batch);
+            long lost = dropped.get() - before;
+            if (lost > 0 && policy == OverflowPolicy.BLOCK_WITH_TIMEOUT) {
+                System.err.println("Warning: " + EventBus.this.name + " consumer " + name + " lost " + lost
+                        + " event(s) after publishers waited " + TimeUnit.NANOSECONDS.toMillis(blockTimeoutNanos)
+                        + " ms (" + dropped.get() + " total)");
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private long drainSlots(long next, List<E> batch) {
+            long claimed = cursor.get();
+
+            while (next < claimed && batch.size() < batchSize) {
+                int index = (int) (next & mask);
+                long slotSequence = published.get(index);
+
+                if (isWriting(slotSequence) || slotSequence < next) {
+                    break;
+                }
+                if (slotSequence > next) {
+                    long oldestRetained = Math.max(next + 1, slotSequence - capacity + 1);
+                    dropped.addAndGet(oldestRetained - next);
+                    next = oldestRetained;
+                    continue;
+                }
+
+                E event = (E) entries.get(index);
+                if (published.get(index) != next) {
+                    dropped.incrementAndGet();
+                    next++;
+                    continue;
+                }
+
+                batch.add(event);
+                next++;
+            }
+
+            return next;
+        }
+
+        private void deliver(List<E> batch) {
+            try {
+                handler.onBatch(batch);
+            } catch (Exception e) {
+                System.err.println("Warning: " + name + " event handler failed: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+}
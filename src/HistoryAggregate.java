@@ -0,0 +1,131 @@
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Online time of one player over [from, to], as computed by the store: milliseconds per UTC day and
+// per local hour of day (both clipped to the window) plus session totals.
+public class HistoryAggregate {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private final long from;
+    private final long to;
+    private final ZoneId zone;
+    private final TreeMap<String, Long> dailyOnlineTime;
+    private final long[] hourlyOnlineTime;
+    private int sessionCount;
+    private long totalOnlineTime;
+    private long longestSession;
+    private long lastDayOnlineTime;
+    private long lastWeekOnlineTime;
+
+    public HistoryAggregate(long from, long to, ZoneId zone) {
+        this.from = from;
+        this.to = to;
+        this.zone = zone;
+        this.dailyOnlineTime = new TreeMap<>();
+        this.hourlyOnlineTime = new long[24];
+    }
+
+    public void addSession(long start, long end) {
+        long duration = Math.max(0, end - start);
+        sessionCount++;
+        totalOnlineTime += duration;
+        longestSession = Math.max(longestSession, duration);
+        lastDayOnlineTime += overlap(start, end, to - DAY_MS, to);
+        lastWeekOnlineTime += overlap(start, end, to - 7 * DAY_MS, to);
+
+        long cursor = Math.max(start, from);
+        long clippedEnd = Math.min(end, to);
+        while (cursor < clippedEnd) {
+            long dayEnd = Math.min(clippedEnd, (Math.floorDiv(cursor, DAY_MS) + 1) * DAY_MS);
+            addDailyTime(LocalDate.ofEpochDay(Math.floorDiv(cursor, DAY_MS)).toString(), dayEnd - cursor);
+            cursor = dayEnd;
+        }
+
+        cursor = Math.max(start, from);
+        while (cursor < clippedEnd) {
+            ZonedDateTime time = Instant.ofEpochMilli(cursor).atZone(zone);
+            long hourEnd = Math.min(time.truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant().toEpochMilli(), clippedEnd);
+            hourlyOnlineTime[time.getHour()] += hourEnd - cursor;
+            cursor = hourEnd;
+        }
+    }
+
+    public void addDailyTime(String day, long ms) {
+        if (ms > 0) {
+            dailyOnlineTime.merge(day, ms, Long::sum);
+        }
+    }
+
+    public void addHourlyTime(int hour, long ms) {
+        hourlyOnlineTime[hour] += ms;
+    }
+
+    public void addSessionTotals(int count, long total, long longest, long lastDay, long lastWeek) {
+        sessionCount += count;
+        totalOnlineTime += total;
+        longestSession = Math.max(longestSession, longest);
+        lastDayOnlineTime += lastDay;
+        lastWeekOnlineTime += lastWeek;
+    }
+
+    public void merge(HistoryAggregate other) {
+        for (Map.Entry<String, Long> day : other.dailyOnlineTime.entrySet()) {
+            addDailyTime(day.getKey(), day.getValue());
+        }
+        for (int hour = 0; hour < 24; hour++) {
+            hourlyOnlineTime[hour] += other.hourlyOnlineTime[hour];
+        }
+        addSessionTotals(other.sessionCount, other.totalOnlineTime, other.longestSession,
+                other.lastDayOnlineTime, other.lastWeekOnlineTime);
+    }
+
+    private static long overlap(long start, long end, long windowStart, long windowEnd) {
+        return Math.max(0, Math.min(end, windowEnd) - Math.max(start, windowStart));
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public NavigableMap<String, Long> getDailyOnlineTime() {
+        return dailyOnlineTime;
+    }
+
+    public long[] getHourlyOnlineTime() {
+        return hourlyOnlineTime;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public long getTotalOnlineTime() {
+        return totalOnlineTime;
+    }
+
+    public long getLongestSession() {
+        return longestSession;
+    }
+
+    public long getLastDayOnlineTime() {
+        return lastDayOnlineTime;
+    }
+
+    public long getLastWeekOnlineTime() {
+        return lastWeekOnlineTime;
+    }
+}
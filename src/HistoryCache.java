@@ -0,0 +1,114 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Entries are dropped when the store reports the rows as written, not when they are queued.
+public class HistoryCache implements HistoryStore.WriteListener {
+    public enum Kind {
+        PLAYER_HISTORY,
+        SERVER_HISTORY,
+        AGGREGATE
+    }
+
+    private record Key(Kind kind, String name, int days) {
+    }
+
+    private static class Cached {
+        final Object value;
+        final long createdAt;
+
+        Cached(Object value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LinkedHashMap<Key, Cached> entries;
+    private long version;
+    private long hits;
+    private long misses;
+
+    public HistoryCache(int maxEntries, long ttlMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > HistoryCache.this.maxEntries;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    // Values rejected by cacheable, e.g. results cut short by a store error, are returned but not kept.
+    public <T> T get(Kind kind, String name, int days, Supplier<T> loader, Predicate<? super T> cacheable) {
+        Key key = new Key(kind, name, days);
+        long observedVersion;
+
+        synchronized (this) {
+            Cached cached = entries.get(key);
+            if (cached != null && System.currentTimeMillis() - cached.createdAt < ttlMs) {
+                hits++;
+                return (T) cached.value;
+            }
+            misses++;
+            observedVersion = version;
+        }
+
+        T value = loader.get();
+
+        synchronized (this) {
+            // A write that landed while the store was being read may or may not be in the result,
+            // so only cache it if nothing was recorded in between.
+            if (version == observedVersion && cacheable.test(value)) {
+                entries.put(key, new Cached(value, System.currentTimeMillis()));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void onStatusStored(String playerName, String serverName) {
+        version++;
+        Iterator<Map.Entry<Key, Cached>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Cached> entry = iterator.next();
+            Key key = entry.getKey();
+            switch (key.kind()) {
+                case PLAYER_HISTORY -> {
+                    if (key.name().equals(playerName)) iterator.remove();
+                }
+                case SERVER_HISTORY -> {
+                    if (key.name().equals(serverName)) iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onSessionStored(String playerName) {
+        version++;
+        entries.keySet().removeIf(key -> key.kind() == Kind.AGGREGATE && key.name().equals(playerName));
+    }
+
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -2,7 +2,7 @@ public class HistoryEntry {
     private String playerName;
     private String serverName;
     private String status;
-    private String timestamp;
+    private long timestamp;
     private int onlineCount;
 
     public String getPlayerName() {
@@ -29,14 +29,22 @@ public class HistoryEntry {
         this.status = status;
     }
 
-    public String getTimestamp() {
+    public long getTimestampMillis() {
         return timestamp;
     }
 
-    public void setTimestamp(String timestamp) {
+    public void setTimestampMillis(long timestamp) {
         this.timestamp = timestamp;
     }
 
+    public String getTimestamp() {
+        return timestamp != 0 ? Timestamps.formatUtc(timestamp) : null;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = Timestamps.parse(timestamp);
+    }
+
     public int getOnlineCount() {
         return onlineCount;
     }
@@ -0,0 +1,20 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// History rows newest first. partial is set when the store failed part-way through the read, so the
+// rows are only a prefix of what exists; truncated is set when the range held more rows than the limit.
+public record HistoryPage(List<HistoryEntry> entries, boolean partial, boolean truncated) {
+    public static final HistoryPage EMPTY = new HistoryPage(List.of(), false, false);
+
+    // entries holds up to limit + 1 rows, the extra one only showing that the limit cut the range short.
+    public static HistoryPage of(List<HistoryEntry> entries, int limit, boolean complete) {
+        if (entries.size() > limit) {
+            return new HistoryPage(new ArrayList<>(entries.subList(0, limit)), !complete, true);
+        }
+        return new HistoryPage(entries, !complete, false);
+    }
+
+    public HistoryPage copy() {
+        return new HistoryPage(new ArrayList<>(entries), partial, truncated);
+    }
+}
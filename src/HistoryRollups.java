@@ -0,0 +1,228 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+// Online-time rollups per player and per server. Each series maps a UTC day to either 24 hourly
+// cells or, once older than the hourly retention, a single daily cell. Closed sessions are added
+// as they are recorded and appended to a delta log; snapshots fold the log away.
+public class HistoryRollups {
+    public enum Scope {
+        PLAYER,
+        SERVER
+    }
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final File directory;
+    private final Map<String, TreeMap<Long, long[]>> series;
+    private long generation;
+    private DataOutputStream log;
+
+    public HistoryRollups(File directory) throws IOException {
+        this.directory = directory;
+        this.series = new HashMap<>();
+        Utils.ensureDirectoryExists(directory);
+
+        loadSnapshot();
+        replayLogs();
+        openLog();
+        snapshot();
+    }
+
+    public synchronized void addSession(PlayerSession session) {
+        long start = session.getStartTime();
+        long end = session.getEndTime();
+        if (end <= start) return;
+
+        addInterval(seriesFor(Scope.PLAYER, session.getPlayerName()), start, end);
+        addInterval(seriesFor(Scope.SERVER, session.getServerName()), start, end);
+
+        try {
+            log.writeUTF(session.getPlayerName());
+            log.writeUTF(session.getServerName());
+            log.writeLong(start);
+            log.writeLong(end);
+            log.flush();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to log rollup update: " + e.getMessage());
+        }
+    }
+
+    public synchronized TreeMap<Long, long[]> getCells(Scope scope, String name, long fromDay, long toDay) {
+        TreeMap<Long, long[]> copy = new TreeMap<>();
+        TreeMap<Long, long[]> cells = series.get(key(scope, name));
+        if (cells != null) {
+            for (Map.Entry<Long, long[]> cell : cells.subMap(fromDay, true, toDay, true).entrySet()) {
+                copy.put(cell.getKey(), cell.getValue().clone());
+            }
+        }
+        return copy;
+    }
+
+    public synchronized void compact(long hourlyCutoff) {
+        long cutoffDay = Math.floorDiv(hourlyCutoff, DAY_MS);
+        for (TreeMap<Long, long[]> cells : series.values()) {
+            for (Map.Entry<Long, long[]> cell : cells.headMap(cutoffDay, false).entrySet()) {
+                long[] hourly = cell.getValue();
+                if (hourly.length > 1) {
+                    cell.setValue(new long[] { Arrays.stream(hourly).sum() });
+                }
+            }
+        }
+        snapshot();
+    }
+
+    public synchronized void close() {
+        snapshot();
+        try {
+            log.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static void addInterval(TreeMap<Long, long[]> cells, long start, long end) {
+        long cursor = start;
+        while (cursor < end) {
+            long day = Math.floorDiv(cursor, DAY_MS);
+            long hourEnd = Math.min(end, (Math.floorDiv(cursor, HOUR_MS) + 1) * HOUR_MS);
+            long[] cell = cells.computeIfAbsent(day, d -> new long[24]);
+            cell[cell.length == 24 ? (int) ((cursor - day * DAY_MS) / HOUR_MS) : 0] += hourEnd - cursor;
+            cursor = hourEnd;
+        }
+    }
+
+    public static Map<String, Long> dailyTotals(TreeMap<Long, long[]> cells) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (Map.Entry<Long, long[]> cell : cells.entrySet()) {
+            totals.put(LocalDate.ofEpochDay(cell.getKey()).toString(), Arrays.stream(cell.getValue()).sum());
+        }
+        return totals;
+    }
+
+    public static long[] hourOfDayTotals(TreeMap<Long, long[]> cells, ZoneId zone) {
+        long[] totals = new long[24];
+        for (Map.Entry<Long, long[]> cell : cells.entrySet()) {
+            long[] hourly = cell.getValue();
+            if (hourly.length != 24) continue;
+
+            long dayStart = cell.getKey() * DAY_MS;
+            for (int hour = 0; hour < 24; hour++) {
+                if (hourly[hour] == 0) continue;
+                int localHour = Instant.ofEpochMilli(dayStart + hour * HOUR_MS).atZone(zone).getHour();
+                totals[localHour] += hourly[hour];
+            }
+        }
+        return totals;
+    }
+
+    private TreeMap<Long, long[]> seriesFor(Scope scope, String name) {
+        return series.computeIfAbsent(key(scope, name), k -> new TreeMap<>());
+    }
+
+    private static String key(Scope scope, String name) {
+        return scope.name() + ":" + name;
+    }
+
+    private void loadSnapshot() throws IOException {
+        File file = new File(directory, "rollups.snapshot");
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported rollup snapshot version");
+            }
+            generation = in.readLong();
+            int seriesCount = in.readInt();
+            for (int i = 0; i < seriesCount; i++) {
+                String key = in.readUTF();
+                int days = in.readInt();
+                TreeMap<Long, long[]> cells = new TreeMap<>();
+                for (int d = 0; d < days; d++) {
+                    long day = in.readLong();
+                    long[] values = new long[in.readByte()];
+                    for (int v = 0; v < values.length; v++) {
+                        values[v] = in.readLong();
+                    }
+                    cells.put(day, values);
+                }
+                series.put(key, cells);
+            }
+        }
+    }
+
+    private void replayLogs() throws IOException {
+        File[] logs = directory.listFiles((dir, name) -> name.startsWith("rollups-") && name.endsWith(".log"));
+        if (logs == null) return;
+
+        for (File file : logs) {
+            long logGeneration;
+            try {
+                logGeneration = Long.parseLong(file.getName().substring(8, file.getName().length() - 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (logGeneration < generation) {
+                Files.deleteIfExists(file.toPath());
+                continue;
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    String player = in.readUTF();
+                    String server = in.readUTF();
+                    long start = in.readLong();
+                    long end = in.readLong();
+                    addInterval(seriesFor(Scope.PLAYER, player), start, end);
+                    addInterval(seriesFor(Scope.SERVER, server), start, end);
+                }
+            } catch (EOFException ignored) {
+                // End of log, or a torn final record from an unclean shutdown.
+            }
+        }
+    }
+
+    private void openLog() throws IOException {
+        log = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(new File(directory, "rollups-" + generation + ".log"), true)));
+    }
+
+    private void snapshot() {
+        File temp = new File(directory, "rollups.snapshot.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(generation + 1);
+            out.writeInt(series.size());
+            for (Map.Entry<String, TreeMap<Long, long[]>> entry : series.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (Map.Entry<Long, long[]> cell : entry.getValue().entrySet()) {
+                    out.writeLong(cell.getKey());
+                    out.writeByte(cell.getValue().length);
+                    for (long value : cell.getValue()) {
+                        out.writeLong(value);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write rollup snapshot: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), new File(directory, "rollups.snapshot").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.close();
+            Files.deleteIfExists(new File(directory, "rollups-" + generation + ".log").toPath());
+            generation++;
+            openLog();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to rotate rollup log: " + e.getMessage());
+        }
+    }
+}
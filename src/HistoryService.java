@@ -1,200 +1,447 @@
-import java.io.*;
-import java.text.SimpleDateFormat;
+import java.io.File;
 import java.time.Clock;
-import java.util.*;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class HistoryService {
-    private SupabaseClient supabase;
-    private boolean enabled;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-    public HistoryService(boolean enabled) {
-        this.enabled = enabled;
+    private static final int HISTORY_LIMIT = 1000;
 
-        if (enabled) {
-            try {
-                String supabaseUrl = System.getenv("VITE_SUPABASE_URL");
-                String supabaseKey = System.getenv("VITE_SUPABASE_ANON_KEY");
+    public interface SessionListener {
+        void onSessionOpened(String playerName, String serverName, long start);
 
-                if (supabaseUrl == null || supabaseKey == null) {
-                    Map<String, String> env = loadEnvFile(".env");
-                    supabaseUrl = env.get("VITE_SUPABASE_URL");
-                    supabaseKey = env.get("VITE_SUPABASE_ANON_KEY");
-                }
+        void onSessionClosed(PlayerSession session);
+    }
 
-                if (supabaseUrl != null && !supabaseUrl.isEmpty() &&
-                    supabaseKey != null && !supabaseKey.isEmpty()) {
-                    this.supabase = new SupabaseClient(supabaseUrl, supabaseKey);
+    private HistoryStore store;
+    private final HistoryCache cache;
+    private HistoryRollups rollups;
+    private ScheduledExecutorService maintenance;
+    private boolean enabled;
+    private final long heartbeatMs;
+    private final long staleSessionMs;
+    private final long hourlyRetentionMs;
+    private final long rawRetentionMs;
+    private final Map<String, RecordedState> recordedStates = new ConcurrentHashMap<>();
+    private final Map<String, Integer> observers = new HashMap<>();
+    private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<>();
+
+    public HistoryService(ConfigLoader config) {
+        this.enabled = config.isHistoryEnabled();
+        this.heartbeatMs = config.getHistoryHeartbeatMinutes() * 60_000L;
+        this.staleSessionMs = config.getHistoryStaleSessionMinutes() * 60_000L;
+        this.cache = new HistoryCache(config.getHistoryCacheSize(), config.getHistoryCacheTtlSeconds() * 1000L);
+        this.hourlyRetentionMs = TimeUnit.DAYS.toMillis(config.getHistoryHourlyRetentionDays());
+        this.rawRetentionMs = TimeUnit.DAYS.toMillis(config.getHistoryRawRetentionDays());
 
-                    try {
-                        initializeDatabase();
+        if (enabled) {
+            try {
+                if ("local".equalsIgnoreCase(config.getHistoryBackend())) {
+                    this.store = new LocalHistoryStore(new File(config.getHistoryLocalDir()),
+                            config.getHistoryLocalOpenPartitions());
+                    System.out.println("History service using local store at " + config.getHistoryLocalDir() + ".");
+                } else {
+                    this.store = SupabaseHistoryStore.fromEnvironment(config);
+                    if (store != null) {
                         System.out.println("History service connected successfully.");
-                    } catch (Exception dbError) {
-                        System.err.println("Warning: Could not initialize Supabase database.");
-                        System.err.println("Reason: " + dbError.getMessage());
-                        System.err.println("History tracking will be disabled.");
-                        this.enabled = false;
-                        this.supabase = null;
                     }
-                } else {
+                }
+                if (store == null) {
                     this.enabled = false;
+                } else {
+                    store.setWriteListener(cache);
+                    this.rollups = new HistoryRollups(new File(config.getHistoryRollupDir()));
+                    startMaintenance();
                 }
             } catch (Exception e) {
-                System.err.println("Warning: Failed to initialize history service: " + e.getMessage());
+                System.err.println("Warning: Could not initialize history store.");
+                System.err.println("Reason: " + e.getMessage());
+                System.err.println("History tracking will be disabled.");
                 this.enabled = false;
-                this.supabase = null;
+                this.store = null;
             }
         }
     }
 
-    private Map<String, String> loadEnvFile(String filePath) {
-        return Utils.loadEnvFile(filePath);
+    private void startMaintenance() {
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "History-Maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, 1, 60, TimeUnit.MINUTES);
+        if (staleSessionMs > 0) {
+            maintenance.scheduleWithFixedDelay(() -> expireStaleSessions(System.currentTimeMillis()),
+                    1, 1, TimeUnit.MINUTES);
+        }
     }
 
-    private void initializeDatabase() {
+    private void runMaintenance() {
         try {
-            supabase.select("player_history", "limit=1");
+            long now = System.currentTimeMillis();
+            rollups.compact(now - hourlyRetentionMs);
+            if (rawRetentionMs > 0) {
+                store.deleteStatusBefore(now - rawRetentionMs);
+            }
         } catch (Exception e) {
-            throw new RuntimeException("""
-                    Cannot connect to Supabase or table 'player_history' does not exist. \
-                    Please create the table manually in Supabase dashboard:
-                    CREATE TABLE player_history (
-                      id SERIAL PRIMARY KEY,
-                      player_name TEXT NOT NULL,
-                      server_name TEXT NOT NULL,
-                      status TEXT NOT NULL,
-                      timestamp TIMESTAMPTZ DEFAULT NOW(),
-                      online_count INTEGER,
-                      query_data TEXT
-                    );""", e);
+            System.err.println("Warning: History maintenance failed: " + e.getMessage());
         }
     }
 
     public void recordPlayerStatus(String playerName, String serverName, boolean online, int onlineCount) {
-        if (!enabled || supabase == null) {
+        recordPlayerStatus(playerName, serverName, online, onlineCount, System.currentTimeMillis());
+    }
+
+    // observedAt is when the status was fetched, not when it reaches this method, so rows and
+    // session boundaries do not drift with queueing delay.
+    public void recordPlayerStatus(String playerName, String serverName, boolean online, int onlineCount,
+                                   long observedAt) {
+        if (!enabled || store == null) {
             return;
         }
 
-        try {
-            String status = online ? "online" : "offline";
-            String timestamp = DATE_FORMAT.format(Date.from(Instant.now( Clock.systemUTC() )));
-
-            String jsonData = String.format(
-                "{\"player_name\":\"%s\",\"server_name\":\"%s\",\"status\":\"%s\",\"online_count\":%d,\"timestamp\":\"%s\"}",
-                Utils.escapeJson(playerName),
-                Utils.escapeJson(serverName),
-                status,
-                onlineCount,
-                timestamp
-            );
-
-            supabase.insert("player_history", jsonData);
-        } catch (Exception e) {
-            System.err.println("Warning: Failed to record history: " + e.getMessage());
-        }
-    }
+        long now = observedAt;
+        PlayerSession closedSession = null;
+        boolean opened = false;
 
-    public List<HistoryEntry> getPlayerHistory(String playerName, int days) {
-        List<HistoryEntry> history = new ArrayList<>();
+        synchronized (recordedStates) {
+            String key = playerName + "|" + serverName;
+            RecordedState previous = recordedStates.get(key);
+            if (previous != null && now < previous.lastSeenAt) {
+                // Observations from concurrent pollers can arrive slightly out of order.
+                now = previous.lastSeenAt;
+            }
 
-        if (!enabled || supabase == null) {
-            return history;
+            if (previous != null && previous.online == online) {
+                previous.lastSeenAt = now;
+                if (heartbeatMs <= 0 || now - previous.lastWrittenAt < heartbeatMs) {
+                    return;
+                }
+                previous.lastWrittenAt = now;
+            } else {
+                if (previous != null && previous.online) {
+                    closedSession = new PlayerSession(playerName, serverName, previous.since, now, false);
+                }
+                recordedStates.put(key, new RecordedState(online, now));
+                opened = online;
+            }
         }
 
-        try {
-            // Calculate ISO timestamp X days ago
-            Instant since = Instant.now(Clock.systemUTC()).minus(days, ChronoUnit.DAYS);
-            String sinceIso = since.toString();
-
-            String filter = String.format(
-                "player_name=eq.%s&timestamp=gte.%s&order=timestamp.desc&limit=1000",
-                playerName,
-                URLEncoder.encode(sinceIso, StandardCharsets.UTF_8)
-            );
-
-            String response = supabase.select("player_history", filter);
-            history = parseHistoryResponse(response);
-        } catch (Exception e) {
-            System.err.println("Warning: Failed to fetch history: " + e.getMessage());
+        if (closedSession != null) {
+            recordSession(closedSession);
+        }
+        if (opened) {
+            for (SessionListener listener : sessionListeners) {
+                listener.onSessionOpened(playerName, serverName, now);
+            }
         }
 
-        return history;
+        store.appendStatus(playerName, serverName, online, onlineCount, now);
+    }
+
+    public void beginObservation(String playerName, String serverName) {
+        synchronized (recordedStates) {
+            observers.merge(playerName + "|" + serverName, 1, Integer::sum);
+        }
     }
 
-    public Map<String, Integer> getDailySummary(String playerName, int days) {
-        Map<String, Integer> summary = new LinkedHashMap<>();
+    // Called when a monitor stops watching the pair. Once nobody watches it any more, an open
+    // session ends at the last observation instead of running on until the next status.
+    public void endObservation(String playerName, String serverName) {
+        String key = playerName + "|" + serverName;
+        PlayerSession closedSession = null;
 
-        if (!enabled || supabase == null) {
-            return summary;
+        synchronized (recordedStates) {
+            Integer remaining = observers.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            if (remaining != null) {
+                return;
+            }
+            RecordedState state = recordedStates.remove(key);
+            if (state != null && state.online) {
+                closedSession = new PlayerSession(playerName, serverName, state.since, state.lastSeenAt, false);
+            }
         }
 
-        try {
-            List<HistoryEntry> history = getPlayerHistory(playerName, days);
+        if (closedSession != null) {
+            recordSession(closedSession);
+        }
+    }
+
+    // Sessions nobody has reported on for staleSessionMs (a one-off check, a poller that died)
+    // end at their last observation.
+    public void expireStaleSessions(long now) {
+        if (staleSessionMs <= 0) {
+            return;
+        }
 
-            for (HistoryEntry entry : history) {
-                String date = entry.getTimestamp().substring(0, 10);
-                if ("online".equals(entry.getStatus())) {
-                    summary.put(date, summary.getOrDefault(date, 0) + 1);
+        List<PlayerSession> closed = new ArrayList<>();
+        synchronized (recordedStates) {
+            Iterator<Map.Entry<String, RecordedState>> iterator = recordedStates.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, RecordedState> entry = iterator.next();
+                RecordedState state = entry.getValue();
+                if (now - state.lastSeenAt <= staleSessionMs) continue;
+                iterator.remove();
+                if (state.online) {
+                    String[] key = entry.getKey().split("\\|", 2);
+                    closed.add(new PlayerSession(key[0], key[1], state.since, state.lastSeenAt, false));
                 }
             }
-        } catch (Exception e) {
-            System.err.println("Warning: Failed to generate summary: " + e.getMessage());
         }
 
-        return summary;
+        for (PlayerSession session : closed) {
+            recordSession(session);
+        }
+    }
+
+    public void recordTimelineEvents(List<LiveTimeline.TimelineEvent> events) {
+        if (!enabled || store == null || events.isEmpty()) {
+            return;
+        }
+
+        store.appendTimelineEvents(events);
     }
 
-    private List<HistoryEntry> parseHistoryResponse(String json) {
-        List<HistoryEntry> entries = new ArrayList<>();
+    public HistoryPage getPlayerHistory(String playerName, int days) {
+        if (!enabled || store == null) {
+            return HistoryPage.EMPTY;
+        }
+
+        return cache.get(HistoryCache.Kind.PLAYER_HISTORY, playerName, days, () -> {
+            long now = Instant.now(Clock.systemUTC()).toEpochMilli();
+            return store.queryPlayerHistory(playerName, now - TimeUnit.DAYS.toMillis(days), now, HISTORY_LIMIT);
+        }, page -> !page.partial()).copy();
+    }
 
-        if (json == null || json.equals("[]")) {
-            return entries;
+    public HistoryPage getServerHistory(String serverName, int days) {
+        if (!enabled || store == null) {
+            return HistoryPage.EMPTY;
         }
 
-        String[] records = json.substring(1, json.length() - 1).split("\\},\\{");
+        return cache.get(HistoryCache.Kind.SERVER_HISTORY, serverName, days, () -> {
+            long now = Instant.now(Clock.systemUTC()).toEpochMilli();
+            return store.queryServerHistory(serverName, now - TimeUnit.DAYS.toMillis(days), now, HISTORY_LIMIT);
+        }, page -> !page.partial()).copy();
+    }
 
-        for (String record : records) {
-            try {
-                HistoryEntry entry = new HistoryEntry();
-
-                String playerName = extractJsonField(record, "player_name");
-                String serverName = extractJsonField(record, "server_name");
-                String status = extractJsonField(record, "status");
-                String timestamp = extractJsonField(record, "timestamp");
-                String onlineCountStr = extractJsonField(record, "online_count");
-
-                entry.setPlayerName(playerName);
-                entry.setServerName(serverName);
-                entry.setStatus(status);
-                entry.setTimestamp(timestamp);
-
-                if (onlineCountStr != null && !onlineCountStr.equals("null")) {
-                    try {
-                        entry.setOnlineCount(Integer.parseInt(onlineCountStr));
-                    } catch (NumberFormatException e) {
-                        entry.setOnlineCount(0);
-                    }
-                }
+    // The newest stored timeline events of the last week, oldest first.
+    public List<LiveTimeline.TimelineEvent> getRecentTimelineEvents(int limit) {
+        List<LiveTimeline.TimelineEvent> events = new ArrayList<>();
+        if (!enabled || store == null || limit <= 0) {
+            return events;
+        }
 
-                entries.add(entry);
-            } catch (Exception e) {
-                System.err.println("Warning: Failed to parse history entry: " + e.getMessage());
+        long now = System.currentTimeMillis();
+        store.scanTimelineEvents(now - TimeUnit.DAYS.toMillis(7), now, false,
+                event -> events.add(event) && events.size() < limit);
+        Collections.reverse(events);
+        return events;
+    }
+
+    public void scanPlayerHistory(String playerName, int days, HistoryStore.EntryVisitor visitor) {
+        if (!enabled || store == null) {
+            return;
+        }
+
+        long now = Instant.now(Clock.systemUTC()).toEpochMilli();
+        store.scanPlayerHistory(playerName, now - TimeUnit.DAYS.toMillis(days), now, true, visitor);
+    }
+
+    // Online time per UTC day, newest first. Status rows are only written on changes and heartbeats,
+    // so counting them says nothing about activity; the aggregate sums the stored sessions instead.
+    public Map<String, Long> getDailySummary(String playerName, int days) {
+        return new LinkedHashMap<>(getPlayerAggregate(playerName, days).getDailyOnlineTime().descendingMap());
+    }
+
+    // The store's aggregate over every stored session in the window, plus the sessions still open here.
+    public HistoryAggregate getPlayerAggregate(String playerName, int days) {
+        long now = System.currentTimeMillis();
+        long from = now - TimeUnit.DAYS.toMillis(days);
+        ZoneId zone = ZoneId.systemDefault();
+        HistoryAggregate aggregate = new HistoryAggregate(from, now, zone);
+        if (!enabled || store == null) {
+            return aggregate;
+        }
+
+        aggregate.merge(cache.get(HistoryCache.Kind.AGGREGATE, playerName, days,
+                () -> store.aggregatePlayer(playerName, from, now, zone), stored -> true));
+        for (PlayerSession session : getOpenSessions(playerName)) {
+            aggregate.addSession(session.getStartTime(), session.getEndTime());
+        }
+        return aggregate;
+    }
+
+    private void recordSession(PlayerSession session) {
+        store.appendSession(session);
+        rollups.addSession(session);
+        for (SessionListener listener : sessionListeners) {
+            listener.onSessionClosed(session);
+        }
+    }
+
+    public void addSessionListener(SessionListener listener) {
+        sessionListeners.add(listener);
+    }
+
+    public Map<String, Long> getDailyOnlineTime(HistoryRollups.Scope scope, String name, int days) {
+        return HistoryRollups.dailyTotals(getRollupCells(scope, name, days));
+    }
+
+    public long[] getHourlyOnlineTime(HistoryRollups.Scope scope, String name, int days) {
+        return HistoryRollups.hourOfDayTotals(getRollupCells(scope, name, days), ZoneId.systemDefault());
+    }
+
+    private TreeMap<Long, long[]> getRollupCells(HistoryRollups.Scope scope, String name, int days) {
+        if (!enabled || rollups == null) {
+            return new TreeMap<>();
+        }
+
+        long now = System.currentTimeMillis();
+        long from = now - TimeUnit.DAYS.toMillis(days);
+        long dayMs = TimeUnit.DAYS.toMillis(1);
+        TreeMap<Long, long[]> cells = rollups.getCells(scope, name, Math.floorDiv(from, dayMs), Math.floorDiv(now, dayMs));
+
+        for (Map.Entry<String, RecordedState> entry : recordedStates.entrySet()) {
+            RecordedState state = entry.getValue();
+            String[] key = entry.getKey().split("\\|", 2);
+            String keyName = scope == HistoryRollups.Scope.PLAYER ? key[0] : key[1];
+            if (state.online && keyName.equals(name)) {
+                HistoryRollups.addInterval(cells, Math.max(state.since, from), sessionEnd(state, now));
+            }
+        }
+        return cells;
+    }
+
+    public List<PlayerSession> getPlayerSessions(String playerName, int days) {
+        List<PlayerSession> sessions = new ArrayList<>();
+
+        if (!enabled || store == null) {
+            return sessions;
+        }
+
+        long now = Instant.now(Clock.systemUTC()).toEpochMilli();
+        sessions.addAll(store.querySessions(playerName, now - TimeUnit.DAYS.toMillis(days), now));
+        sessions.addAll(getOpenSessions(playerName));
+        return sessions;
+    }
+
+    public Map<String, List<PlayerSession>> getSessions(Collection<String> playerNames, int days) {
+        Map<String, List<PlayerSession>> sessions = new HashMap<>();
+        if (!enabled || store == null || playerNames.isEmpty()) {
+            return sessions;
+        }
+
+        long now = System.currentTimeMillis();
+        sessions.putAll(store.querySessions(playerNames, now - TimeUnit.DAYS.toMillis(days), now));
+        for (String playerName : playerNames) {
+            List<PlayerSession> open = getOpenSessions(playerName);
+            if (!open.isEmpty()) {
+                sessions.computeIfAbsent(playerName, k -> new ArrayList<>()).addAll(open);
             }
         }
+        return sessions;
+    }
+
+    // Sessions grouped by player for one server, or for every server when serverName is null.
+    public Map<String, List<PlayerSession>> getServerSessions(String serverName, int days) {
+        Map<String, List<PlayerSession>> sessions = new HashMap<>();
+        if (!enabled || store == null) {
+            return sessions;
+        }
 
-        return entries;
+        long now = System.currentTimeMillis();
+        store.scanSessions(serverName, now - TimeUnit.DAYS.toMillis(days), now, session ->
+                sessions.computeIfAbsent(session.getPlayerName(), k -> new ArrayList<>()).add(session));
+
+        for (Map.Entry<String, RecordedState> entry : recordedStates.entrySet()) {
+            RecordedState state = entry.getValue();
+            String[] key = entry.getKey().split("\\|", 2);
+            if (state.online && (serverName == null || key[1].equals(serverName))) {
+                long end = sessionEnd(state, now);
+                sessions.computeIfAbsent(key[0], k -> new ArrayList<>())
+                        .add(new PlayerSession(key[0], key[1], state.since, end, end == now));
+            }
+        }
+        return sessions;
     }
 
-    private String extractJsonField(String json, String fieldName) {
-        return Utils.extractJsonField(json, fieldName);
+    public List<PlayerSession> getOpenSessions(String playerName) {
+        List<PlayerSession> open = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        String prefix = playerName + "|";
+
+        for (Map.Entry<String, RecordedState> entry : recordedStates.entrySet()) {
+            RecordedState state = entry.getValue();
+            if (state.online && entry.getKey().startsWith(prefix)) {
+                String serverName = entry.getKey().substring(prefix.length());
+                long end = sessionEnd(state, now);
+                open.add(new PlayerSession(playerName, serverName, state.since, end, end == now));
+            }
+        }
+        return open;
     }
 
+    // A session not yet expired by the sweep but already stale is not extended to now.
+    private long sessionEnd(RecordedState state, long now) {
+        return staleSessionMs > 0 && now - state.lastSeenAt > staleSessionMs ? state.lastSeenAt : now;
+    }
 
     public boolean isEnabled() {
         return enabled;
     }
+
+    public HistoryCache getCache() {
+        return cache;
+    }
+
+    public HistoryStore getStore() {
+        return store;
+    }
+
+    public List<HistoryWriter> getWriters() {
+        return store != null ? store.getWriters() : List.of();
+    }
+
+    public void shutdown() {
+        synchronized (recordedStates) {
+            for (Map.Entry<String, RecordedState> entry : recordedStates.entrySet()) {
+                RecordedState state = entry.getValue();
+                if (state.online) {
+                    String[] key = entry.getKey().split("\\|", 2);
+                    recordSession(new PlayerSession(key[0], key[1], state.since, state.lastSeenAt, false));
+                }
+            }
+            recordedStates.clear();
+            observers.clear();
+        }
+
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        if (rollups != null) {
+            rollups.close();
+        }
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    private static class RecordedState {
+        final boolean online;
+        final long since;
+        long lastWrittenAt;
+        long lastSeenAt;
+
+        RecordedState(boolean online, long now) {
+            this.online = online;
+            this.since = now;
+            this.lastWrittenAt = now;
+            this.lastSeenAt = now;
+        }
+    }
 }
@@ -0,0 +1,316 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class HistorySpool {
+    private static final int HEADER_BYTES = 8;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String QUARANTINE_FILE = "quarantine.jsonl";
+
+    private final File directory;
+    private final int segmentBytes;
+    private final long maxSegments;
+    private final NavigableMap<Long, MappedByteBuffer> segments;
+
+    private long writeSegment;
+    private int writePosition;
+    private long readSegment;
+    private int readPosition;
+    private long pendingCount;
+    private long droppedCount;
+    private long quarantinedCount;
+
+    // maxBytes bounds the segments on disk; 0 means unbounded.
+    public HistorySpool(File directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.maxSegments = maxBytes > 0 ? Math.max(2, maxBytes / this.segmentBytes) : Long.MAX_VALUE;
+        this.segments = new TreeMap<>();
+
+        Utils.ensureDirectoryExists(directory);
+        recover();
+    }
+
+    public synchronized void append(String record) throws IOException {
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes - HEADER_BYTES) {
+            throw new IOException("Record too large for spool segment: " + payload.length + " bytes");
+        }
+
+        if (writePosition + size > segmentBytes - HEADER_BYTES) {
+            writeSegment++;
+            writePosition = 0;
+            while (writeSegment - readSegment + 1 > maxSegments) {
+                evictOldestSegment();
+            }
+        }
+
+        MappedByteBuffer buffer = segment(writeSegment);
+        buffer.putInt(writePosition + 4, checksum(payload));
+        buffer.put(writePosition + HEADER_BYTES, payload);
+        buffer.putInt(writePosition, payload.length);
+        writePosition += size;
+        pendingCount++;
+    }
+
+    public synchronized Batch peek(int maxRecords) throws IOException {
+        List<String> records = new ArrayList<>(Math.min(maxRecords, 256));
+        long segmentId = readSegment;
+        int position = readPosition;
+
+        while (records.size() < maxRecords) {
+            if (segmentId == writeSegment && position >= writePosition) {
+                break;
+            }
+
+            MappedByteBuffer buffer = segment(segmentId);
+            int length = position + HEADER_BYTES <= segmentBytes ? buffer.getInt(position) : 0;
+            if (length <= 0) {
+                if (segmentId >= writeSegment) break;
+                segmentId++;
+                position = 0;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            if (checksum(payload) == buffer.getInt(position + 4)) {
+                records.add(new String(payload, StandardCharsets.UTF_8));
+            } else {
+                System.err.println("Warning: Skipping corrupt history spool record in segment " + segmentId);
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        return new Batch(records, segmentId, position);
+    }
+
+    public synchronized void commit(Batch batch) throws IOException {
+        if (batch.segmentId < readSegment) {
+            // Its segments were evicted while the batch was in flight.
+            return;
+        }
+
+        long consumed = 0;
+        long segmentId = readSegment;
+        int position = readPosition;
+        while (segmentId < batch.segmentId || (segmentId == batch.segmentId && position < batch.position)) {
+            MappedByteBuffer buffer = segment(segmentId);
+            int length = position + HEADER_BYTES <= segmentBytes ? buffer.getInt(position) : 0;
+            if (length <= 0) {
+                segmentId++;
+                position = 0;
+                continue;
+            }
+            position += HEADER_BYTES + length;
+            consumed++;
+        }
+
+        while (readSegment < batch.segmentId) {
+            deleteSegment(readSegment);
+            readSegment++;
+        }
+        readPosition = batch.position;
+        pendingCount = Math.max(0, pendingCount - consumed);
+
+        if (readSegment == writeSegment && readPosition >= writePosition && writePosition > 0) {
+            deleteSegment(readSegment);
+            writeSegment++;
+            readSegment = writeSegment;
+            writePosition = 0;
+            readPosition = 0;
+        }
+
+        writeCheckpoint();
+    }
+
+    // Moves a batch the backend will never accept to the quarantine file, then commits past it so
+    // the rows behind it can drain.
+    public synchronized void quarantine(Batch batch, String reason) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String record : batch.records) {
+            lines.append(record).append('\n');
+        }
+        Files.writeString(new File(directory, QUARANTINE_FILE).toPath(), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        quarantinedCount += batch.records.size();
+        System.err.println("Warning: Quarantined " + batch.records.size() + " rejected history row(s) in "
+                + new File(directory, QUARANTINE_FILE).getPath() + ": " + reason);
+        commit(batch);
+    }
+
+    // Drops the unread records of the oldest segment to stay under the size limit.
+    private void evictOldestSegment() throws IOException {
+        long dropped = 0;
+        if (segmentFile(readSegment).exists()) {
+            MappedByteBuffer buffer = segment(readSegment);
+            int position = readPosition;
+            while (position + HEADER_BYTES <= segmentBytes) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > segmentBytes) break;
+                position += HEADER_BYTES + length;
+                dropped++;
+            }
+        }
+
+        deleteSegment(readSegment);
+        readSegment++;
+        readPosition = 0;
+        pendingCount = Math.max(0, pendingCount - dropped);
+        droppedCount += dropped;
+        writeCheckpoint();
+        System.err.println("Warning: History spool in " + directory.getPath() + " is full, dropped " + dropped
+                + " oldest row(s)");
+    }
+
+    public synchronized long getPendingCount() {
+        return pendingCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public synchronized long getQuarantinedCount() {
+        return quarantinedCount;
+    }
+
+    public synchronized void flush() {
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> existing = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".seg"));
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    existing.add(Long.parseLong(file.getName().substring(0, file.getName().length() - 4)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Warning: Ignoring unexpected spool file " + file.getName());
+                }
+            }
+        }
+        Collections.sort(existing);
+
+        readSegment = existing.isEmpty() ? 0 : existing.get(0);
+        readPosition = 0;
+        File checkpoint = new File(directory, CHECKPOINT_FILE);
+        if (checkpoint.exists()) {
+            String[] parts = Files.readString(checkpoint.toPath()).trim().split("\\s+");
+            if (parts.length == 2) {
+                long segmentId = Long.parseLong(parts[0]);
+                if (existing.contains(segmentId)) {
+                    readSegment = segmentId;
+                    readPosition = Integer.parseInt(parts[1]);
+                } else if (!existing.isEmpty() && segmentId > existing.get(existing.size() - 1)) {
+                    readSegment = segmentId;
+                }
+            }
+        }
+
+        for (long segmentId : existing) {
+            if (segmentId < readSegment) {
+                deleteSegment(segmentId);
+            }
+        }
+
+        writeSegment = Math.max(readSegment, existing.isEmpty() ? 0 : existing.get(existing.size() - 1));
+        writePosition = 0;
+        pendingCount = 0;
+
+        for (long segmentId = readSegment; segmentId <= writeSegment; segmentId++) {
+            if (!segmentFile(segmentId).exists()) continue;
+
+            MappedByteBuffer buffer = segment(segmentId);
+            int position = segmentId == readSegment ? readPosition : 0;
+            while (position + HEADER_BYTES <= segmentBytes) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > segmentBytes) break;
+
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                if (checksum(payload) != buffer.getInt(position + 4)) break;
+
+                position += HEADER_BYTES + length;
+                pendingCount++;
+            }
+            if (segmentId == writeSegment) {
+                writePosition = position;
+                buffer.putInt(position, 0);
+            }
+        }
+
+        if (pendingCount > 0) {
+            System.out.println("History spool: " + pendingCount + " pending record(s) to replay.");
+        }
+    }
+
+    private MappedByteBuffer segment(long segmentId) throws IOException {
+        MappedByteBuffer buffer = segments.get(segmentId);
+        if (buffer == null) {
+            try (RandomAccessFile file = new RandomAccessFile(segmentFile(segmentId), "rw");
+                 FileChannel channel = file.getChannel()) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+            segments.put(segmentId, buffer);
+        }
+        return buffer;
+    }
+
+    private void deleteSegment(long segmentId) {
+        segments.remove(segmentId);
+        File file = segmentFile(segmentId);
+        if (file.exists() && !file.delete()) {
+            System.err.println("Warning: Could not delete spool segment " + file.getName());
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        File temp = new File(directory, CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp.toPath(), readSegment + " " + readPosition);
+        Files.move(temp.toPath(), new File(directory, CHECKPOINT_FILE).toPath(),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File segmentFile(long segmentId) {
+        return new File(directory, String.format("%010d.seg", segmentId));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    public static class Batch {
+        private final List<String> records;
+        private final long segmentId;
+        private final int position;
+
+        Batch(List<String> records, long segmentId, int position) {
+            this.records = records;
+            this.segmentId = segmentId;
+            this.position = position;
+        }
+
+        public List<String> getRecords() {
+            return records;
+        }
+
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public interface HistoryStore {
+    interface EntryVisitor {
+        boolean visit(HistoryEntry entry);
+    }
+
+    interface SessionVisitor {
+        boolean visit(PlayerSession session);
+    }
+
+    interface TimelineVisitor {
+        boolean visit(LiveTimeline.TimelineEvent event);
+    }
+
+    // Told once rows are readable from the store, which for write-behind stores is after the flush.
+    interface WriteListener {
+        void onStatusStored(String playerName, String serverName);
+
+        void onSessionStored(String playerName);
+    }
+
+    void setWriteListener(WriteListener listener);
+
+    void appendStatus(String playerName, String serverName, boolean online, int onlineCount, long timestamp);
+
+    void appendSession(PlayerSession session);
+
+    void appendTimelineEvents(List<LiveTimeline.TimelineEvent> events);
+
+    // Both scans return false when the store failed part-way, so what was visited is incomplete.
+    boolean scanPlayerHistory(String playerName, long from, long to, boolean ascending, EntryVisitor visitor);
+
+    boolean scanServerHistory(String serverName, long from, long to, boolean ascending, EntryVisitor visitor);
+
+    // Returns false when the store failed part-way, like the history scans.
+    boolean scanTimelineEvents(long from, long to, boolean ascending, TimelineVisitor visitor);
+
+    List<PlayerSession> querySessions(String playerName, long from, long to);
+
+    // Sessions overlapping [from, to] on one server, or on every server when serverName is null.
+    void scanSessions(String serverName, long from, long to, SessionVisitor visitor);
+
+    void deleteStatusBefore(long cutoff);
+
+    void shutdown();
+
+    // Write-behind queues, for stores that buffer rows before sending them.
+    default List<HistoryWriter> getWriters() {
+        return List.of();
+    }
+
+    default HistoryPage queryPlayerHistory(String playerName, long from, long to, int limit) {
+        List<HistoryEntry> entries = new ArrayList<>();
+        boolean complete = scanPlayerHistory(playerName, from, to, false,
+                entry -> entries.add(entry) && entries.size() <= limit);
+        return HistoryPage.of(entries, limit, complete);
+    }
+
+    default HistoryPage queryServerHistory(String serverName, long from, long to, int limit) {
+        List<HistoryEntry> entries = new ArrayList<>();
+        boolean complete = scanServerHistory(serverName, from, to, false,
+                entry -> entries.add(entry) && entries.size() <= limit);
+        return HistoryPage.of(entries, limit, complete);
+    }
+
+    // Reference aggregation over the stored sessions; stores override it to push the work down.
+    default HistoryAggregate aggregatePlayer(String playerName, long from, long to, ZoneId zone) {
+        HistoryAggregate aggregate = new HistoryAggregate(from, to, zone);
+        for (PlayerSession session : querySessions(playerName, from, to)) {
+            aggregate.addSession(session.getStartTime(), session.getEndTime());
+        }
+        return aggregate;
+    }
+
+    default Map<String, List<PlayerSession>> querySessions(Collection<String> playerNames, long from, long to) {
+        Map<String, List<PlayerSession>> sessions = new HashMap<>();
+        for (String playerName : playerNames) {
+            sessions.put(playerName, querySessions(playerName, from, to));
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,256 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class HistoryWriter {
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+
+    private enum SendResult {
+        SENT,
+        // Network error, 5xx or 429: the same rows may succeed later.
+        RETRY,
+        // Any other 4xx: the backend will reject these rows every time.
+        REJECTED
+    }
+
+    public interface FlushListener {
+        void onFlushed(List<String> rows) throws IOException;
+    }
+
+    private final SupabaseClient supabase;
+    private final String table;
+    private final HistorySpool spool;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<String> pending;
+    private final AtomicLong droppedRows;
+    private final AtomicLong writtenRows;
+    private final AtomicLong requests;
+    private final Thread flusher;
+    private volatile FlushListener flushListener;
+    private volatile boolean running;
+
+    public HistoryWriter(SupabaseClient supabase, String table, int batchSize, long flushIntervalMs, int maxPending) {
+        this(supabase, table, batchSize, flushIntervalMs, maxPending, null);
+    }
+
+    public HistoryWriter(SupabaseClient supabase, String table, int batchSize, long flushIntervalMs, int maxPending,
+                         HistorySpool spool) {
+        this.supabase = supabase;
+        this.table = table;
+        this.spool = spool;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(10, flushIntervalMs);
+        this.pending = new ArrayBlockingQueue<>(Math.max(this.batchSize, maxPending));
+        this.droppedRows = new AtomicLong();
+        this.writtenRows = new AtomicLong();
+        this.requests = new AtomicLong();
+        this.running = true;
+
+        this.flusher = new Thread(this::run, "HistoryWriter-" + table);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void setFlushListener(FlushListener listener) {
+        this.flushListener = listener;
+    }
+
+    public void enqueue(String jsonRow) {
+        if (spool != null) {
+            try {
+                spool.append(jsonRow);
+                if (spool.getPendingCount() >= batchSize) {
+                    LockSupport.unpark(flusher);
+                }
+                return;
+            } catch (Exception e) {
+                System.err.println("Warning: History spool write failed, buffering in memory: " + e.getMessage());
+            }
+        }
+
+        while (!pending.offer(jsonRow)) {
+            if (pending.poll() != null) {
+                droppedRows.incrementAndGet();
+            }
+        }
+    }
+
+    private void run() {
+        if (spool != null) {
+            runSpooled();
+        } else {
+            runBuffered();
+        }
+    }
+
+    private void runSpooled() {
+        List<String> fallback = new ArrayList<>(batchSize);
+        long retryDelayMs = 0;
+
+        while (running) {
+            long waitMs = retryDelayMs > 0 ? retryDelayMs : flushIntervalMs;
+            if (retryDelayMs > 0 || spool.getPendingCount() < batchSize) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(waitMs));
+            }
+
+            pending.drainTo(fallback, batchSize);
+            flush(fallback);
+
+            retryDelayMs = replay() ? 0 : nextRetryDelay(retryDelayMs);
+        }
+
+        pending.drainTo(fallback);
+        flush(fallback);
+        replay();
+        spool.flush();
+        if (spool.getPendingCount() > 0) {
+            System.out.println("History spool: " + spool.getPendingCount() + " " + table + " row(s) kept for next start.");
+        }
+    }
+
+    private boolean replay() {
+        try {
+            while (spool.getPendingCount() > 0) {
+                HistorySpool.Batch batch = spool.peek(batchSize);
+                if (batch.isEmpty()) {
+                    return true;
+                }
+                SendResult result = send(batch.getRecords());
+                if (result == SendResult.RETRY) {
+                    return false;
+                }
+                if (result == SendResult.REJECTED) {
+                    spool.quarantine(batch, "rejected by " + table);
+                } else {
+                    spool.commit(batch);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: History spool replay failed: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private long nextRetryDelay(long current) {
+        return current == 0 ? flushIntervalMs : Math.min(MAX_RETRY_DELAY_MS, current * 2);
+    }
+
+    private void runBuffered() {
+        List<String> batch = new ArrayList<>(batchSize);
+
+        while (running || !pending.isEmpty()) {
+            try {
+                String first = pending.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize && running) {
+                    pending.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+
+                    String next = pending.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                pending.drainTo(batch, batchSize - batch.size());
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+
+        pending.drainTo(batch);
+        flush(batch);
+    }
+
+    private void flush(List<String> batch) {
+        if (batch.isEmpty()) return;
+
+        if (send(batch) != SendResult.SENT) {
+            droppedRows.addAndGet(batch.size());
+        }
+        batch.clear();
+    }
+
+    private SendResult send(List<String> batch) {
+        StringBuilder json = new StringBuilder(batch.size() * 128);
+        json.append('[');
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(batch.get(i));
+        }
+        json.append(']');
+
+        try {
+            supabase.insertBatch(table, json.toString());
+            writtenRows.addAndGet(batch.size());
+            notifyFlushed(batch);
+            return SendResult.SENT;
+        } catch (SupabaseClient.StatusException e) {
+            System.err.println("Warning: Failed to write " + batch.size() + " history row(s): " + e.getMessage());
+            return e.isPermanent() ? SendResult.REJECTED : SendResult.RETRY;
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to write " + batch.size() + " history row(s): " + e.getMessage());
+            return SendResult.RETRY;
+        } finally {
+            requests.incrementAndGet();
+        }
+    }
+
+    private void notifyFlushed(List<String> batch) {
+        FlushListener listener = flushListener;
+        if (listener == null) return;
+        try {
+            listener.onFlushed(batch);
+        } catch (Exception e) {
+            System.err.println("Warning: History flush listener failed: " + e.getMessage());
+        }
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public long getPendingCount() {
+        return pending.size() + (spool != null ? spool.getPendingCount() : 0);
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    public long getDroppedRows() {
+        return droppedRows.get() + (spool != null ? spool.getDroppedCount() : 0);
+    }
+
+    public long getQuarantinedRows() {
+        return spool != null ? spool.getQuarantinedCount() : 0;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(flusher);
+        if (spool == null) {
+            flusher.interrupt();
+        }
+        try {
+            flusher.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
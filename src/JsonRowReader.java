@@ -0,0 +1,191 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reads a JSON array of flat objects one row at a time. Scalar values are returned as strings
+// (JSON null as null); nested objects or arrays are returned as their raw JSON text.
+public class JsonRowReader implements Closeable {
+    private final Reader reader;
+    private int peeked;
+    private boolean started;
+    private boolean finished;
+
+    public JsonRowReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public JsonRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, 16 * 1024);
+        this.peeked = -2;
+    }
+
+    public static Map<String, String> parseObject(String json) throws IOException {
+        try (JsonRowReader reader = new JsonRowReader(new StringReader("[" + json + "]"))) {
+            Map<String, String> row = reader.nextRow();
+            return row != null ? row : new LinkedHashMap<>();
+        }
+    }
+
+    public Map<String, String> nextRow() throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        if (!started) {
+            expect('[');
+            started = true;
+            if (peekToken() == ']') {
+                read();
+                finished = true;
+                return null;
+            }
+        } else {
+            int c = readToken();
+            if (c == ']') {
+                finished = true;
+                return null;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']'", c);
+            }
+        }
+
+        expect('{');
+        Map<String, String> row = new LinkedHashMap<>();
+        if (peekToken() == '}') {
+            read();
+            return row;
+        }
+
+        while (true) {
+            expect('"');
+            String key = readString();
+            expect(':');
+            row.put(key, readValue());
+
+            int c = readToken();
+            if (c == '}') {
+                return row;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'", c);
+            }
+        }
+    }
+
+    private String readValue() throws IOException {
+        int c = readToken();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            StringBuilder raw = new StringBuilder().append((char) c);
+            readNested(raw, c == '{' ? '}' : ']');
+            return raw.toString();
+        }
+
+        StringBuilder literal = new StringBuilder();
+        literal.append((char) c);
+        while (true) {
+            int next = peek();
+            if (next == -1 || next == ',' || next == '}' || next == ']' || Character.isWhitespace(next)) break;
+            literal.append((char) read());
+        }
+
+        String value = literal.toString();
+        return "null".equals(value) ? null : value;
+    }
+
+    private void readNested(StringBuilder raw, char close) throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) throw error("Unterminated value", c);
+            raw.append((char) c);
+            if (c == '"') {
+                raw.append(Utils.escapeJson(readString())).append('"');
+            } else if (c == '{') {
+                readNested(raw, '}');
+            } else if (c == '[') {
+                readNested(raw, ']');
+            } else if (c == close) {
+                return;
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) throw error("Unterminated string", c);
+            if (c == '"') return value.toString();
+            if (c != '\\') {
+                value.append((char) c);
+                continue;
+            }
+
+            int escaped = read();
+            switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) {
+                        hex[i] = (char) read();
+                    }
+                    value.append((char) Integer.parseInt(new String(hex), 16));
+                }
+                case -1 -> throw error("Unterminated escape", escaped);
+                default -> value.append((char) escaped);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = readToken();
+        if (c != expected) {
+            throw error("Expected '" + expected + "'", c);
+        }
+    }
+
+    private int peekToken() throws IOException {
+        while (Character.isWhitespace(peek())) {
+            read();
+        }
+        return peek();
+    }
+
+    private int readToken() throws IOException {
+        peekToken();
+        return read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private IOException error(String message, int found) {
+        return new IOException(message + " in JSON response, found " + (found == -1 ? "end of input" : "'" + (char) found + "'"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
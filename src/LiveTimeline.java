@@ -1,27 +1,92 @@
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+// Fixed-capacity ring of timeline events. Writers claim a sequence number, link the event into its
+// player's and server's chains by swapping the chain heads, then publish the slot; nothing blocks.
+// Readers walk sequence ranges (or chains) and skip or stop at slots that have been reused, so every
+// read costs O(result). A background task follows the same sequence numbers to persist events in
+// batches, so appending never touches the history store.
 public class LiveTimeline {
-    private static final int MAX_TIMELINE_SIZE = 200;
+    private static final int PUBLISH_SPINS = 1000;
 
-    private final Queue<TimelineEvent> events;
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Node> ring;
+    private final AtomicLong cursor;
+    private final Map<String, AtomicLong> playerHeads;
+    private final Map<String, AtomicLong> serverHeads;
     private final HistoryService historyService;
+    private final int persistBatchSize;
+    private final AtomicLong droppedEvents;
+    private final String epoch;
+    private ScheduledExecutorService persister;
+    private long persistedThrough = -1;
 
-    public LiveTimeline(HistoryService historyService) {
-        this.events = new ConcurrentLinkedQueue<>();
-        this.historyService = historyService;
+    private static final class Node {
+        final long sequence;
+        final TimelineEvent event;
+        final long previousForPlayer;
+        final long previousForServer;
+
+        Node(long sequence, TimelineEvent event, long previousForPlayer, long previousForServer) {
+            this.sequence = sequence;
+            this.event = event;
+            this.previousForPlayer = previousForPlayer;
+            this.previousForServer = previousForServer;
+        }
     }
 
-    public void addEvent(TimelineEvent event) {
-        events.add(event);
+    public LiveTimeline(HistoryService historyService, int requestedCapacity, int persistBatchSize,
+                        long persistIntervalMs) {
+        int size = Integer.highestOneBit(Math.max(16, requestedCapacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.cursor = new AtomicLong();
+        this.playerHeads = new ConcurrentHashMap<>();
+        this.serverHeads = new ConcurrentHashMap<>();
+        this.historyService = historyService;
+        this.persistBatchSize = Math.max(1, persistBatchSize);
+        this.droppedEvents = new AtomicLong();
+        this.epoch = Long.toString(System.currentTimeMillis(), 36);
 
-        while (events.size() > MAX_TIMELINE_SIZE) {
-            events.poll();
+        if (historyService != null && historyService.isEnabled()) {
+            restore(historyService.getRecentTimelineEvents(size));
+            persister = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "Timeline-Persister");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(10, persistIntervalMs);
+            persister.scheduleWithFixedDelay(this::persistPending, interval, interval, TimeUnit.MILLISECONDS);
         }
+    }
 
-        if (historyService != null) {
-            persistEvent(event);
+    // Refills the ring with stored events, oldest first, after a restart. They are already stored,
+    // so persisting resumes after them.
+    private void restore(List<TimelineEvent> stored) {
+        for (TimelineEvent event : stored) {
+            addEvent(event);
         }
+        persistedThrough = cursor.get() - 1;
+    }
+
+    public void addEvent(TimelineEvent event) {
+        long sequence = cursor.getAndIncrement();
+        event.sequence = sequence;
+        long previousForPlayer = link(playerHeads, event.getPlayerName(), sequence);
+        long previousForServer = link(serverHeads, event.getServerName(), sequence);
+        ring.set((int) (sequence & mask), new Node(sequence, event, previousForPlayer, previousForServer));
+    }
+
+    private static long link(Map<String, AtomicLong> heads, String key, long sequence) {
+        if (key == null) return -1;
+        return heads.computeIfAbsent(key, k -> new AtomicLong(-1)).getAndSet(sequence);
     }
 
     public void recordPlayerJoin(String playerName, String serverName) {
@@ -85,47 +150,152 @@ public class LiveTimeline {
     }
 
     public List<TimelineEvent> getRecentEvents(int count) {
-        List<TimelineEvent> recent = new ArrayList<>(events);
-        if (recent.size() <= count) {
-            return recent;
+        long newest = cursor.get() - 1;
+        long oldest = Math.max(0, Math.max(newest - count + 1, newest - capacity + 1));
+        List<TimelineEvent> recent = new ArrayList<>((int) Math.max(0, newest - oldest + 1));
+        for (long sequence = oldest; sequence <= newest; sequence++) {
+            Node node = await(sequence);
+            if (node != null) {
+                recent.add(node.event);
+            }
         }
-        return recent.subList(recent.size() - count, recent.size());
+        return recent;
+    }
+
+    // Events with a sequence after the cursor, oldest first and at most limit of them, so a client
+    // can page forward by passing the last sequence it received. A cursor older than the ring
+    // resumes at the oldest retained event.
+    public List<TimelineEvent> since(long after, int limit) {
+        long newest = cursor.get() - 1;
+        long first = Math.max(after + 1, Math.max(0, newest - capacity + 1));
+        long last = Math.min(newest, first + limit - 1);
+        List<TimelineEvent> events = new ArrayList<>((int) Math.max(0, last - first + 1));
+        for (long sequence = first; sequence <= last; sequence++) {
+            Node node = await(sequence);
+            if (node != null) {
+                events.add(node.event);
+            } else if (!isOverwritten(sequence)) {
+                // Still being written: stop here so a cursor never moves past it.
+                break;
+            }
+        }
+        return events;
+    }
+
+    // Sequence of the most recent event, or -1 before the first one.
+    public long getLastSequence() {
+        return cursor.get() - 1;
     }
 
     public List<TimelineEvent> getAllEvents() {
-        return new ArrayList<>(events);
+        return getRecentEvents(capacity);
     }
 
     public List<TimelineEvent> getEventsByPlayer(String playerName) {
-        List<TimelineEvent> playerEvents = new ArrayList<>();
-        for (TimelineEvent event : events) {
-            if (playerName.equals(event.getPlayerName())) {
-                playerEvents.add(event);
+        return getEventsByPlayer(playerName, capacity);
+    }
+
+    public List<TimelineEvent> getEventsByPlayer(String playerName, int limit) {
+        return walkChain(playerHeads.get(playerName), limit, true);
+    }
+
+    public List<TimelineEvent> getEventsByServer(String serverName) {
+        return getEventsByServer(serverName, capacity);
+    }
+
+    public List<TimelineEvent> getEventsByServer(String serverName, int limit) {
+        return walkChain(serverHeads.get(serverName), limit, false);
+    }
+
+    // Sequences restart at 0 with every process, so a cursor is only meaningful with the epoch it
+    // was issued under.
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Follows a chain from its head. Concurrent appends for the same key can link slightly out of
+    // sequence order, so the result is sorted before it is returned.
+    private List<TimelineEvent> walkChain(AtomicLong head, int limit, boolean byPlayer) {
+        List<Node> nodes = new ArrayList<>();
+        if (head == null) return new ArrayList<>();
+
+        long oldest = cursor.get() - capacity;
+        long sequence = head.get();
+        while (sequence >= 0 && sequence >= oldest && nodes.size() < limit) {
+            Node node = await(sequence);
+            if (node == null) break;
+            nodes.add(node);
+            sequence = byPlayer ? node.previousForPlayer : node.previousForServer;
+        }
+
+        nodes.sort(Comparator.comparingLong(node -> node.sequence));
+        List<TimelineEvent> events = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            events.add(node.event);
+        }
+        return events;
+    }
+
+    private boolean isOverwritten(long sequence) {
+        Node node = ring.get((int) (sequence & mask));
+        return node != null && node.sequence > sequence;
+    }
+
+    // Returns the node for a sequence, waiting briefly if its writer has claimed but not yet
+    // published the slot; null if the slot has already been reused.
+    private Node await(long sequence) {
+        for (int spins = 0; spins < PUBLISH_SPINS; spins++) {
+            Node node = ring.get((int) (sequence & mask));
+            if (node != null && node.sequence >= sequence) {
+                return node.sequence == sequence ? node : null;
             }
+            Thread.onSpinWait();
         }
-        return playerEvents;
+        return null;
     }
 
-    public List<TimelineEvent> getEventsByServer(String serverName) {
-        List<TimelineEvent> serverEvents = new ArrayList<>();
-        for (TimelineEvent event : events) {
-            if (serverName.equals(event.getServerName())) {
-                serverEvents.add(event);
+    // Writes everything published since the last run. Events the ring overwrote before they could
+    // be written are counted as dropped.
+    private synchronized void persistPending() {
+        try {
+            while (true) {
+                long oldest = cursor.get() - capacity;
+                if (persistedThrough < oldest - 1) {
+                    droppedEvents.addAndGet(oldest - 1 - persistedThrough);
+                    persistedThrough = oldest - 1;
+                }
+
+                List<TimelineEvent> batch = since(persistedThrough, persistBatchSize);
+                if (batch.isEmpty()) return;
+
+                historyService.recordTimelineEvents(batch);
+                long last = batch.get(batch.size() - 1).getSequence();
+                droppedEvents.addAndGet(last - persistedThrough - batch.size());
+                persistedThrough = last;
             }
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to persist timeline events: " + e.getMessage());
         }
-        return serverEvents;
     }
 
-    private void persistEvent(TimelineEvent event) {
-        if (event.getPlayerName() != null) {
-            boolean online = event.getType() == TimelineEvent.EventType.PLAYER_JOIN;
-            historyService.recordPlayerStatus(
-                event.getPlayerName(),
-                event.getServerName(),
-                online,
-                0
-            );
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public void shutdown() {
+        if (persister == null) return;
+
+        persister.shutdown();
+        try {
+            persister.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        persistPending();
     }
 
     public static class TimelineEvent {
@@ -139,13 +309,18 @@ public class LiveTimeline {
         }
 
         private final long timestamp;
+        private long sequence = -1;
         private final EventType type;
         private final String playerName;
         private final String serverName;
         private final String message;
 
         public TimelineEvent(EventType type, String playerName, String serverName, String message) {
-            this.timestamp = System.currentTimeMillis();
+            this(System.currentTimeMillis(), type, playerName, serverName, message);
+        }
+
+        public TimelineEvent(long timestamp, EventType type, String playerName, String serverName, String message) {
+            this.timestamp = timestamp;
             this.type = type;
             this.playerName = playerName;
             this.serverName = serverName;
@@ -156,6 +331,10 @@ public class LiveTimeline {
             return timestamp;
         }
 
+        public long getSequence() {
+            return sequence;
+        }
+
         public EventType getType() {
             return type;
         }
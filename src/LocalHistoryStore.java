@@ -0,0 +1,718 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+// Append-only history store partitioned by UTC day. Each partition keeps a status log, a session
+// log and a timeline log of length-prefixed records whose names are dictionary ids and whose timestamps are
+// zigzag varint deltas from the previous record; per-player and per-server postings are rebuilt
+// from a memory-mapped scan the first time a partition is touched, and only the most recently used
+// partitions stay loaded. Timeline events are read back with a sequential pass over their log.
+public class LocalHistoryStore implements HistoryStore {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final int MAX_RECORD_BYTES = 64;
+
+    private final File directory;
+    private final Dictionary players;
+    private final Dictionary servers;
+    private final Dictionary messages;
+    private final TreeMap<Long, Partition> partitions;
+    private final LinkedHashMap<Long, Partition> loaded;
+    private final int maxLoaded;
+    private final ByteBuffer scratch;
+    private WriteListener writeListener;
+
+    public LocalHistoryStore(File directory, int maxLoadedPartitions) throws IOException {
+        this.directory = directory;
+        Utils.ensureDirectoryExists(directory);
+        this.players = new Dictionary(new File(directory, "players.dict"));
+        this.servers = new Dictionary(new File(directory, "servers.dict"));
+        // Timeline messages come from a handful of templates, so this stays small.
+        this.messages = new Dictionary(new File(directory, "messages.dict"));
+        this.partitions = new TreeMap<>();
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+        this.maxLoaded = Math.max(2, maxLoadedPartitions);
+        this.scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+
+        File[] children = directory.listFiles(File::isDirectory);
+        if (children != null) {
+            for (File child : children) {
+                try {
+                    long day = LocalDate.parse(child.getName()).toEpochDay();
+                    partitions.put(day, new Partition(day, child));
+                } catch (Exception e) {
+                    System.err.println("Warning: Ignoring unexpected history directory " + child.getName());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void setWriteListener(WriteListener listener) {
+        this.writeListener = listener;
+    }
+
+    @Override
+    public synchronized void appendStatus(String playerName, String serverName, boolean online, int onlineCount,
+                                          long timestamp) {
+        try {
+            partition(dayOf(timestamp)).appendStatus(players.id(playerName), servers.id(serverName), online,
+                    onlineCount, timestamp);
+            if (writeListener != null) {
+                writeListener.onStatusStored(playerName, serverName);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to store history locally: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void appendSession(PlayerSession session) {
+        try {
+            partition(dayOf(session.getEndTime())).appendSession(players.id(session.getPlayerName()),
+                    servers.id(session.getServerName()), session.getStartTime(), session.getEndTime());
+            if (writeListener != null) {
+                writeListener.onSessionStored(session.getPlayerName());
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to store session locally: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void appendTimelineEvents(List<LiveTimeline.TimelineEvent> events) {
+        try {
+            for (LiveTimeline.TimelineEvent event : events) {
+                String message = event.getMessage();
+                partition(dayOf(event.getTimestamp())).appendTimelineEvent(event.getType().ordinal(),
+                        event.getPlayerName() != null ? players.id(event.getPlayerName()) : -1,
+                        event.getServerName() != null ? servers.id(event.getServerName()) : -1,
+                        message != null ? messages.id(message.replace('\n', ' ')) : -1,
+                        event.getTimestamp());
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to store timeline events locally: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized boolean scanPlayerHistory(String playerName, long from, long to, boolean ascending,
+                                                  EntryVisitor visitor) {
+        return scanHistory(players.find(playerName), true, from, to, ascending, visitor);
+    }
+
+    @Override
+    public synchronized boolean scanServerHistory(String serverName, long from, long to, boolean ascending,
+                                                  EntryVisitor visitor) {
+        return scanHistory(servers.find(serverName), false, from, to, ascending, visitor);
+    }
+
+    private boolean scanHistory(int id, boolean byPlayer, long from, long to, boolean ascending,
+                                EntryVisitor visitor) {
+        if (id < 0 || from > to) {
+            return true;
+        }
+
+        NavigableMap<Long, Partition> range = partitions.subMap(dayOf(from), true, dayOf(to), true);
+        try {
+            for (Partition partition : (ascending ? range : range.descendingMap()).values()) {
+                if (!partition.scanStatus(id, byPlayer, from, to, ascending, visitor)) break;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to read local history: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean scanTimelineEvents(long from, long to, boolean ascending, TimelineVisitor visitor) {
+        if (from > to) {
+            return true;
+        }
+
+        NavigableMap<Long, Partition> range = partitions.subMap(dayOf(from), true, dayOf(to), true);
+        try {
+            for (Partition partition : (ascending ? range : range.descendingMap()).values()) {
+                if (!partition.scanTimeline(from, to, ascending, visitor)) break;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to read local timeline events: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized List<PlayerSession> querySessions(String playerName, long from, long to) {
+        List<PlayerSession> sessions = new ArrayList<>();
+        int id = players.find(playerName);
+        if (id < 0 || from > to) {
+            return sessions;
+        }
+
+        try {
+            for (Partition partition : partitions.tailMap(dayOf(from), true).values()) {
+                partition.collectSessions(id, from, to, sessions);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to read local sessions: " + e.getMessage());
+        }
+
+        sessions.sort(Comparator.comparingLong(PlayerSession::getStartTime));
+        return sessions;
+    }
+
+    @Override
+    public synchronized void scanSessions(String serverName, long from, long to, SessionVisitor visitor) {
+        int id = serverName != null ? servers.find(serverName) : -1;
+        if ((serverName != null && id < 0) || from > to) {
+            return;
+        }
+
+        try {
+            for (Partition partition : partitions.tailMap(dayOf(from), true).values()) {
+                if (!partition.scanSessions(id, from, to, visitor)) return;
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to read local sessions: " + e.getMessage());
+        }
+    }
+
+    // Reads session end times and durations straight from the postings, without building sessions.
+    @Override
+    public synchronized HistoryAggregate aggregatePlayer(String playerName, long from, long to, ZoneId zone) {
+        HistoryAggregate aggregate = new HistoryAggregate(from, to, zone);
+        int id = players.find(playerName);
+        if (id < 0 || from > to) {
+            return aggregate;
+        }
+
+        try {
+            for (Partition partition : partitions.tailMap(dayOf(from), true).values()) {
+                partition.aggregateSessions(id, from, to, aggregate);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to aggregate local sessions: " + e.getMessage());
+        }
+        return aggregate;
+    }
+
+    @Override
+    public synchronized void deleteStatusBefore(long cutoff) {
+        for (Partition partition : partitions.headMap(dayOf(cutoff), false).values()) {
+            partition.deleteStatusLog();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        for (Partition partition : partitions.values()) {
+            partition.close();
+        }
+        loaded.clear();
+    }
+
+    private Partition partition(long day) throws IOException {
+        Partition partition = partitions.get(day);
+        if (partition == null) {
+            File dir = new File(directory, LocalDate.ofEpochDay(day).toString());
+            Utils.ensureDirectoryExists(dir);
+            partition = new Partition(day, dir);
+            partitions.put(day, partition);
+        }
+        return partition;
+    }
+
+    private static long dayOf(long timestamp) {
+        return Math.floorDiv(timestamp, DAY_MS);
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private class Partition {
+        private final File directory;
+        private final long baseTime;
+        private RecordLog statusLog;
+        private RecordLog sessionLog;
+        private RecordLog timelineLog;
+        private Map<Integer, Postings> statusByPlayer;
+        private Map<Integer, Postings> statusByServer;
+        private Map<Integer, Postings> sessionsByPlayer;
+        private long lastStatusTime;
+        private long lastSessionStart;
+        private long lastTimelineTime;
+
+        Partition(long day, File directory) {
+            this.directory = directory;
+            this.baseTime = day * DAY_MS;
+        }
+
+        void appendStatus(int playerId, int serverId, boolean online, int onlineCount, long timestamp)
+                throws IOException {
+            load();
+            scratch.clear();
+            scratch.put((byte) 0);
+            putVarint(scratch, playerId);
+            putVarint(scratch, serverId);
+            putVarint(scratch, zigzag(timestamp - lastStatusTime));
+            scratch.put((byte) (online ? 1 : 0));
+            putVarint(scratch, zigzag(onlineCount));
+            scratch.put(0, (byte) (scratch.position() - 1));
+            scratch.flip();
+
+            int offset = statusLog.append(scratch);
+            lastStatusTime = timestamp;
+            postings(statusByPlayer, playerId).add(offset, timestamp);
+            postings(statusByServer, serverId).add(offset, timestamp);
+        }
+
+        void appendSession(int playerId, int serverId, long start, long end) throws IOException {
+            load();
+            scratch.clear();
+            scratch.put((byte) 0);
+            putVarint(scratch, playerId);
+            putVarint(scratch, serverId);
+            putVarint(scratch, zigzag(start - lastSessionStart));
+            putVarint(scratch, Math.max(0, end - start));
+            scratch.put(0, (byte) (scratch.position() - 1));
+            scratch.flip();
+
+            int offset = sessionLog.append(scratch);
+            lastSessionStart = start;
+            postings(sessionsByPlayer, playerId).add(offset, end);
+        }
+
+        // Ids are stored plus one so that a missing player, server or message encodes as 0.
+        void appendTimelineEvent(int type, int playerId, int serverId, int messageId, long timestamp)
+                throws IOException {
+            load();
+            scratch.clear();
+            scratch.put((byte) 0);
+            scratch.put((byte) type);
+            putVarint(scratch, playerId + 1);
+            putVarint(scratch, serverId + 1);
+            putVarint(scratch, messageId + 1);
+            putVarint(scratch, zigzag(timestamp - lastTimelineTime));
+            scratch.put(0, (byte) (scratch.position() - 1));
+            scratch.flip();
+
+            timelineLog.append(scratch);
+            lastTimelineTime = timestamp;
+        }
+
+        boolean scanStatus(int id, boolean byPlayer, long from, long to, boolean ascending, EntryVisitor visitor)
+                throws IOException {
+            load();
+            Postings postings = (byPlayer ? statusByPlayer : statusByServer).get(id);
+            if (postings == null) return true;
+
+            int first = postings.lowerBound(from);
+            int last = postings.upperBound(to) - 1;
+            if (last < first) return true;
+
+            ByteBuffer view = statusLog.view(recordEnd(postings));
+            for (int n = 0; n <= last - first; n++) {
+                int i = ascending ? first + n : last - n;
+                view.position(postings.offsets[i] + 1);
+                int playerId = (int) getVarint(view);
+                int serverId = (int) getVarint(view);
+                getVarint(view);
+                boolean online = view.get() != 0;
+                int onlineCount = (int) unzigzag(getVarint(view));
+
+                HistoryEntry entry = new HistoryEntry();
+                entry.setPlayerName(players.name(playerId));
+                entry.setServerName(servers.name(serverId));
+                entry.setStatus(online ? "online" : "offline");
+                entry.setTimestampMillis(postings.times[i]);
+                entry.setOnlineCount(onlineCount);
+                if (!visitor.visit(entry)) return false;
+            }
+            return true;
+        }
+
+        void collectSessions(int playerId, long from, long to, List<PlayerSession> sessions) throws IOException {
+            load();
+            Postings postings = sessionsByPlayer.get(playerId);
+            if (postings == null || postings.lowerBound(from) == postings.size) return;
+
+            ByteBuffer view = sessionLog.view(recordEnd(postings));
+            for (int i = postings.lowerBound(from); i < postings.size; i++) {
+                long end = postings.times[i];
+                view.position(postings.offsets[i] + 1);
+                getVarint(view);
+                int serverId = (int) getVarint(view);
+                getVarint(view);
+                long start = end - getVarint(view);
+                if (start > to) continue;
+
+                sessions.add(new PlayerSession(players.name(playerId), servers.name(serverId), start, end, false));
+            }
+        }
+
+        void aggregateSessions(int playerId, long from, long to, HistoryAggregate aggregate) throws IOException {
+            load();
+            Postings postings = sessionsByPlayer.get(playerId);
+            if (postings == null || postings.lowerBound(from) == postings.size) return;
+
+            ByteBuffer view = sessionLog.view(recordEnd(postings));
+            for (int i = postings.lowerBound(from); i < postings.size; i++) {
+                long end = postings.times[i];
+                view.position(postings.offsets[i] + 1);
+                getVarint(view);
+                getVarint(view);
+                getVarint(view);
+                long start = end - getVarint(view);
+                if (start <= to) {
+                    aggregate.addSession(start, end);
+                }
+            }
+        }
+
+        // Sequential pass over the timeline log; events are sorted because concurrent writers can
+        // append them slightly out of time order.
+        boolean scanTimeline(long from, long to, boolean ascending, TimelineVisitor visitor) throws IOException {
+            load();
+            List<LiveTimeline.TimelineEvent> events = new ArrayList<>();
+            LiveTimeline.TimelineEvent.EventType[] types = LiveTimeline.TimelineEvent.EventType.values();
+            ByteBuffer view = timelineLog.view(timelineLog.size);
+            long timestamp = baseTime;
+            while (view.remaining() > 0) {
+                int offset = view.position();
+                int length = view.get() & 0xFF;
+                if (length == 0) break;
+                int type = view.get();
+                int playerId = (int) getVarint(view) - 1;
+                int serverId = (int) getVarint(view) - 1;
+                int messageId = (int) getVarint(view) - 1;
+                timestamp += unzigzag(getVarint(view));
+                view.position(offset + 1 + length);
+
+                if (timestamp < from || timestamp > to || type < 0 || type >= types.length) continue;
+                events.add(new LiveTimeline.TimelineEvent(timestamp, types[type],
+                        playerId >= 0 ? players.name(playerId) : null,
+                        serverId >= 0 ? servers.name(serverId) : null,
+                        messageId >= 0 ? messages.name(messageId) : null));
+            }
+
+            events.sort(Comparator.comparingLong(LiveTimeline.TimelineEvent::getTimestamp));
+            for (int n = 0; n < events.size(); n++) {
+                if (!visitor.visit(events.get(ascending ? n : events.size() - 1 - n))) return false;
+            }
+            return true;
+        }
+
+        // Sequential pass over the session log; serverId -1 matches every server.
+        boolean scanSessions(int serverId, long from, long to, SessionVisitor visitor) throws IOException {
+            load();
+            ByteBuffer view = sessionLog.view(sessionLog.size);
+            long start = baseTime;
+            while (view.remaining() > 0) {
+                int offset = view.position();
+                int length = view.get() & 0xFF;
+                if (length == 0) break;
+                int playerId = (int) getVarint(view);
+                int recordServer = (int) getVarint(view);
+                start += unzigzag(getVarint(view));
+                long end = start + getVarint(view);
+                view.position(offset + 1 + length);
+
+                if ((serverId >= 0 && recordServer != serverId) || end < from || start > to) continue;
+                PlayerSession session = new PlayerSession(players.name(playerId), servers.name(recordServer), start, end, false);
+                if (!visitor.visit(session)) return false;
+            }
+            return true;
+        }
+
+        // Postings are in time order, not necessarily offset order, so the highest offset bounds
+        // the bytes needed.
+        private long recordEnd(Postings postings) {
+            return postings.maxOffset + MAX_RECORD_BYTES;
+        }
+
+        private void load() throws IOException {
+            if (statusLog != null) {
+                loaded.get(baseTime / DAY_MS);
+                return;
+            }
+
+            long day = baseTime / DAY_MS;
+            loaded.put(day, this);
+            Iterator<Partition> eldest = loaded.values().iterator();
+            while (loaded.size() > maxLoaded) {
+                Partition partition = eldest.next();
+                eldest.remove();
+                partition.unload();
+            }
+
+            statusByPlayer = new HashMap<>();
+            statusByServer = new HashMap<>();
+            sessionsByPlayer = new HashMap<>();
+            lastStatusTime = baseTime;
+            lastSessionStart = baseTime;
+
+            statusLog = new RecordLog(new File(directory, "status.log"));
+            ByteBuffer view = statusLog.view(statusLog.size);
+            int valid = 0;
+            while (view.remaining() > 0) {
+                int offset = view.position();
+                int length = view.get() & 0xFF;
+                if (length == 0 || length > view.remaining()) break;
+                try {
+                    int playerId = (int) getVarint(view);
+                    int serverId = (int) getVarint(view);
+                    lastStatusTime += unzigzag(getVarint(view));
+                    postings(statusByPlayer, playerId).add(offset, lastStatusTime);
+                    postings(statusByServer, serverId).add(offset, lastStatusTime);
+                } catch (RuntimeException e) {
+                    break;
+                }
+                view.position(offset + 1 + length);
+                valid = view.position();
+            }
+            statusLog.truncate(valid);
+
+            sessionLog = new RecordLog(new File(directory, "sessions.log"));
+            view = sessionLog.view(sessionLog.size);
+            valid = 0;
+            while (view.remaining() > 0) {
+                int offset = view.position();
+                int length = view.get() & 0xFF;
+                if (length == 0 || length > view.remaining()) break;
+                try {
+                    int playerId = (int) getVarint(view);
+                    getVarint(view);
+                    lastSessionStart += unzigzag(getVarint(view));
+                    long duration = getVarint(view);
+                    postings(sessionsByPlayer, playerId).add(offset, lastSessionStart + duration);
+                } catch (RuntimeException e) {
+                    break;
+                }
+                view.position(offset + 1 + length);
+                valid = view.position();
+            }
+            sessionLog.truncate(valid);
+
+            lastTimelineTime = baseTime;
+            timelineLog = new RecordLog(new File(directory, "timeline.log"));
+            view = timelineLog.view(timelineLog.size);
+            valid = 0;
+            while (view.remaining() > 0) {
+                int offset = view.position();
+                int length = view.get() & 0xFF;
+                if (length == 0 || length > view.remaining()) break;
+                try {
+                    view.get();
+                    getVarint(view);
+                    getVarint(view);
+                    getVarint(view);
+                    lastTimelineTime += unzigzag(getVarint(view));
+                } catch (RuntimeException e) {
+                    break;
+                }
+                view.position(offset + 1 + length);
+                valid = view.position();
+            }
+            timelineLog.truncate(valid);
+        }
+
+        private Postings postings(Map<Integer, Postings> index, int id) {
+            return index.computeIfAbsent(id, k -> new Postings());
+        }
+
+        void deleteStatusLog() {
+            File file = new File(directory, "status.log");
+            if (!file.exists() || file.length() == 0) return;
+
+            close();
+            if (!file.delete()) {
+                System.err.println("Warning: Could not delete " + file.getPath());
+            }
+        }
+
+        void close() {
+            loaded.remove(baseTime / DAY_MS);
+            unload();
+        }
+
+        // Drops the logs and postings; the next access rebuilds them from disk.
+        private void unload() {
+            if (statusLog != null) statusLog.close();
+            if (sessionLog != null) sessionLog.close();
+            if (timelineLog != null) timelineLog.close();
+            statusLog = null;
+            sessionLog = null;
+            timelineLog = null;
+            statusByPlayer = null;
+            statusByServer = null;
+            sessionsByPlayer = null;
+        }
+    }
+
+    private static class RecordLog {
+        private final FileChannel channel;
+        private long size;
+        private ByteBuffer mapped;
+
+        RecordLog(File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        int append(ByteBuffer record) throws IOException {
+            int offset = (int) size;
+            while (record.hasRemaining()) {
+                size += channel.write(record, size);
+            }
+            return offset;
+        }
+
+        // Appends go through the channel, so the mapping is only refreshed when a read reaches
+        // bytes written after it was made.
+        ByteBuffer view(long needed) throws IOException {
+            if (mapped == null || mapped.capacity() < Math.min(needed, size)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mapped.duplicate();
+        }
+
+        void truncate(long validSize) throws IOException {
+            if (validSize < size) {
+                System.err.println("Warning: Truncating torn history records after byte " + validSize);
+                channel.truncate(validSize);
+                size = validSize;
+                mapped = null;
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Record offsets sorted by time. Writers on different threads can append slightly out of time
+    // order; such a record is inserted at its place so the binary searches stay exact.
+    private static class Postings {
+        private int size;
+        private int maxOffset;
+        private int[] offsets = new int[8];
+        private long[] times = new long[8];
+
+        void add(int offset, long time) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            int at = size > 0 && times[size - 1] > time ? upperBound(time) : size;
+            System.arraycopy(offsets, at, offsets, at + 1, size - at);
+            System.arraycopy(times, at, times, at + 1, size - at);
+            offsets[at] = offset;
+            times[at] = time;
+            maxOffset = Math.max(maxOffset, offset);
+            size++;
+        }
+
+        int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) low = mid + 1; else high = mid;
+            }
+            return low;
+        }
+
+        int upperBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= time) low = mid + 1; else high = mid;
+            }
+            return low;
+        }
+    }
+
+    // Line n of the file is the name with id n. A name repeated by an older version keeps resolving
+    // under every id it was written with, but new records use its first id.
+    private static class Dictionary {
+        private final File file;
+        private final Map<String, Integer> ids;
+        private final List<String> names;
+
+        Dictionary(File file) throws IOException {
+            this.file = file;
+            this.ids = new HashMap<>();
+            this.names = new ArrayList<>();
+            if (file.exists()) {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        ids.putIfAbsent(line, names.size());
+                        names.add(line);
+                    }
+                }
+            }
+        }
+
+        int find(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : -1;
+        }
+
+        int id(String name) throws IOException {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+
+            Files.writeString(file.toPath(), name + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            ids.put(name, names.size());
+            names.add(name);
+            return names.size() - 1;
+        }
+
+        String name(int id) {
+            return id >= 0 && id < names.size() ? names.get(id) : "";
+        }
+    }
+}
@@ -27,7 +27,7 @@ public class Main {
 
             multiServerChecker = new MultiServerChecker(config);
 
-            HistoryService historyService = new HistoryService(config.isHistoryEnabled());
+            HistoryService historyService = new HistoryService(config);
             if (historyService.isEnabled()) {
                 System.out.println("History tracking: ENABLED");
             } else {
@@ -41,13 +41,14 @@ public class Main {
                 System.out.println("Discord notifications: DISABLED (optional feature)");
             }
 
-            LiveTimeline timeline = new LiveTimeline(historyService);
+            LiveTimeline timeline = new LiveTimeline(historyService, config.getTimelineCapacity(),
+                    config.getHistoryBatchSize(), config.getHistoryFlushIntervalMs());
             System.out.println("Live timeline: ENABLED");
 
             ServerPerformanceMonitor perfMonitor = new ServerPerformanceMonitor(historyService);
             System.out.println("Performance monitoring: ENABLED");
 
-            PlayerAnalytics analytics = new PlayerAnalytics(historyService);
+            PlayerAnalytics analytics = new PlayerAnalytics(historyService, config);
             System.out.println("Player analytics: ENABLED");
 
             PortChecker portChecker = new PortChecker(
@@ -67,20 +68,32 @@ public class Main {
 
             UpdateExecutor.ensureUpdateScriptsExist(".");
 
-            RealTimeCheckController realTimeController = new RealTimeCheckController(
-                multiServerChecker,
+            MonitorPipeline pipeline = new MonitorPipeline(
+                config,
                 historyService,
                 discord,
-                config
+                timeline,
+                perfMonitor
+            );
+
+            ServerHealthTracker healthTracker = new ServerHealthTracker(
+                config.getHealthDownAfterFailures(),
+                config.getHealthUpAfterSuccesses()
+            );
+            healthTracker.addSink(pipeline.transitionSink(config.isHealthNotifyDiscord()));
+            multiServerChecker.setHealthTracker(healthTracker);
+
+            RealTimeCheckController realTimeController = new RealTimeCheckController(
+                multiServerChecker,
+                config,
+                pipeline
             );
 
             MultiPlayerRealTimeController multiRealTime = new MultiPlayerRealTimeController(
                 multiServerChecker,
-                historyService,
-                discord,
                 config,
-                timeline,
-                perfMonitor
+                pipeline,
+                analytics.getForecaster()
             );
             System.out.println("Multi-player real-time monitoring: ENABLED");
 
@@ -95,7 +108,8 @@ public class Main {
                 analytics,
                 timeline,
                 perfMonitor,
-                portChecker
+                portChecker,
+                pipeline
             );
 
             try {
@@ -126,11 +140,17 @@ public class Main {
             final UpdateManager finalUpdateManager = updateManager;
             final RealTimeCheckController finalRealTimeController = realTimeController;
             final MultiPlayerRealTimeController finalMultiRealTime = multiRealTime;
+            final MonitorPipeline finalPipeline = pipeline;
+            final HistoryService finalHistoryService = historyService;
+            final LiveTimeline finalTimeline = timeline;
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("\nShutting down...");
                 finalRealTimeController.shutdown();
                 finalMultiRealTime.shutdown();
+                finalPipeline.shutdown();
+                finalTimeline.shutdown();
+                finalHistoryService.shutdown();
                 finalDashboardServer.stop();
                 finalMultiServerChecker.shutdown();
                 finalUpdateManager.shutdown();
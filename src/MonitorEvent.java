@@ -0,0 +1,92 @@
+public class MonitorEvent {
+    public enum Kind {
+        PLAYER_STATUS,
+        SERVER_STATUS,
+        TRANSITION,
+        OBSERVATION_STARTED,
+        OBSERVATION_ENDED
+    }
+
+    private final Kind kind;
+    private final long timestamp;
+    private final String playerName;
+    private final String serverName;
+    private final boolean online;
+    private final int onlineCount;
+    private final ServerStatus serverStatus;
+    private final TransitionDetector.TransitionEvent transition;
+    private final boolean notifyOutages;
+
+    private MonitorEvent(Kind kind, String playerName, String serverName, boolean online, int onlineCount,
+                         ServerStatus serverStatus, TransitionDetector.TransitionEvent transition,
+                         boolean notifyOutages) {
+        this.kind = kind;
+        this.timestamp = System.currentTimeMillis();
+        this.playerName = playerName;
+        this.serverName = serverName;
+        this.online = online;
+        this.onlineCount = onlineCount;
+        this.serverStatus = serverStatus;
+        this.transition = transition;
+        this.notifyOutages = notifyOutages;
+    }
+
+    public static MonitorEvent playerStatus(String playerName, String serverName, boolean online, int onlineCount) {
+        return new MonitorEvent(Kind.PLAYER_STATUS, playerName, serverName, online, onlineCount, null, null, false);
+    }
+
+    public static MonitorEvent observationStarted(String playerName, String serverName) {
+        return new MonitorEvent(Kind.OBSERVATION_STARTED, playerName, serverName, false, 0, null, null, false);
+    }
+
+    public static MonitorEvent observationEnded(String playerName, String serverName) {
+        return new MonitorEvent(Kind.OBSERVATION_ENDED, playerName, serverName, false, 0, null, null, false);
+    }
+
+    public static MonitorEvent serverStatus(ServerStatus status) {
+        return new MonitorEvent(Kind.SERVER_STATUS, null, status.getServer().getName(), status.isOnline(),
+                status.getOnlineCount(), status, null, false);
+    }
+
+    public static MonitorEvent transition(TransitionDetector.TransitionEvent event, boolean notifyOutages) {
+        return new MonitorEvent(Kind.TRANSITION, event.getPlayerName(), event.getServerName(),
+                event.getType() == TransitionDetector.TransitionType.JOIN, event.getOnlineCount(), null, event,
+                notifyOutages);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public int getOnlineCount() {
+        return onlineCount;
+    }
+
+    public ServerStatus getServerStatus() {
+        return serverStatus;
+    }
+
+    public TransitionDetector.TransitionEvent getTransition() {
+        return transition;
+    }
+
+    public boolean isNotifyOutages() {
+        return notifyOutages;
+    }
+}
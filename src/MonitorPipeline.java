@@ -0,0 +1,117 @@
+import java.util.List;
+
+public class MonitorPipeline {
+    private final EventBus<MonitorEvent> bus;
+    private final HistoryService historyService;
+
+    public MonitorPipeline(ConfigLoader config, HistoryService historyService, DiscordWebhook discord,
+                           LiveTimeline timeline, ServerPerformanceMonitor perfMonitor) {
+        this.historyService = historyService;
+        this.bus = new EventBus<>("MonitorEvents", config.getEventBusCapacity(), config.getEventBusBlockTimeoutMs());
+
+        if (historyService.isEnabled()) {
+            bus.addConsumer("history", EventBus.OverflowPolicy.BLOCK_WITH_TIMEOUT, 256, this::recordHistory);
+        }
+
+        if (discord.isEnabled()) {
+            TransitionDetector.TransitionSink withOutages = TransitionSinks.discord(discord, true);
+            TransitionDetector.TransitionSink withoutOutages = TransitionSinks.discord(discord, false);
+            bus.addConsumer("notifications", EventBus.OverflowPolicy.DROP_OLDEST, 16, batch -> {
+                for (MonitorEvent event : batch) {
+                    if (event.getKind() != MonitorEvent.Kind.TRANSITION) continue;
+                    (event.isNotifyOutages() ? withOutages : withoutOutages).onTransition(event.getTransition());
+                }
+            });
+        }
+
+        if (timeline != null) {
+            TransitionDetector.TransitionSink timelineSink = TransitionSinks.timeline(timeline);
+            bus.addConsumer("timeline", EventBus.OverflowPolicy.DROP_OLDEST, 64, batch -> {
+                for (MonitorEvent event : batch) {
+                    if (event.getKind() == MonitorEvent.Kind.TRANSITION) {
+                        timelineSink.onTransition(event.getTransition());
+                    }
+                }
+            });
+        }
+
+        if (perfMonitor != null) {
+            bus.addConsumer("metrics", EventBus.OverflowPolicy.DROP_OLDEST, 64, batch -> {
+                for (MonitorEvent event : batch) {
+                    if (event.getKind() != MonitorEvent.Kind.SERVER_STATUS) continue;
+                    ServerStatus status = event.getServerStatus();
+                    if (status.isOnline()) {
+                        perfMonitor.recordMetrics(event.getServerName(), status, status.getQueryResponse());
+                    }
+                }
+            });
+        }
+    }
+
+    private void recordHistory(List<MonitorEvent> batch) {
+        for (MonitorEvent event : batch) {
+            switch (event.getKind()) {
+                case PLAYER_STATUS:
+                    historyService.recordPlayerStatus(event.getPlayerName(), event.getServerName(),
+                            event.isOnline(), event.getOnlineCount(), event.getTimestamp());
+                    break;
+                case OBSERVATION_STARTED:
+                    historyService.beginObservation(event.getPlayerName(), event.getServerName());
+                    break;
+                case OBSERVATION_ENDED:
+                    historyService.endObservation(event.getPlayerName(), event.getServerName());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    public void publishPlayerStatus(String playerName, String serverName, boolean online, int onlineCount) {
+        if (historyService.isEnabled()) {
+            bus.publish(MonitorEvent.playerStatus(playerName, serverName, online, onlineCount));
+        }
+    }
+
+    // Observation boundaries travel through the bus so they reach history after the statuses
+    // polled before them.
+    public void publishObservationStarted(String playerName, String serverName) {
+        if (historyService.isEnabled()) {
+            bus.publish(MonitorEvent.observationStarted(playerName, serverName));
+        }
+    }
+
+    public void publishObservationEnded(String playerName, String serverName) {
+        if (historyService.isEnabled()) {
+            bus.publish(MonitorEvent.observationEnded(playerName, serverName));
+        }
+    }
+
+    public void publishServerStatus(ServerStatus status) {
+        bus.publish(MonitorEvent.serverStatus(status));
+    }
+
+    public TransitionDetector.TransitionSink transitionSink(boolean notifyOutages) {
+        return event -> bus.publish(MonitorEvent.transition(event, notifyOutages));
+    }
+
+    public List<String> getConsumerNames() {
+        return bus.getConsumerNames();
+    }
+
+    public long getLag(String consumerName) {
+        return bus.getLag(consumerName);
+    }
+
+    public long getDroppedCount(String consumerName) {
+        return bus.getDroppedCount(consumerName);
+    }
+
+    public int getCapacity() {
+        return bus.getCapacity();
+    }
+
+    public void shutdown() {
+        bus.shutdown();
+    }
+}
@@ -4,83 +4,134 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MultiPlayerRealTimeController {
     private final MultiServerChecker serverChecker;
-    private final HistoryService historyService;
-    private final DiscordWebhook discord;
     private final ConfigLoader config;
-    private final LiveTimeline timeline;
-    private final ServerPerformanceMonitor perfMonitor;
+    private final MonitorPipeline pipeline;
+    private final PresenceForecaster forecaster;
+    private final double forecastThreshold;
 
-    private Timer cliTimer;
-    private Timer backgroundTimer;
+    private final AdaptivePollScheduler cliScheduler;
+    private final AdaptivePollScheduler backgroundScheduler;
 
     private final AtomicBoolean cliActive;
     private final AtomicBoolean backgroundActive;
 
-    private final Set<String> cliPlayers;
-    private final Set<String> backgroundPlayers;
+    private final SubscriptionTable cliSubscriptions;
+    private final SubscriptionTable backgroundSubscriptions;
 
-    private final Map<String, PlayerCheckResult> lastCliResults;
-    private final Map<String, PlayerCheckResult> lastBackgroundResults;
+    private final TransitionDetector cliDetector;
+    private final TransitionDetector backgroundDetector;
+
+    private final Map<String, ServerActivity> cliLastActivity;
+    private final Map<String, ServerActivity> backgroundLastActivity;
 
     private final int cliIntervalSeconds;
     private final int backgroundIntervalSeconds;
 
-    public MultiPlayerRealTimeController(MultiServerChecker serverChecker, HistoryService historyService,
-                                         DiscordWebhook discord, ConfigLoader config,
-                                         LiveTimeline timeline, ServerPerformanceMonitor perfMonitor) {
+    public MultiPlayerRealTimeController(MultiServerChecker serverChecker, ConfigLoader config,
+                                         MonitorPipeline pipeline, PresenceForecaster forecaster) {
         this.serverChecker = serverChecker;
-        this.historyService = historyService;
-        this.discord = discord;
         this.config = config;
-        this.timeline = timeline;
-        this.perfMonitor = perfMonitor;
+        this.pipeline = pipeline;
+        this.forecaster = forecaster;
+        this.forecastThreshold = config.getRealTimeForecastThreshold();
 
         this.cliActive = new AtomicBoolean(false);
         this.backgroundActive = new AtomicBoolean(false);
 
-        this.cliPlayers = ConcurrentHashMap.newKeySet();
-        this.backgroundPlayers = ConcurrentHashMap.newKeySet();
+        this.cliSubscriptions = new SubscriptionTable();
+        this.backgroundSubscriptions = new SubscriptionTable();
+
+        this.cliDetector = new TransitionDetector();
+        this.cliDetector.addSink(pipeline.transitionSink(true));
+        this.backgroundDetector = new TransitionDetector();
+        this.backgroundDetector.addSink(pipeline.transitionSink(false));
 
-        this.lastCliResults = new ConcurrentHashMap<>();
-        this.lastBackgroundResults = new ConcurrentHashMap<>();
+        this.cliLastActivity = new ConcurrentHashMap<>();
+        this.backgroundLastActivity = new ConcurrentHashMap<>();
 
         this.cliIntervalSeconds = config.getRealTimeCliIntervalSeconds();
-        this.backgroundIntervalSeconds = 60;
+        this.backgroundIntervalSeconds = config.getRealTimeBackgroundIntervalSeconds();
+
+        this.cliScheduler = new AdaptivePollScheduler("CLI-MultiPlayer-RealTimeCheck", 4,
+                cliIntervalSeconds * 1000L, config.getRealTimeCliMaxIntervalSeconds() * 1000L,
+                config.getRealTimeBackoffFactor(), config.getRealTimeJitterPercent() / 100.0,
+                this::pollCliServer);
+        this.backgroundScheduler = new AdaptivePollScheduler("Background-RealTimeCheck", 2,
+                backgroundIntervalSeconds * 1000L, config.getRealTimeBackgroundMaxIntervalSeconds() * 1000L,
+                config.getRealTimeBackoffFactor(), config.getRealTimeJitterPercent() / 100.0,
+                this::pollBackgroundServer);
+
+        if (forecaster != null && forecastThreshold > 0) {
+            cliScheduler.setFocus(server -> anyLikelyOnlineSoon(cliSubscriptions, server));
+            backgroundScheduler.setFocus(server -> anyLikelyOnlineSoon(backgroundSubscriptions, server));
+        }
     }
 
     public synchronized boolean addCliPlayer(String playerName, String serverName) {
-        if (cliPlayers.contains(playerName)) {
-            System.out.println("Player " + playerName + " is already being monitored.");
+        List<ServerConfig> servers = resolveServers(serverName);
+        if (servers.isEmpty()) {
+            System.out.println("Server not found: " + serverName);
             return false;
         }
 
-        ServerConfig server = resolveServer(serverName);
-        if (server == null) {
-            System.out.println("Server not found: " + serverName);
+        List<String> added = new ArrayList<>();
+        for (ServerConfig server : servers) {
+            int id = cliSubscriptions.add(playerName, server.getName());
+            if (id >= 0) {
+                cliDetector.reset(id);
+                pipeline.publishObservationStarted(playerName, server.getName());
+                added.add(server.getName());
+            }
+        }
+
+        if (added.isEmpty()) {
+            System.out.println("Player " + playerName + " is already being monitored.");
             return false;
         }
 
-        cliPlayers.add(playerName);
-        System.out.println("Added " + playerName + " to real-time monitoring on " + server.getName());
+        System.out.println("Added " + playerName + " to real-time monitoring on " + String.join(", ", added));
 
         if (!cliActive.get()) {
             startCliMonitoring();
         }
 
+        for (ServerConfig server : servers) {
+            if (!cliScheduler.schedule(server)) {
+                cliScheduler.markActive(server.getName());
+            }
+        }
+
         return true;
     }
 
     public synchronized boolean removeCliPlayer(String playerName) {
-        if (!cliPlayers.contains(playerName)) {
+        return removeCliPlayer(playerName, null);
+    }
+
+    public synchronized boolean removeCliPlayer(String playerName, String serverName) {
+        if (!cliSubscriptions.contains(playerName)) {
             System.out.println("Player " + playerName + " is not being monitored.");
             return false;
         }
 
-        cliPlayers.remove(playerName);
-        lastCliResults.remove(playerName);
-        System.out.println("Removed " + playerName + " from real-time monitoring.");
+        if (serverName == null || serverName.isEmpty()) {
+            endObservations(playerName, cliSubscriptions.snapshot().get(playerName));
+            cliSubscriptions.removePlayer(playerName);
+            System.out.println("Removed " + playerName + " from real-time monitoring.");
+        } else {
+            ServerConfig server = config.getServerByName(serverName);
+            int id = server == null ? -1 : cliSubscriptions.remove(playerName, server.getName());
+            if (id < 0) {
+                System.out.println("Player " + playerName + " is not being monitored on " + serverName + ".");
+                return false;
+            }
+            pipeline.publishObservationEnded(playerName, server.getName());
+            System.out.println("Removed " + playerName + " from real-time monitoring on " + server.getName() + ".");
+        }
 
-        if (cliPlayers.isEmpty() && cliActive.get()) {
+        unscheduleIdleServers(cliSubscriptions, cliScheduler);
+
+        if (cliSubscriptions.isEmpty() && cliActive.get()) {
             stopCliMonitoring();
         }
 
@@ -88,25 +139,48 @@ public class MultiPlayerRealTimeController {
     }
 
     public List<String> listCliPlayers() {
-        return new ArrayList<>(cliPlayers);
+        return cliSubscriptions.playerNames();
+    }
+
+    public Map<String, List<String>> getCliSubscriptions() {
+        return cliSubscriptions.snapshot();
     }
 
     public synchronized boolean startBackgroundMonitoring(Set<String> playerNames) {
+        return startBackgroundMonitoring(playerNames, null);
+    }
+
+    public synchronized boolean startBackgroundMonitoring(Set<String> playerNames, String serverName) {
         if (backgroundActive.get()) {
             System.out.println("Background monitoring already running.");
             return false;
         }
 
-        backgroundPlayers.addAll(playerNames);
-        backgroundActive.set(true);
+        List<ServerConfig> servers = resolveServers(serverName);
+        if (servers.isEmpty()) {
+            System.out.println("Server not found: " + serverName);
+            return false;
+        }
 
-        backgroundTimer = new Timer("Background-RealTimeCheck", true);
-        backgroundTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                performBackgroundChecks();
+        for (String playerName : playerNames) {
+            for (ServerConfig server : servers) {
+                int id = backgroundSubscriptions.add(playerName, server.getName());
+                if (id >= 0) {
+                    backgroundDetector.reset(id);
+                    pipeline.publishObservationStarted(playerName, server.getName());
+                }
             }
-        }, 0, backgroundIntervalSeconds * 1000L);
+        }
+        backgroundActive.set(true);
+
+        if (forecaster != null && forecastThreshold > 0) {
+            List<String> players = List.copyOf(playerNames);
+            CompletableFuture.runAsync(() -> forecaster.prefetch(players));
+        }
+
+        for (ServerConfig server : servers) {
+            backgroundScheduler.schedule(server);
+        }
 
         return true;
     }
@@ -116,38 +190,53 @@ public class MultiPlayerRealTimeController {
             return false;
         }
 
-        if (backgroundTimer != null) {
-            backgroundTimer.cancel();
-            backgroundTimer = null;
-        }
+        backgroundScheduler.unscheduleAll();
 
         backgroundActive.set(false);
-        backgroundPlayers.clear();
-        lastBackgroundResults.clear();
+        endAllObservations(backgroundSubscriptions);
+        backgroundSubscriptions.clear();
+        backgroundLastActivity.clear();
 
         return true;
     }
 
     public synchronized boolean addBackgroundPlayer(String playerName) {
+        return addBackgroundPlayer(playerName, null);
+    }
+
+    public synchronized boolean addBackgroundPlayer(String playerName, String serverName) {
         if (!backgroundActive.get()) {
             Set<String> players = new HashSet<>();
             players.add(playerName);
-            return startBackgroundMonitoring(players);
+            return startBackgroundMonitoring(players, serverName);
         }
 
-        backgroundPlayers.add(playerName);
-        return true;
+        List<ServerConfig> servers = resolveServers(serverName);
+        boolean added = false;
+        for (ServerConfig server : servers) {
+            int id = backgroundSubscriptions.add(playerName, server.getName());
+            if (id >= 0) {
+                backgroundDetector.reset(id);
+                pipeline.publishObservationStarted(playerName, server.getName());
+                added = true;
+            }
+            if (!backgroundScheduler.schedule(server)) {
+                backgroundScheduler.markActive(server.getName());
+            }
+        }
+        return added;
     }
 
     public synchronized boolean removeBackgroundPlayer(String playerName) {
-        if (!backgroundPlayers.contains(playerName)) {
+        if (!backgroundSubscriptions.contains(playerName)) {
             return false;
         }
 
-        backgroundPlayers.remove(playerName);
-        lastBackgroundResults.remove(playerName);
+        endObservations(playerName, backgroundSubscriptions.snapshot().get(playerName));
+        backgroundSubscriptions.removePlayer(playerName);
+        unscheduleIdleServers(backgroundSubscriptions, backgroundScheduler);
 
-        if (backgroundPlayers.isEmpty()) {
+        if (backgroundSubscriptions.isEmpty()) {
             stopBackgroundMonitoring();
         }
 
@@ -155,7 +244,11 @@ public class MultiPlayerRealTimeController {
     }
 
     public List<String> listBackgroundPlayers() {
-        return new ArrayList<>(backgroundPlayers);
+        return backgroundSubscriptions.playerNames();
+    }
+
+    public Map<String, List<String>> getBackgroundSubscriptions() {
+        return backgroundSubscriptions.snapshot();
     }
 
     private synchronized void startCliMonitoring() {
@@ -165,31 +258,23 @@ public class MultiPlayerRealTimeController {
         System.out.println("========================================");
         System.out.println("  Multi-Player Real-Time Monitoring Started");
         System.out.println("========================================");
-        System.out.println("Monitoring " + cliPlayers.size() + " player(s)");
-        System.out.println("Check interval: " + cliIntervalSeconds + " second(s)");
+        System.out.println("Monitoring " + cliSubscriptions.playerNames().size() + " player(s) on "
+                + cliSubscriptions.activeServers().size() + " server(s)");
+        System.out.println("Check interval: " + cliIntervalSeconds + "-" + config.getRealTimeCliMaxIntervalSeconds()
+                + " second(s), adaptive");
         System.out.println("========================================");
         System.out.println();
-
-        cliTimer = new Timer("CLI-MultiPlayer-RealTimeCheck", true);
-        cliTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                performCliChecks();
-            }
-        }, 0, cliIntervalSeconds * 1000L);
     }
 
     private synchronized void stopCliMonitoring() {
         if (!cliActive.get()) return;
 
-        if (cliTimer != null) {
-            cliTimer.cancel();
-            cliTimer = null;
-        }
+        cliScheduler.unscheduleAll();
 
         cliActive.set(false);
-        cliPlayers.clear();
-        lastCliResults.clear();
+        endAllObservations(cliSubscriptions);
+        cliSubscriptions.clear();
+        cliLastActivity.clear();
 
         System.out.println();
         System.out.println("========================================");
@@ -198,138 +283,168 @@ public class MultiPlayerRealTimeController {
         System.out.println();
     }
 
-    private void performCliChecks() {
-        String timestamp = new java.text.SimpleDateFormat("HH:mm:ss").format(new java.util.Date());
-
-        for (String playerName : cliPlayers) {
-            try {
-                ServerConfig server = config.getServers().get(0);
-                PlayerCheckResult result = serverChecker.checkPlayerOnServer(playerName, server);
-
-                PlayerCheckResult previousResult = lastCliResults.get(playerName);
-
-                StringBuilder status = new StringBuilder();
-                status.append("[").append(timestamp).append("] ");
-                status.append(playerName).append(": ");
-
-                if (!result.isSuccess()) {
-                    status.append("SERVER UNREACHABLE - ").append(result.getErrorMessage());
-
-                    if (previousResult != null && previousResult.isSuccess()) {
-                        if (discord.isEnabled()) {
-                            discord.sendServerOutageNotification(server.getName(), result.getErrorMessage());
-                        }
-                    }
-                } else {
-                    if (previousResult != null && !previousResult.isSuccess()) {
-                        if (discord.isEnabled()) {
-                            discord.sendServerOnlineNotification(server.getName());
-                        }
-                    }
-                    status.append(result.isOnline() ? "ONLINE" : "OFFLINE");
-                    status.append(" | Players: ").append(result.getOnlineCount());
-
-                    if (historyService.isEnabled()) {
-                        historyService.recordPlayerStatus(playerName, server.getName(),
-                                result.isOnline(), result.getOnlineCount());
-                    }
-
-                    if (timeline != null) {
-                        if (previousResult != null && previousResult.isSuccess()) {
-                            if (!previousResult.isOnline() && result.isOnline()) {
-                                timeline.recordPlayerJoin(playerName, server.getName());
-                            } else if (previousResult.isOnline() && !result.isOnline()) {
-                                timeline.recordPlayerLeave(playerName, server.getName());
-                            }
-                        }
-                    }
-
-                    if (previousResult != null && previousResult.isSuccess()) {
-                        if (previousResult.isOnline() != result.isOnline()) {
-                            if (result.isOnline() && discord.isEnabled()) {
-                                discord.sendPlayerOnlineNotification(playerName, server.getName());
-                            } else if (!result.isOnline() && discord.isEnabled()) {
-                                discord.sendPlayerOfflineNotification(playerName, server.getName());
-                            }
-                        }
-                    }
+    private boolean pollCliServer(ServerConfig server) {
+        String timestamp = Timestamps.formatClock(System.currentTimeMillis());
+        ServerStatus serverStatus = serverChecker.getServerStatus(server);
+        pipeline.publishServerStatus(serverStatus);
+        boolean changed = activityChanged(cliLastActivity, server, serverStatus);
+
+        try (SubscriptionTable.View subscriptions = cliSubscriptions.view()) {
+            for (int id : subscriptions.subscribersOf(server.getName())) {
+                String playerName = subscriptions.playerOf(id);
+                if (playerName == null) continue;
+                try {
+                    PlayerCheckResult result = serverChecker.toPlayerResult(playerName, serverStatus);
+                    changed |= handleCliResult(timestamp, id, playerName, server, result);
+                } catch (Exception e) {
+                    System.err.println("[ERROR] Check failed for " + playerName + ": " + e.getMessage());
                 }
+            }
+        }
+
+        return changed;
+    }
 
-                System.out.println(status);
-                lastCliResults.put(playerName, result);
+    private boolean handleCliResult(String timestamp, int id, String playerName, ServerConfig server,
+                                    PlayerCheckResult result) {
+        StringBuilder status = new StringBuilder();
+        status.append("[").append(timestamp).append("] ");
+        status.append(playerName).append(" @ ").append(server.getName()).append(": ");
+
+        if (!result.isSuccess()) {
+            status.append("SERVER UNREACHABLE - ").append(result.getErrorMessage());
+        } else {
+            status.append(result.isOnline() ? "ONLINE" : "OFFLINE");
+            status.append(" | Players: ").append(result.getOnlineCount());
+
+            pipeline.publishPlayerStatus(playerName, server.getName(), result.isOnline(), result.getOnlineCount());
+        }
+
+        System.out.println(status);
+        return cliDetector.observe(id, playerName, server.getName(), result.isSuccess(), result.isOnline(),
+                result.getOnlineCount(), result.getErrorMessage());
+    }
 
-            } catch (Exception e) {
-                System.err.println("[ERROR] Check failed for " + playerName + ": " + e.getMessage());
+    private boolean pollBackgroundServer(ServerConfig server) {
+        ServerStatus serverStatus = serverChecker.getServerStatus(server);
+        pipeline.publishServerStatus(serverStatus);
+        boolean changed = activityChanged(backgroundLastActivity, server, serverStatus);
+
+        try (SubscriptionTable.View subscriptions = backgroundSubscriptions.view()) {
+            for (int id : subscriptions.subscribersOf(server.getName())) {
+                String playerName = subscriptions.playerOf(id);
+                if (playerName == null) continue;
+                try {
+                    PlayerCheckResult result = serverChecker.toPlayerResult(playerName, serverStatus);
+                    changed |= handleBackgroundResult(id, playerName, server, result);
+                } catch (Exception e) {}
             }
         }
+
+        return changed;
+    }
+
+    private boolean handleBackgroundResult(int id, String playerName, ServerConfig server, PlayerCheckResult result) {
+        if (result.isSuccess()) {
+            pipeline.publishPlayerStatus(playerName, server.getName(), result.isOnline(), result.getOnlineCount());
+        }
+
+        return backgroundDetector.observe(id, playerName, server.getName(), result.isSuccess(), result.isOnline(),
+                result.getOnlineCount(), result.getErrorMessage());
     }
 
-    private void performBackgroundChecks() {
-        for (String playerName : backgroundPlayers) {
-            try {
-                ServerConfig server = config.getServers().get(0);
-                PlayerCheckResult result = serverChecker.checkPlayerOnServer(playerName, server);
-
-                PlayerCheckResult previousResult = lastBackgroundResults.get(playerName);
-
-                if (result.isSuccess()) {
-                    if (historyService.isEnabled()) {
-                        historyService.recordPlayerStatus(playerName, server.getName(),
-                                result.isOnline(), result.getOnlineCount());
-                    }
-
-                    if (timeline != null) {
-                        if (previousResult != null && previousResult.isSuccess()) {
-                            if (!previousResult.isOnline() && result.isOnline()) {
-                                timeline.recordPlayerJoin(playerName, server.getName());
-                            } else if (previousResult.isOnline() && !result.isOnline()) {
-                                timeline.recordPlayerLeave(playerName, server.getName());
-                            }
-                        }
-                    }
-
-                    if (previousResult != null && previousResult.isSuccess()) {
-                        if (previousResult.isOnline() != result.isOnline()) {
-                            if (result.isOnline() && discord.isEnabled()) {
-                                discord.sendPlayerOnlineNotification(playerName, server.getName());
-                            } else if (!result.isOnline() && discord.isEnabled()) {
-                                discord.sendPlayerOfflineNotification(playerName, server.getName());
-                            }
-                        }
-                    }
+    // Players joining or leaving a server mean it is busy even when no subscribed player changed,
+    // so the server is kept at the base interval instead of backing off.
+    private boolean activityChanged(Map<String, ServerActivity> lastActivity, ServerConfig server,
+                                    ServerStatus serverStatus) {
+        ServerActivity current = new ServerActivity(serverStatus);
+        ServerActivity previous = lastActivity.put(server.getName(), current);
+        return previous != null && !previous.equals(current);
+    }
+
+    private boolean anyLikelyOnlineSoon(SubscriptionTable table, ServerConfig server) {
+        try (SubscriptionTable.View subscriptions = table.view()) {
+            for (int id : subscriptions.subscribersOf(server.getName())) {
+                String playerName = subscriptions.playerOf(id);
+                if (playerName != null && forecaster.isLikelyOnlineSoon(playerName, forecastThreshold)) {
+                    return true;
                 }
+            }
+        }
+        return false;
+    }
 
-                lastBackgroundResults.put(playerName, result);
+    private void endAllObservations(SubscriptionTable subscriptions) {
+        for (Map.Entry<String, List<String>> entry : subscriptions.snapshot().entrySet()) {
+            endObservations(entry.getKey(), entry.getValue());
+        }
+    }
 
-            } catch (Exception e) {}
+    private void endObservations(String playerName, List<String> serverNames) {
+        if (serverNames == null) return;
+        for (String serverName : serverNames) {
+            pipeline.publishObservationEnded(playerName, serverName);
         }
     }
 
-    private ServerConfig resolveServer(String serverName) {
-        if (serverName != null && !serverName.isEmpty()) {
-            return config.getServerByName(serverName);
+    private void unscheduleIdleServers(SubscriptionTable subscriptions, AdaptivePollScheduler scheduler) {
+        for (ServerConfig server : config.getServers()) {
+            if (subscriptions.subscribersOf(server.getName()).length == 0) {
+                scheduler.unschedule(server.getName());
+            }
         }
-        return config.getServers().isEmpty() ? null : config.getServers().get(0);
     }
 
-    public boolean isCliActive() {
-        return cliActive.get();
+    private List<ServerConfig> resolveServers(String serverName) {
+        List<ServerConfig> servers = new ArrayList<>();
+
+        if (serverName == null || serverName.isEmpty()) {
+            if (!config.getServers().isEmpty()) {
+                servers.add(config.getServers().get(0));
+            }
+        } else if (serverName.equalsIgnoreCase("all")) {
+            servers.addAll(config.getServers());
+        } else {
+            for (String name : serverName.split(",")) {
+                ServerConfig server = config.getServerByName(name.trim());
+                if (server == null) {
+                    return new ArrayList<>();
+                }
+                if (!servers.contains(server)) {
+                    servers.add(server);
+                }
+            }
+        }
+
+        return servers;
     }
 
-    public boolean isBackgroundActive() {
-        return backgroundActive.get();
+    public Map<String, Map<String, Long>> getPollIntervals() {
+        Map<String, Map<String, Long>> intervals = new LinkedHashMap<>();
+        intervals.put("cli", cliScheduler.getCurrentIntervals());
+        intervals.put("background", backgroundScheduler.getCurrentIntervals());
+        return intervals;
     }
 
-    public Map<String, PlayerCheckResult> getLastCliResults() {
-        return new HashMap<>(lastCliResults);
+    public boolean isCliActive() {
+        return cliActive.get();
     }
 
-    public Map<String, PlayerCheckResult> getLastBackgroundResults() {
-        return new HashMap<>(lastBackgroundResults);
+    public boolean isBackgroundActive() {
+        return backgroundActive.get();
     }
 
     public void shutdown() {
         stopCliMonitoring();
         stopBackgroundMonitoring();
+        cliScheduler.shutdown();
+        backgroundScheduler.shutdown();
+    }
+
+    private record ServerActivity(boolean online, int onlineCount, Set<String> players) {
+        ServerActivity(ServerStatus status) {
+            this(status.isOnline(), status.isOnline() ? status.getOnlineCount() : 0,
+                    status.isOnline() ? new HashSet<>(status.getPlayers()) : Collections.emptySet());
+        }
     }
 }
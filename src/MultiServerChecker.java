@@ -5,12 +5,17 @@ import java.util.concurrent.*;
 public class MultiServerChecker {
     private final ConfigLoader config;
     private final ExecutorService executorService;
+    private volatile ServerHealthTracker healthTracker;
 
     public MultiServerChecker(ConfigLoader config) {
         this.config = config;
         this.executorService = Executors.newFixedThreadPool(10);
     }
 
+    public void setHealthTracker(ServerHealthTracker healthTracker) {
+        this.healthTracker = healthTracker;
+    }
+
     public Map<ServerConfig, PlayerCheckResult> checkPlayerOnAllServers(String playerName) {
         Map<ServerConfig, PlayerCheckResult> results = new ConcurrentHashMap<>();
         List<Future<Void>> futures = new ArrayList<>();
@@ -58,6 +63,10 @@ public class MultiServerChecker {
             result.setErrorMessage(e.getMessage());
         }
 
+        ServerHealthTracker tracker = healthTracker;
+        if (tracker != null) {
+            tracker.observe(server.getName(), result.isSuccess(), result.getOnlineCount(), result.getErrorMessage());
+        }
         return result;
     }
 
@@ -94,10 +103,14 @@ public class MultiServerChecker {
     }
 
     public Map<ServerConfig, ServerStatus> getAllServerStatus() {
+        return getServerStatuses(config.getServers());
+    }
+
+    public Map<ServerConfig, ServerStatus> getServerStatuses(Collection<ServerConfig> servers) {
         Map<ServerConfig, ServerStatus> results = new ConcurrentHashMap<>();
         List<Future<Void>> futures = new ArrayList<>();
 
-        for (ServerConfig server : config.getServers()) {
+        for (ServerConfig server : servers) {
             Future<Void> future = executorService.submit(() -> {
                 ServerStatus status = getServerStatus(server);
                 results.put(server, status);
@@ -134,21 +147,46 @@ public class MultiServerChecker {
                 status.setOnlineCount(queryResponse.getOnlinePlayers());
                 status.setMaxPlayers(queryResponse.getMaxPlayers());
                 status.setQueryResponse(queryResponse);
+                status.setUsingQuery(true);
+                status.setPlayers(new ArrayList<>(queryResponse.getPlayerList()));
             } else {
                 MinecraftPinger pinger = new MinecraftPinger(server.getIp(), server.getPort());
-                String response = pinger.ping();
-                status.setOnline(true);
                 PlayerChecker checker = new PlayerChecker(pinger);
+                checker.refresh();
+                status.setOnline(true);
                 status.setOnlineCount(checker.getOnlinePlayerCount());
+                status.setPlayers(checker.getOnlinePlayerNames());
             }
         } catch (Exception e) {
             status.setOnline(false);
             status.setErrorMessage(e.getMessage());
         }
 
+        ServerHealthTracker tracker = healthTracker;
+        if (tracker != null) {
+            tracker.observe(server.getName(), status.isOnline(), status.getOnlineCount(), status.getErrorMessage());
+        }
         return status;
     }
 
+    public PlayerCheckResult toPlayerResult(String playerName, ServerStatus status) {
+        PlayerCheckResult result = new PlayerCheckResult();
+        result.setPlayerName(playerName);
+        result.setServer(status.getServer());
+        result.setSuccess(status.isOnline());
+        result.setErrorMessage(status.getErrorMessage());
+
+        if (status.isOnline()) {
+            result.setOnline(status.hasPlayer(playerName));
+            result.setOnlineCount(status.getOnlineCount());
+            result.setMaxPlayers(status.getMaxPlayers());
+            result.setUsingQuery(status.isUsingQuery());
+            result.setQueryResponse(status.getQueryResponse());
+        }
+
+        return result;
+    }
+
     public void shutdown() {
         executorService.shutdown();
         try {
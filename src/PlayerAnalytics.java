@@ -1,128 +1,193 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.text.SimpleDateFormat;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 public class PlayerAnalytics {
+    private static final int RANK_BATCH = 32;
+
+    public enum LeaderboardMetric {
+        PLAYTIME(Comparator.comparingLong(PlayerInsights::getTotalOnlineTime)),
+        SESSIONS(Comparator.comparingInt(PlayerInsights::getSessionCount)),
+        LONGEST_SESSION(Comparator.comparingLong(PlayerInsights::getLongestSession));
+
+        private final Comparator<PlayerInsights> order;
+
+        LeaderboardMetric(Comparator<PlayerInsights> order) {
+            this.order = order.thenComparing(PlayerInsights::getPlayerName, Comparator.reverseOrder());
+        }
+    }
+
     private final HistoryService historyService;
+    private final SessionEngine sessionEngine;
+    private final PresenceForecaster forecaster;
     private final Map<String, PlayerActivityData> activityCache;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
-    public PlayerAnalytics(HistoryService historyService) {
+    public PlayerAnalytics(HistoryService historyService, ConfigLoader config) {
         this.historyService = historyService;
+        this.sessionEngine = new SessionEngine(historyService);
+        this.forecaster = new PresenceForecaster(historyService, config.getRealTimeForecastHalfLifeWeeks());
         this.activityCache = new ConcurrentHashMap<>();
+        historyService.addSessionListener(sessionEngine);
+        historyService.addSessionListener(forecaster);
+    }
+
+    public PresenceForecaster getForecaster() {
+        return forecaster;
     }
 
     public PlayerInsights getInsights(String playerName) {
-        List<HistoryEntry> history = historyService.getPlayerHistory(playerName, 30);
-        if (history.isEmpty()) {
-            return null;
+        PlayerInsights fromSessions = sessionEngine.getInsights(playerName);
+        if (fromSessions != null) {
+            return fromSessions;
         }
 
+        long now = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
         PlayerInsights insights = new PlayerInsights(playerName);
+        long[] sessionStart = {-1};
+        int[] entries = {0};
 
-        long totalOnlineTime = 0;
-        int sessionCount = 0;
-        long longestSession = 0;
-        Map<Integer, Integer> hourlyActivity = new HashMap<>();
-
-        Long sessionStart = null;
-
-        for (HistoryEntry entry : history) {
-            long timestamp = parseTimestamp(entry.getTimestamp());
-            if (timestamp == 0) continue;
-
-            Calendar cal = Calendar.getInstance();
-            cal.setTimeInMillis(timestamp);
-            int hour = cal.get(Calendar.HOUR_OF_DAY);
-
-            hourlyActivity.put(hour, hourlyActivity.getOrDefault(hour, 0) + 1);
+        historyService.scanPlayerHistory(playerName, 30, entry -> {
+            long timestamp = entry.getTimestampMillis();
+            if (timestamp == 0) return true;
 
-            boolean isOnline = "online".equals(entry.getStatus());
-
-            if (isOnline) {
-                if (sessionStart == null) {
-                    sessionStart = timestamp;
-                }
-            } else {
-                if (sessionStart != null) {
-                    long sessionDuration = timestamp - sessionStart;
-                    totalOnlineTime += sessionDuration;
-                    sessionCount++;
-                    if (sessionDuration > longestSession) {
-                        longestSession = sessionDuration;
-                    }
-                    sessionStart = null;
+            entries[0]++;
+            if ("online".equals(entry.getStatus())) {
+                if (sessionStart[0] < 0) {
+                    sessionStart[0] = timestamp;
                 }
+            } else if (sessionStart[0] >= 0) {
+                insights.addSession(sessionStart[0], timestamp, now, zone);
+                sessionStart[0] = -1;
             }
-        }
+            return true;
+        });
 
-        if (sessionStart != null) {
-            long currentSession = System.currentTimeMillis() - sessionStart;
-            totalOnlineTime += currentSession;
-            sessionCount++;
-            if (currentSession > longestSession) {
-                longestSession = currentSession;
-            }
+        if (entries[0] == 0) {
+            return null;
         }
-
-        insights.setTotalOnlineTime(totalOnlineTime);
-        insights.setSessionCount(sessionCount);
-        insights.setLongestSession(longestSession);
-        if (sessionCount > 0) {
-            insights.setAverageSessionLength(totalOnlineTime / sessionCount);
+        if (sessionStart[0] >= 0) {
+            insights.addSession(sessionStart[0], now, now, zone);
         }
-        insights.setHourlyActivity(hourlyActivity);
-
-        long now = System.currentTimeMillis();
-        long dayAgo = now - (24 * 60 * 60 * 1000);
-        long weekAgo = now - (7 * 24 * 60 * 60 * 1000);
-
-        insights.setDailyOnlineTime(calculateOnlineTime(history, dayAgo, now));
-        insights.setWeeklyOnlineTime(calculateOnlineTime(history, weekAgo, now));
-
         return insights;
     }
 
-    private long calculateOnlineTime(List<HistoryEntry> history, long startTime, long endTime) {
-        long totalTime = 0;
-        Long sessionStart = null;
+    // Top players on one server, or across all servers when serverName is null.
+    public List<PlayerInsights> getLeaderboard(String serverName, int days, LeaderboardMetric metric, int limit) {
+        return rank(historyService.getServerSessions(serverName, days), days, metric, limit);
+    }
+
+    public List<PlayerInsights> getCohortLeaderboard(Collection<String> playerNames, int days,
+                                                     LeaderboardMetric metric, int limit) {
+        return rank(historyService.getSessions(playerNames, days), days, metric, limit);
+    }
 
-        for (HistoryEntry entry : history) {
-            long timestamp = parseTimestamp(entry.getTimestamp());
-            if (timestamp == 0) continue;
+    private List<PlayerInsights> rank(Map<String, List<PlayerSession>> sessionsByPlayer, int days,
+                                      LeaderboardMetric metric, int limit) {
+        if (sessionsByPlayer.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
 
-            if (timestamp < startTime) continue;
-            if (timestamp > endTime) break;
+        long now = System.currentTimeMillis();
+        RankTask task = new RankTask(new ArrayList<>(sessionsByPlayer.entrySet()), 0, sessionsByPlayer.size(),
+                now - TimeUnit.DAYS.toMillis(days), now, ZoneId.systemDefault(), metric.order, limit);
+        List<PlayerInsights> ranked = new ArrayList<>(ForkJoinPool.commonPool().invoke(task));
+        ranked.sort(metric.order.reversed());
+        return ranked;
+    }
 
-            boolean isOnline = "online".equals(entry.getStatus());
+    // Players who were online on the same server at the same time as playerName, by shared minutes.
+    public List<Companion> getFrequentCompanions(String playerName, int days, int limit) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - TimeUnit.DAYS.toMillis(days);
+        List<PlayerSession> own = historyService.getSessions(List.of(playerName), days)
+                .getOrDefault(playerName, Collections.emptyList());
+        Map<String, PresenceBitmap> target = bitmapsByServer(own, windowStart, now);
+
+        Map<String, Integer> shared = new ConcurrentHashMap<>();
+        for (Map.Entry<String, PresenceBitmap> server : target.entrySet()) {
+            historyService.getServerSessions(server.getKey(), days).entrySet().parallelStream()
+                    .filter(other -> !other.getKey().equals(playerName))
+                    .forEach(other -> {
+                        PresenceBitmap bitmap = bitmapsByServer(other.getValue(), windowStart, now).get(server.getKey());
+                        int minutes = bitmap != null ? server.getValue().overlapMinutes(bitmap) : 0;
+                        if (minutes > 0) {
+                            shared.merge(other.getKey(), minutes, Integer::sum);
+                        }
+                    });
+        }
 
-            if (isOnline) {
-                if (sessionStart == null) {
-                    sessionStart = timestamp;
-                }
-            } else {
-                if (sessionStart != null) {
-                    totalTime += timestamp - sessionStart;
-                    sessionStart = null;
-                }
+        Comparator<Companion> order = Comparator.comparingInt(Companion::getSharedMinutes)
+                .thenComparing(Companion::getPlayerName, Comparator.reverseOrder());
+        PriorityQueue<Companion> top = new PriorityQueue<>(order);
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            Companion companion = new Companion(entry.getKey(), entry.getValue());
+            if (top.size() < limit) {
+                top.add(companion);
+            } else if (limit > 0 && order.compare(companion, top.peek()) > 0) {
+                top.poll();
+                top.add(companion);
             }
         }
 
-        if (sessionStart != null) {
-            totalTime += endTime - sessionStart;
+        List<Companion> companions = new ArrayList<>(top);
+        companions.sort(order.reversed());
+        return companions;
+    }
+
+    // Shared online minutes for every pair in a cohort, counting only time on the same server.
+    public CoPresenceMatrix getCoPresenceMatrix(Collection<String> playerNames, int days) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - TimeUnit.DAYS.toMillis(days);
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(playerNames));
+        Map<String, List<PlayerSession>> sessions = historyService.getSessions(names, days);
+
+        List<Map<String, PresenceBitmap>> bitmaps = new ArrayList<>(names.size());
+        for (String name : names) {
+            bitmaps.add(bitmapsByServer(sessions.getOrDefault(name, Collections.emptyList()), windowStart, now));
         }
 
-        return totalTime;
+        int[][] minutes = new int[names.size()][names.size()];
+        IntStream.range(0, names.size()).parallel().forEach(i -> {
+            for (Map.Entry<String, PresenceBitmap> server : bitmaps.get(i).entrySet()) {
+                minutes[i][i] += server.getValue().minutes();
+                for (int j = i + 1; j < names.size(); j++) {
+                    PresenceBitmap other = bitmaps.get(j).get(server.getKey());
+                    if (other != null) {
+                        minutes[i][j] += server.getValue().overlapMinutes(other);
+                    }
+                }
+            }
+        });
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = i + 1; j < names.size(); j++) {
+                minutes[j][i] = minutes[i][j];
+            }
+        }
+        return new CoPresenceMatrix(names, minutes);
     }
 
-    private long parseTimestamp(String timestampStr) {
-        if (timestampStr == null) return 0;
-
-        try {
-            return DATE_FORMAT.parse(timestampStr).getTime();
-        } catch (Exception e) {
-            return 0;
+    private static Map<String, PresenceBitmap> bitmapsByServer(List<PlayerSession> sessions, long windowStart,
+                                                               long windowEnd) {
+        long firstDay = PresenceBitmap.dayOf(windowStart);
+        int days = (int) (PresenceBitmap.dayOf(windowEnd) - firstDay + 1);
+        Map<String, PresenceBitmap> bitmaps = new HashMap<>();
+        for (PlayerSession session : sessions) {
+            long start = Math.max(session.getStartTime(), windowStart);
+            long end = Math.min(session.getEndTime(), windowEnd);
+            if (end > start) {
+                bitmaps.computeIfAbsent(session.getServerName(), k -> new PresenceBitmap(firstDay, days))
+                        .addInterval(start, end);
+            }
         }
+        return bitmaps;
     }
 
     public String getActivityHeatmap(String playerName) {
@@ -134,11 +199,11 @@ public class PlayerAnalytics {
         sb.append("Hour  | Activity\n");
         sb.append("------|").append("-".repeat(30)).append("\n");
 
-        Map<Integer, Integer> hourlyActivity = insights.getHourlyActivity();
-        int maxActivity = hourlyActivity.values().stream().max(Integer::compareTo).orElse(1);
+        int[] hourlyActivity = insights.getHourlyActivity();
+        int maxActivity = Math.max(1, Arrays.stream(hourlyActivity).max().orElse(1));
 
-        for (int hour = 0; hour < 24; hour++) {
-            int activity = hourlyActivity.getOrDefault(hour, 0);
+        for (int hour = 0; hour < hourlyActivity.length; hour++) {
+            int activity = hourlyActivity[hour];
             int barLength = (int) ((activity / (double) maxActivity) * 40);
 
             sb.append(String.format("%02d:00", hour)).append(" | ");
@@ -149,7 +214,13 @@ public class PlayerAnalytics {
         return sb.toString();
     }
 
+    // Histograms hold online time in milliseconds: per local hour of day, per weekday (Monday first) and
+    // per local day over the last WINDOW_DAYS days (oldest first, today last). The *Activity getters
+    // convert to whole minutes, so partial minutes from many sessions still add up.
     public static class PlayerInsights {
+        public static final int WINDOW_DAYS = 30;
+        private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
         private final String playerName;
         private long totalOnlineTime;
         private long dailyOnlineTime;
@@ -157,11 +228,71 @@ public class PlayerAnalytics {
         private long averageSessionLength;
         private long longestSession;
         private int sessionCount;
-        private Map<Integer, Integer> hourlyActivity;
+        private final long[] hourlyOnlineMs;
+        private final long[] weekdayOnlineMs;
+        private final long[] dailyOnlineMs;
 
         public PlayerInsights(String playerName) {
             this.playerName = playerName;
-            this.hourlyActivity = new HashMap<>();
+            this.hourlyOnlineMs = new long[24];
+            this.weekdayOnlineMs = new long[7];
+            this.dailyOnlineMs = new long[WINDOW_DAYS];
+        }
+
+        // Counts one session ending at or before windowEnd.
+        public void addSession(long start, long end, long windowEnd, ZoneId zone) {
+            long duration = Math.max(0, end - start);
+            sessionCount++;
+            totalOnlineTime += duration;
+            longestSession = Math.max(longestSession, duration);
+            averageSessionLength = totalOnlineTime / sessionCount;
+            dailyOnlineTime += Math.max(0, Math.min(end, windowEnd) - Math.max(start, windowEnd - DAY_MS));
+            weeklyOnlineTime += Math.max(0, Math.min(end, windowEnd) - Math.max(start, windowEnd - 7 * DAY_MS));
+            addOnlineTime(start, end, windowEnd, zone);
+        }
+
+        public void addOnlineTime(long start, long end, long windowEnd, ZoneId zone) {
+            long lastDay = Instant.ofEpochMilli(windowEnd).atZone(zone).toLocalDate().toEpochDay();
+            long cursor = start;
+            while (cursor < end) {
+                ZonedDateTime time = Instant.ofEpochMilli(cursor).atZone(zone);
+                long hourEnd = Math.min(time.truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant().toEpochMilli(), end);
+                long ms = hourEnd - cursor;
+                hourlyOnlineMs[time.getHour()] += ms;
+                weekdayOnlineMs[time.getDayOfWeek().getValue() - 1] += ms;
+                long day = WINDOW_DAYS - 1 - (lastDay - time.toLocalDate().toEpochDay());
+                if (day >= 0 && day < WINDOW_DAYS) {
+                    dailyOnlineMs[(int) day] += ms;
+                }
+                cursor = hourEnd;
+            }
+        }
+
+        // Adds another set of insights over the same window, e.g. closed and still-open sessions.
+        public void merge(PlayerInsights other) {
+            sessionCount += other.sessionCount;
+            totalOnlineTime += other.totalOnlineTime;
+            longestSession = Math.max(longestSession, other.longestSession);
+            averageSessionLength = sessionCount > 0 ? totalOnlineTime / sessionCount : 0;
+            dailyOnlineTime += other.dailyOnlineTime;
+            weeklyOnlineTime += other.weeklyOnlineTime;
+            addAll(hourlyOnlineMs, other.hourlyOnlineMs);
+            addAll(weekdayOnlineMs, other.weekdayOnlineMs);
+            addAll(dailyOnlineMs, other.dailyOnlineMs);
+        }
+
+        private static void addAll(long[] into, long[] values) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += values[i];
+            }
+        }
+
+        private static int[] toMinutes(long[] millis) {
+            int[] minutes = new int[millis.length];
+            for (int i = 0; i < millis.length; i++) {
+                minutes[i] = (int) (millis[i] / 60_000L);
+            }
+            return minutes;
         }
 
         public String getPlayerName() {
@@ -216,12 +347,28 @@ public class PlayerAnalytics {
             this.sessionCount = sessionCount;
         }
 
-        public Map<Integer, Integer> getHourlyActivity() {
-            return hourlyActivity;
+        public long[] getHourlyOnlineMs() {
+            return hourlyOnlineMs;
+        }
+
+        public long[] getWeekdayOnlineMs() {
+            return weekdayOnlineMs;
         }
 
-        public void setHourlyActivity(Map<Integer, Integer> hourlyActivity) {
-            this.hourlyActivity = hourlyActivity;
+        public long[] getDailyOnlineMs() {
+            return dailyOnlineMs;
+        }
+
+        public int[] getHourlyActivity() {
+            return toMinutes(hourlyOnlineMs);
+        }
+
+        public int[] getWeekdayActivity() {
+            return toMinutes(weekdayOnlineMs);
+        }
+
+        public int[] getDailyActivity() {
+            return toMinutes(dailyOnlineMs);
         }
 
         @Override
@@ -240,6 +387,112 @@ public class PlayerAnalytics {
         }
     }
 
+    // Builds insights for a slice of players and keeps only the best `limit` in a min-heap, so
+    // merging two halves never holds more than 2 * limit results.
+    private static class RankTask extends RecursiveTask<PriorityQueue<PlayerInsights>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Map.Entry<String, List<PlayerSession>>> players;
+        private final int from;
+        private final int to;
+        private final long windowStart;
+        private final long windowEnd;
+        private final ZoneId zone;
+        private final Comparator<PlayerInsights> order;
+        private final int limit;
+
+        RankTask(List<Map.Entry<String, List<PlayerSession>>> players, int from, int to, long windowStart,
+                 long windowEnd, ZoneId zone, Comparator<PlayerInsights> order, int limit) {
+            this.players = players;
+            this.from = from;
+            this.to = to;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.zone = zone;
+            this.order = order;
+            this.limit = limit;
+        }
+
+        @Override
+        protected PriorityQueue<PlayerInsights> compute() {
+            if (to - from > RANK_BATCH) {
+                int mid = (from + to) >>> 1;
+                RankTask left = new RankTask(players, from, mid, windowStart, windowEnd, zone, order, limit);
+                RankTask right = new RankTask(players, mid, to, windowStart, windowEnd, zone, order, limit);
+                left.fork();
+                PriorityQueue<PlayerInsights> top = right.compute();
+                for (PlayerInsights insights : left.join()) {
+                    offer(top, insights);
+                }
+                return top;
+            }
+
+            PriorityQueue<PlayerInsights> top = new PriorityQueue<>(limit + 1, order);
+            for (int i = from; i < to; i++) {
+                Map.Entry<String, List<PlayerSession>> player = players.get(i);
+                PlayerInsights insights = new PlayerInsights(player.getKey());
+                for (PlayerSession session : player.getValue()) {
+                    long start = Math.max(session.getStartTime(), windowStart);
+                    long end = Math.min(session.getEndTime(), windowEnd);
+                    if (end > start) {
+                        insights.addSession(start, end, windowEnd, zone);
+                    }
+                }
+                if (insights.getSessionCount() > 0) {
+                    offer(top, insights);
+                }
+            }
+            return top;
+        }
+
+        private void offer(PriorityQueue<PlayerInsights> top, PlayerInsights insights) {
+            if (top.size() < limit) {
+                top.add(insights);
+            } else if (order.compare(insights, top.peek()) > 0) {
+                top.poll();
+                top.add(insights);
+            }
+        }
+    }
+
+    public static class Companion {
+        private final String playerName;
+        private final int sharedMinutes;
+
+        public Companion(String playerName, int sharedMinutes) {
+            this.playerName = playerName;
+            this.sharedMinutes = sharedMinutes;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public int getSharedMinutes() {
+            return sharedMinutes;
+        }
+    }
+
+    // minutes[i][j] is the time players i and j were online together; the diagonal is each
+    // player's own online time.
+    public static class CoPresenceMatrix {
+        private final List<String> playerNames;
+        private final int[][] minutes;
+
+        public CoPresenceMatrix(List<String> playerNames, int[][] minutes) {
+            this.playerNames = playerNames;
+            this.minutes = minutes;
+        }
+
+        public List<String> getPlayerNames() {
+            return playerNames;
+        }
+
+        public int[][] getMinutes() {
+            return minutes;
+        }
+    }
+
     private static class PlayerActivityData {
         long lastSeen;
         boolean currentlyOnline;
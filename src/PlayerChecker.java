@@ -15,6 +15,17 @@ public class PlayerChecker {
         return checkPlayerInResponse(playerName, lastResponse);
     }
 
+    public void refresh() throws IOException {
+        lastResponse = pinger.ping();
+    }
+
+    public List<String> getOnlinePlayerNames() {
+        if (lastResponse == null) {
+            return new ArrayList<>();
+        }
+        return extractPlayerNames(lastResponse);
+    }
+
     private boolean checkPlayerInResponse(String playerName, String jsonResponse) {
         List<String> players = extractPlayerNames(jsonResponse);
 
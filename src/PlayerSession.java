@@ -0,0 +1,43 @@
+public class PlayerSession {
+    private final String playerName;
+    private final String serverName;
+    private final long startTime;
+    private final long endTime;
+    private final boolean open;
+
+    public PlayerSession(String playerName, String serverName, long startTime, long endTime, boolean open) {
+        this.playerName = playerName;
+        this.serverName = serverName;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.open = open;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public long getDuration() {
+        return Math.max(0, endTime - startTime);
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public long overlap(long from, long to) {
+        return Math.max(0, Math.min(endTime, to) - Math.max(startTime, from));
+    }
+}
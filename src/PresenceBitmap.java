@@ -0,0 +1,97 @@
+// Minute-resolution online bitmap over a window of whole UTC days. Each day is a block of 23 words
+// (1440 bits) and a separate mask marks the days with any bit set, so overlaps only AND the words
+// of days both sides were online.
+public class PresenceBitmap {
+    private static final long MINUTE_MS = 60_000L;
+    private static final long DAY_MS = 24 * 60 * MINUTE_MS;
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    private final long firstDay;
+    private final int days;
+    private final long[] words;
+    private final long[] activeDays;
+
+    public PresenceBitmap(long firstDay, int days) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.words = new long[days * WORDS_PER_DAY];
+        this.activeDays = new long[(days + 63) / 64];
+    }
+
+    public static long dayOf(long timestamp) {
+        return Math.floorDiv(timestamp, DAY_MS);
+    }
+
+    // Marks every minute the interval touches.
+    public void addInterval(long start, long end) {
+        long base = firstDay * DAY_MS;
+        long fromMinute = Math.max(0, Math.floorDiv(start - base, MINUTE_MS));
+        long toMinute = Math.min((long) days * MINUTES_PER_DAY, -Math.floorDiv(base - end, MINUTE_MS));
+
+        while (fromMinute < toMinute) {
+            int day = (int) (fromMinute / MINUTES_PER_DAY);
+            int from = (int) (fromMinute % MINUTES_PER_DAY);
+            int to = (int) Math.min(MINUTES_PER_DAY, toMinute - (long) day * MINUTES_PER_DAY);
+            setBits(day * WORDS_PER_DAY, from, to);
+            activeDays[day >>> 6] |= 1L << day;
+            fromMinute = (long) (day + 1) * MINUTES_PER_DAY;
+        }
+    }
+
+    private void setBits(int offset, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[offset + firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[offset + firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            words[offset + w] = -1L;
+        }
+        words[offset + lastWord] |= lastMask;
+    }
+
+    public void or(PresenceBitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        for (int i = 0; i < activeDays.length; i++) {
+            activeDays[i] |= other.activeDays[i];
+        }
+    }
+
+    // Both bitmaps must cover the same window.
+    public int overlapMinutes(PresenceBitmap other) {
+        int minutes = 0;
+        for (int i = 0; i < activeDays.length; i++) {
+            long shared = activeDays[i] & other.activeDays[i];
+            while (shared != 0) {
+                int day = (i << 6) + Long.numberOfTrailingZeros(shared);
+                shared &= shared - 1;
+                for (int w = day * WORDS_PER_DAY, end = w + WORDS_PER_DAY; w < end; w++) {
+                    minutes += Long.bitCount(words[w] & other.words[w]);
+                }
+            }
+        }
+        return minutes;
+    }
+
+    public int minutes() {
+        int minutes = 0;
+        for (long word : words) {
+            minutes += Long.bitCount(word);
+        }
+        return minutes;
+    }
+
+    public boolean isEmpty() {
+        for (long mask : activeDays) {
+            if (mask != 0) return false;
+        }
+        return true;
+    }
+}
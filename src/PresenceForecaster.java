@@ -0,0 +1,174 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Weekday x hour presence forecast per player. Closed sessions credit the online fraction of each
+// local hour to one of 168 slots; slots and an exposure counter (observed weeks) decay with the same
+// half-life, so score / exposure is the recent probability of being online in that slot.
+public class PresenceForecaster implements HistoryService.SessionListener {
+    private static final int SLOTS = 7 * 24;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long WEEK_MS = 7 * 24 * HOUR_MS;
+    private static final int SEED_DAYS = 28;
+
+    private final HistoryService historyService;
+    private final ZoneId zone;
+    private final double decayPerMs;
+    private final Map<String, Profile> profiles;
+
+    public PresenceForecaster(HistoryService historyService, double halfLifeWeeks) {
+        this.historyService = historyService;
+        this.zone = ZoneId.systemDefault();
+        this.decayPerMs = Math.log(2) / (Math.max(0.1, halfLifeWeeks) * WEEK_MS);
+        this.profiles = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void onSessionOpened(String playerName, String serverName, long start) {
+        // Presence is credited once the session closes.
+    }
+
+    @Override
+    public void onSessionClosed(PlayerSession session) {
+        Profile profile = profileFor(session.getPlayerName());
+        synchronized (profile) {
+            profile.decayTo(System.currentTimeMillis());
+            profile.add(session.getStartTime(), session.getEndTime());
+        }
+    }
+
+    // Probability of being online at some point in the coming hour, blending the current and next
+    // hour-of-week slots by how much of each the hour covers.
+    public double probabilityNextHour(String playerName) {
+        long now = System.currentTimeMillis();
+        Profile profile = seededProfile(playerName, now);
+        synchronized (profile) {
+            profile.decayTo(now);
+            ZonedDateTime time = Instant.ofEpochMilli(now).atZone(zone);
+            long hourStart = time.truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+            double remaining = (hourStart + HOUR_MS - now) / (double) HOUR_MS;
+            int slot = slotOf(time);
+            return profile.probability(slot) * remaining + profile.probability((slot + 1) % SLOTS) * (1 - remaining);
+        }
+    }
+
+    public boolean isLikelyOnlineSoon(String playerName, double threshold) {
+        return probabilityNextHour(playerName) >= threshold;
+    }
+
+    // Slot probabilities indexed [weekday Monday=0][hour].
+    public double[][] getWeeklyProfile(String playerName) {
+        long now = System.currentTimeMillis();
+        Profile profile = seededProfile(playerName, now);
+        double[][] weekly = new double[7][24];
+        synchronized (profile) {
+            profile.decayTo(now);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                weekly[slot / 24][slot % 24] = profile.probability(slot);
+            }
+        }
+        return weekly;
+    }
+
+    // Seeds every unseen player from one batched history read.
+    public void prefetch(Collection<String> playerNames) {
+        List<String> missing = playerNames.stream().filter(name -> !profiles.containsKey(name)).toList();
+        if (missing.isEmpty()) return;
+
+        Map<String, List<PlayerSession>> sessions = historyService.getSessions(missing, SEED_DAYS);
+        long now = System.currentTimeMillis();
+        for (String playerName : missing) {
+            Profile profile = profileFor(playerName);
+            synchronized (profile) {
+                if (!profile.seeded) {
+                    seed(profile, sessions.getOrDefault(playerName, List.of()), now);
+                }
+            }
+        }
+    }
+
+    private Profile seededProfile(String playerName, long now) {
+        Profile profile = profileFor(playerName);
+        synchronized (profile) {
+            if (!profile.seeded) {
+                seed(profile, historyService.getSessions(List.of(playerName), SEED_DAYS)
+                        .getOrDefault(playerName, List.of()), now);
+            }
+        }
+        return profile;
+    }
+
+    // Sessions that closed after the profile was created were already credited live.
+    private void seed(Profile profile, List<PlayerSession> sessions, long now) {
+        long windowStart = now - SEED_DAYS * 24 * HOUR_MS;
+        long firstSeen = now;
+        for (PlayerSession session : sessions) {
+            if (!session.isOpen() && session.getEndTime() < profile.createdAt) {
+                profile.add(Math.max(session.getStartTime(), windowStart), session.getEndTime());
+                firstSeen = Math.min(firstSeen, session.getStartTime());
+            }
+        }
+
+        // Exposure starts at the first observed session so new players are not diluted by weeks
+        // before they were ever seen.
+        long observedFrom = Math.max(windowStart, Math.min(firstSeen, profile.createdAt));
+        profile.exposure += (Math.exp(-decayPerMs * (profile.updatedAt - profile.createdAt))
+                - Math.exp(-decayPerMs * (profile.updatedAt - observedFrom))) / (decayPerMs * WEEK_MS);
+        profile.seeded = true;
+    }
+
+    private Profile profileFor(String playerName) {
+        return profiles.computeIfAbsent(playerName, name -> new Profile(System.currentTimeMillis()));
+    }
+
+    private int slotOf(ZonedDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    private class Profile {
+        final long createdAt;
+        final double[] scores = new double[SLOTS];
+        double exposure;
+        long updatedAt;
+        boolean seeded;
+
+        Profile(long createdAt) {
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+
+        // Scores are kept relative to updatedAt; moving forward decays them and adds the elapsed
+        // time (in decayed weeks) to the exposure every slot had.
+        void decayTo(long now) {
+            if (now <= updatedAt) return;
+            double factor = Math.exp(-decayPerMs * (now - updatedAt));
+            for (int slot = 0; slot < SLOTS; slot++) {
+                scores[slot] *= factor;
+            }
+            exposure = exposure * factor + (1 - factor) / (decayPerMs * WEEK_MS);
+            updatedAt = now;
+        }
+
+        void add(long start, long end) {
+            long cursor = start;
+            while (cursor < end) {
+                ZonedDateTime time = Instant.ofEpochMilli(cursor).atZone(zone);
+                long hourEnd = Math.min(time.truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant().toEpochMilli(), end);
+                double weight = Math.exp(-decayPerMs * Math.max(0, updatedAt - cursor));
+                scores[slotOf(time)] += weight * (hourEnd - cursor) / (double) HOUR_MS;
+                cursor = hourEnd;
+            }
+        }
+
+        // Less than a week of exposure is treated as a full week, so a single session does not
+        // read as certainty.
+        double probability(int slot) {
+            return Math.min(1.0, scores[slot] / Math.max(1.0, exposure));
+        }
+    }
+}
@@ -1,16 +1,17 @@
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class RealTimeCheckController {
+    private static final long STOP_TIMEOUT_MS = 20_000;
+
     private final MultiServerChecker serverChecker;
-    private final HistoryService historyService;
-    private final DiscordWebhook discord;
     private final ConfigLoader config;
+    private final MonitorPipeline pipeline;
 
-    private Timer cliTimer;
-    private Timer dashboardTimer;
+    private AdaptivePollScheduler cliScheduler;
+    private AdaptivePollScheduler dashboardScheduler;
 
     private final AtomicBoolean cliActive;
     private final AtomicBoolean dashboardActive;
@@ -18,18 +19,22 @@ public class RealTimeCheckController {
     private final AtomicReference<String> currentCliPlayer;
     private final AtomicReference<String> currentDashboardPlayer;
 
+    private String cliServerName;
+    private String dashboardServerName;
+
     private final AtomicReference<PlayerCheckResult> lastCliResult;
     private final AtomicReference<PlayerCheckResult> lastDashboardResult;
 
+    private final TransitionDetector cliDetector;
+    private final TransitionDetector dashboardDetector;
+
     private final int cliIntervalSeconds;
     private final int dashboardIntervalSeconds;
 
-    public RealTimeCheckController(MultiServerChecker serverChecker, HistoryService historyService,
-                                   DiscordWebhook discord, ConfigLoader config) {
+    public RealTimeCheckController(MultiServerChecker serverChecker, ConfigLoader config, MonitorPipeline pipeline) {
         this.serverChecker = serverChecker;
-        this.historyService = historyService;
-        this.discord = discord;
         this.config = config;
+        this.pipeline = pipeline;
 
         this.cliActive = new AtomicBoolean(false);
         this.dashboardActive = new AtomicBoolean(false);
@@ -40,6 +45,11 @@ public class RealTimeCheckController {
         this.lastCliResult = new AtomicReference<>(null);
         this.lastDashboardResult = new AtomicReference<>(null);
 
+        this.cliDetector = new TransitionDetector();
+        this.cliDetector.addSink(pipeline.transitionSink(true));
+        this.dashboardDetector = new TransitionDetector();
+        this.dashboardDetector.addSink(pipeline.transitionSink(false));
+
         this.cliIntervalSeconds = config.getRealTimeCliIntervalSeconds();
         this.dashboardIntervalSeconds = config.getRealTimeDashboardIntervalSeconds();
     }
@@ -62,55 +72,41 @@ public class RealTimeCheckController {
         }
 
         currentCliPlayer.set(playerName);
+        cliServerName = server.getName();
         cliActive.set(true);
+        pipeline.publishObservationStarted(playerName, cliServerName);
 
         System.out.println("========================================");
         System.out.println("  Real-Time Monitoring Started");
         System.out.println("========================================");
         System.out.println("Player: " + playerName);
         System.out.println("Server: " + server.getName());
-        System.out.println("Check interval: " + cliIntervalSeconds + " second(s)");
+        System.out.println("Check interval: " + cliIntervalSeconds + "-" + config.getRealTimeCliMaxIntervalSeconds()
+                + " second(s), adaptive");
         System.out.println("Type 'realtime stop' to end monitoring");
         System.out.println("========================================");
         System.out.println();
 
-        final ServerConfig finalServer = server;
-
-        cliTimer = new Timer("CLI-RealTimeCheck", true);
-        cliTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                performCliCheck(playerName, finalServer);
-            }
-        }, 0, cliIntervalSeconds * 1000L);
+        cliScheduler = new AdaptivePollScheduler("CLI-RealTimeCheck", 1,
+                cliIntervalSeconds * 1000L, config.getRealTimeCliMaxIntervalSeconds() * 1000L,
+                config.getRealTimeBackoffFactor(), config.getRealTimeJitterPercent() / 100.0,
+                polled -> performCliCheck(playerName, polled));
+        cliScheduler.schedule(server);
 
     }
 
-    private void performCliCheck(String playerName, ServerConfig server) {
+    private boolean performCliCheck(String playerName, ServerConfig server) {
         try {
             PlayerCheckResult result = serverChecker.checkPlayerOnServer(playerName, server);
 
-            PlayerCheckResult previousResult = lastCliResult.get();
-
-            String timestamp = new java.text.SimpleDateFormat("HH:mm:ss").format(new java.util.Date());
+            String timestamp = Timestamps.formatClock(System.currentTimeMillis());
             StringBuilder status = new StringBuilder();
             status.append("[").append(timestamp).append("] ");
 
             if (!result.isSuccess()) {
                 status.append("SERVER UNREACHABLE - ").append(result.getErrorMessage());
                 System.out.println(status);
-
-                if (previousResult != null && previousResult.isSuccess()) {
-                    if (discord.isEnabled()) {
-                        discord.sendServerOutageNotification(server.getName(), result.getErrorMessage());
-                    }
-                }
             } else {
-                if (previousResult != null && !previousResult.isSuccess()) {
-                    if (discord.isEnabled()) {
-                        discord.sendServerOnlineNotification(server.getName());
-                    }
-                }
                 status.append(playerName).append(": ");
                 if (result.isOnline()) {
                     status.append("ONLINE");
@@ -126,26 +122,16 @@ public class RealTimeCheckController {
 
                 System.out.println(status);
 
-                if (historyService.isEnabled()) {
-                    historyService.recordPlayerStatus(playerName, server.getName(),
-                            result.isOnline(), result.getOnlineCount());
-                }
-
-                if (previousResult != null && previousResult.isSuccess()) {
-                    if (previousResult.isOnline() != result.isOnline()) {
-                        if (result.isOnline() && discord.isEnabled()) {
-                            discord.sendPlayerOnlineNotification(playerName, server.getName());
-                        } else if (!result.isOnline() && discord.isEnabled()) {
-                            discord.sendPlayerOfflineNotification(playerName, server.getName());
-                        }
-                    }
-                }
+                pipeline.publishPlayerStatus(playerName, server.getName(), result.isOnline(), result.getOnlineCount());
             }
 
             lastCliResult.set(result);
+            return cliDetector.observe(0, playerName, server.getName(), result.isSuccess(), result.isOnline(),
+                    result.getOnlineCount(), result.getErrorMessage());
 
         } catch (Exception e) {
             System.err.println("[ERROR] Real-time check failed: " + e.getMessage());
+            return false;
         }
     }
 
@@ -155,14 +141,18 @@ public class RealTimeCheckController {
             return;
         }
 
-        if (cliTimer != null) {
-            cliTimer.cancel();
-            cliTimer = null;
+        if (cliScheduler != null) {
+            shutdownAndWait(cliScheduler);
+            cliScheduler = null;
         }
 
         cliActive.set(false);
         String player = currentCliPlayer.getAndSet(null);
         lastCliResult.set(null);
+        cliDetector.reset(0);
+        if (player != null) {
+            pipeline.publishObservationEnded(player, cliServerName);
+        }
 
         System.out.println();
         System.out.println("========================================");
@@ -191,50 +181,36 @@ public class RealTimeCheckController {
         }
 
         currentDashboardPlayer.set(playerName);
+        dashboardServerName = server.getName();
         dashboardActive.set(true);
+        pipeline.publishObservationStarted(playerName, dashboardServerName);
 
         System.out.println("Dashboard real-time monitoring started for: " + playerName);
 
-        final ServerConfig finalServer = server;
-
-        dashboardTimer = new Timer("Dashboard-RealTimeCheck", true);
-        dashboardTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                performDashboardCheck(playerName, finalServer);
-            }
-        }, 0, dashboardIntervalSeconds * 1000L);
+        dashboardScheduler = new AdaptivePollScheduler("Dashboard-RealTimeCheck", 1,
+                dashboardIntervalSeconds * 1000L, config.getRealTimeDashboardMaxIntervalSeconds() * 1000L,
+                config.getRealTimeBackoffFactor(), config.getRealTimeJitterPercent() / 100.0,
+                polled -> performDashboardCheck(playerName, polled));
+        dashboardScheduler.schedule(server);
 
         return true;
     }
 
-    private void performDashboardCheck(String playerName, ServerConfig server) {
+    private boolean performDashboardCheck(String playerName, ServerConfig server) {
         try {
             PlayerCheckResult result = serverChecker.checkPlayerOnServer(playerName, server);
 
-            PlayerCheckResult previousResult = lastDashboardResult.get();
-
             if (result.isSuccess()) {
-                if (historyService.isEnabled()) {
-                    historyService.recordPlayerStatus(playerName, server.getName(),
-                            result.isOnline(), result.getOnlineCount());
-                }
-
-                if (previousResult != null && previousResult.isSuccess()) {
-                    if (previousResult.isOnline() != result.isOnline()) {
-                        if (result.isOnline() && discord.isEnabled()) {
-                            discord.sendPlayerOnlineNotification(playerName, server.getName());
-                        } else if (!result.isOnline() && discord.isEnabled()) {
-                            discord.sendPlayerOfflineNotification(playerName, server.getName());
-                        }
-                    }
-                }
+                pipeline.publishPlayerStatus(playerName, server.getName(), result.isOnline(), result.getOnlineCount());
             }
 
             lastDashboardResult.set(result);
+            return dashboardDetector.observe(0, playerName, server.getName(), result.isSuccess(), result.isOnline(),
+                    result.getOnlineCount(), result.getErrorMessage());
 
         } catch (Exception e) {
             System.err.println("Dashboard real-time check failed: " + e.getMessage());
+            return false;
         }
     }
 
@@ -243,20 +219,37 @@ public class RealTimeCheckController {
             return false;
         }
 
-        if (dashboardTimer != null) {
-            dashboardTimer.cancel();
-            dashboardTimer = null;
+        if (dashboardScheduler != null) {
+            shutdownAndWait(dashboardScheduler);
+            dashboardScheduler = null;
         }
 
         dashboardActive.set(false);
         String player = currentDashboardPlayer.getAndSet(null);
         lastDashboardResult.set(null);
+        dashboardDetector.reset(0);
+        if (player != null) {
+            pipeline.publishObservationEnded(player, dashboardServerName);
+        }
 
         System.out.println("Dashboard real-time monitoring stopped" + (player != null ? " for: " + player : ""));
 
         return true;
     }
 
+    // A poll that is still in flight would otherwise feed the detector after its reset and
+    // report a transition for a check that has already stopped.
+    private void shutdownAndWait(AdaptivePollScheduler scheduler) {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_MS)) {
+                System.err.println("Warning: Real-time poll did not finish within " + STOP_TIMEOUT_MS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public boolean isCliActive() {
         return cliActive.get();
     }
@@ -281,6 +274,13 @@ public class RealTimeCheckController {
         return lastDashboardResult.get();
     }
 
+    public synchronized Map<String, Map<String, Long>> getPollIntervals() {
+        Map<String, Map<String, Long>> intervals = new LinkedHashMap<>();
+        intervals.put("cli", cliScheduler != null ? cliScheduler.getCurrentIntervals() : Map.of());
+        intervals.put("dashboard", dashboardScheduler != null ? dashboardScheduler.getCurrentIntervals() : Map.of());
+        return intervals;
+    }
+
     public void shutdown() {
         stopCliRealTimeCheck();
         stopDashboardRealTimeCheck();
@@ -0,0 +1,84 @@
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Debounced up/down state per server, fed by every status fetch whoever asked for it. A server is
+// declared down after downAfterFailures consecutive failed fetches and up after upAfterSuccesses
+// consecutive successes, so one dropped ping neither raises nor clears an outage. The first verdict
+// only sets a baseline; later changes emit one OUTAGE or RECOVERY each.
+public class ServerHealthTracker {
+    public enum State {
+        UNKNOWN,
+        UP,
+        DOWN
+    }
+
+    private final int downAfterFailures;
+    private final int upAfterSuccesses;
+    private final Map<String, Health> servers;
+    private final List<TransitionDetector.TransitionSink> sinks;
+
+    public ServerHealthTracker(int downAfterFailures, int upAfterSuccesses) {
+        this.downAfterFailures = Math.max(1, downAfterFailures);
+        this.upAfterSuccesses = Math.max(1, upAfterSuccesses);
+        this.servers = new ConcurrentHashMap<>();
+        this.sinks = new CopyOnWriteArrayList<>();
+    }
+
+    public void addSink(TransitionDetector.TransitionSink sink) {
+        sinks.add(sink);
+    }
+
+    public void observe(String serverName, boolean reachable, int onlineCount, String errorMessage) {
+        Health health = servers.computeIfAbsent(serverName, k -> new Health());
+        TransitionDetector.TransitionType transition = null;
+
+        synchronized (health) {
+            if (reachable) {
+                health.successes++;
+                health.failures = 0;
+                if (health.state != State.UP && health.successes >= upAfterSuccesses) {
+                    if (health.state == State.DOWN) transition = TransitionDetector.TransitionType.RECOVERY;
+                    health.state = State.UP;
+                }
+            } else {
+                health.failures++;
+                health.successes = 0;
+                if (health.state != State.DOWN && health.failures >= downAfterFailures) {
+                    if (health.state == State.UP) transition = TransitionDetector.TransitionType.OUTAGE;
+                    health.state = State.DOWN;
+                }
+            }
+        }
+
+        if (transition != null) {
+            emit(new TransitionDetector.TransitionEvent(transition, null, serverName, onlineCount,
+                    reachable ? null : errorMessage));
+        }
+    }
+
+    public State getState(String serverName) {
+        Health health = servers.get(serverName);
+        if (health == null) return State.UNKNOWN;
+        synchronized (health) {
+            return health.state;
+        }
+    }
+
+    private void emit(TransitionDetector.TransitionEvent event) {
+        for (TransitionDetector.TransitionSink sink : sinks) {
+            try {
+                sink.onTransition(event);
+            } catch (Exception e) {
+                System.err.println("Warning: Server health sink failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class Health {
+        State state = State.UNKNOWN;
+        int failures;
+        int successes;
+    }
+}
@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 public class ServerStatus {
     private ServerConfig server;
     private boolean online;
@@ -5,6 +8,8 @@ public class ServerStatus {
     private int maxPlayers;
     private String errorMessage;
     private QueryResponse queryResponse;
+    private boolean usingQuery;
+    private List<String> players = new ArrayList<>();
 
     public ServerConfig getServer() {
         return server;
@@ -53,4 +58,29 @@ public class ServerStatus {
     public void setQueryResponse(QueryResponse queryResponse) {
         this.queryResponse = queryResponse;
     }
+
+    public boolean isUsingQuery() {
+        return usingQuery;
+    }
+
+    public void setUsingQuery(boolean usingQuery) {
+        this.usingQuery = usingQuery;
+    }
+
+    public List<String> getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(List<String> players) {
+        this.players = players;
+    }
+
+    public boolean hasPlayer(String playerName) {
+        for (String player : players) {
+            if (player.equalsIgnoreCase(playerName)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
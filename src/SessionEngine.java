@@ -0,0 +1,222 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Running per-player session statistics. Closed sessions enter 30-day, 7-day and 1-day windows
+// ordered by end time and leave them as time passes, so each transition costs amortised O(1)
+// and insights are read without touching history.
+public class SessionEngine implements HistoryService.SessionListener {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int WINDOW_DAYS = 30;
+
+    private final HistoryService historyService;
+    private final ZoneId zone;
+    private final Map<String, PlayerState> players;
+
+    public SessionEngine(HistoryService historyService) {
+        this.historyService = historyService;
+        this.zone = ZoneId.systemDefault();
+        this.players = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void onSessionOpened(String playerName, String serverName, long start) {
+        PlayerState state = stateFor(playerName);
+        synchronized (state) {
+            state.open.put(serverName, start);
+        }
+    }
+
+    @Override
+    public void onSessionClosed(PlayerSession session) {
+        PlayerState state = stateFor(session.getPlayerName());
+        synchronized (state) {
+            state.open.remove(session.getServerName());
+            if (state.seeded) {
+                state.add(session);
+            } else {
+                state.pending.add(session);
+            }
+        }
+    }
+
+    public PlayerAnalytics.PlayerInsights getInsights(String playerName) {
+        PlayerState state = stateFor(playerName);
+        synchronized (state) {
+            if (!state.seeded) {
+                seed(playerName, state);
+            }
+            return state.snapshot(playerName, System.currentTimeMillis());
+        }
+    }
+
+    private PlayerState stateFor(String playerName) {
+        return players.computeIfAbsent(playerName, name -> new PlayerState(System.currentTimeMillis()));
+    }
+
+    // Sessions that closed after the state was created were delivered live; everything older
+    // comes from the store once. Windows need sessions in end order, so both are merged first.
+    private void seed(String playerName, PlayerState state) {
+        List<PlayerSession> closed = new ArrayList<>(state.pending);
+        for (PlayerSession session : historyService.getPlayerSessions(playerName, WINDOW_DAYS)) {
+            if (session.isOpen()) {
+                state.open.putIfAbsent(session.getServerName(), session.getStartTime());
+            } else if (session.getEndTime() < state.createdAt) {
+                closed.add(session);
+            }
+        }
+
+        closed.sort(Comparator.comparingLong(PlayerSession::getEndTime));
+        for (PlayerSession session : closed) {
+            state.add(session);
+        }
+        state.pending.clear();
+        state.seeded = true;
+    }
+
+    private class PlayerState {
+        final long createdAt;
+        final Map<String, Long> open = new HashMap<>();
+        final List<PlayerSession> pending = new ArrayList<>();
+        final Window month = new Window(WINDOW_DAYS * DAY_MS);
+        final Window week = new Window(7 * DAY_MS);
+        final Window day = new Window(DAY_MS);
+        final ArrayDeque<PlayerSession> longest = new ArrayDeque<>();
+        final long[] hourlyMs = new long[24];
+        final long[] weekdayMs = new long[7];
+        // Ring of local days; a slot is reused once its day falls out of the window.
+        final long[] dailyMs = new long[PlayerAnalytics.PlayerInsights.WINDOW_DAYS];
+        final long[] dailyEpochDay = new long[PlayerAnalytics.PlayerInsights.WINDOW_DAYS];
+        boolean seeded;
+
+        PlayerState(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        void add(PlayerSession session) {
+            if (month.add(session)) {
+                addTime(session.getStartTime(), session.getEndTime(), 1);
+            }
+            week.add(session);
+            day.add(session);
+
+            while (!longest.isEmpty() && longest.peekLast().getDuration() <= session.getDuration()) {
+                longest.pollLast();
+            }
+            longest.addLast(session);
+        }
+
+        private void addTime(long start, long end, int sign) {
+            long cursor = start;
+            while (cursor < end) {
+                ZonedDateTime time = Instant.ofEpochMilli(cursor).atZone(zone);
+                long hourEnd = Math.min(time.truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant().toEpochMilli(), end);
+                long ms = hourEnd - cursor;
+                hourlyMs[time.getHour()] += sign * ms;
+                weekdayMs[time.getDayOfWeek().getValue() - 1] += sign * ms;
+
+                if (sign > 0) {
+                    long epochDay = time.toLocalDate().toEpochDay();
+                    int slot = (int) Math.floorMod(epochDay, (long) dailyMs.length);
+                    if (dailyEpochDay[slot] < epochDay) {
+                        dailyEpochDay[slot] = epochDay;
+                        dailyMs[slot] = 0;
+                    }
+                    if (dailyEpochDay[slot] == epochDay) {
+                        dailyMs[slot] += ms;
+                    }
+                }
+                cursor = hourEnd;
+            }
+        }
+
+        PlayerAnalytics.PlayerInsights snapshot(String playerName, long now) {
+            for (PlayerSession expired : month.evict(now)) {
+                addTime(expired.getStartTime(), expired.getEndTime(), -1);
+            }
+            week.evict(now);
+            day.evict(now);
+            while (!longest.isEmpty() && longest.peekFirst().getEndTime() < now - month.lengthMs) {
+                longest.pollFirst();
+            }
+
+            if (month.sessions.isEmpty() && open.isEmpty()) {
+                return null;
+            }
+
+            PlayerAnalytics.PlayerInsights insights = new PlayerAnalytics.PlayerInsights(playerName);
+            insights.setSessionCount(month.sessions.size());
+            insights.setTotalOnlineTime(month.total);
+            insights.setLongestSession(longest.isEmpty() ? 0 : longest.peekFirst().getDuration());
+            insights.setAverageSessionLength(month.sessions.isEmpty() ? 0 : month.total / month.sessions.size());
+            insights.setDailyOnlineTime(day.clippedTotal(now));
+            insights.setWeeklyOnlineTime(week.clippedTotal(now));
+            System.arraycopy(hourlyMs, 0, insights.getHourlyOnlineMs(), 0, hourlyMs.length);
+            System.arraycopy(weekdayMs, 0, insights.getWeekdayOnlineMs(), 0, weekdayMs.length);
+
+            long[] daily = insights.getDailyOnlineMs();
+            long today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate().toEpochDay();
+            for (int i = 0; i < daily.length; i++) {
+                long epochDay = today - (daily.length - 1 - i);
+                int slot = (int) Math.floorMod(epochDay, (long) dailyMs.length);
+                if (dailyEpochDay[slot] == epochDay) {
+                    daily[i] = dailyMs[slot];
+                }
+            }
+
+            if (!open.isEmpty()) {
+                PlayerAnalytics.PlayerInsights openSessions = new PlayerAnalytics.PlayerInsights(playerName);
+                for (long start : open.values()) {
+                    openSessions.addSession(start, now, now, zone);
+                }
+                insights.merge(openSessions);
+            }
+            return insights;
+        }
+    }
+
+    private static class Window {
+        final long lengthMs;
+        final ArrayDeque<PlayerSession> sessions = new ArrayDeque<>();
+        long total;
+
+        Window(long lengthMs) {
+            this.lengthMs = lengthMs;
+        }
+
+        boolean add(PlayerSession session) {
+            if (session.getEndTime() < System.currentTimeMillis() - lengthMs) {
+                return false;
+            }
+            sessions.addLast(session);
+            total += session.getDuration();
+            return true;
+        }
+
+        List<PlayerSession> evict(long now) {
+            List<PlayerSession> expired = new ArrayList<>();
+            while (!sessions.isEmpty() && sessions.peekFirst().getEndTime() < now - lengthMs) {
+                PlayerSession session = sessions.pollFirst();
+                total -= session.getDuration();
+                expired.add(session);
+            }
+            return expired;
+        }
+
+        // Sessions are ordered by end time, so a long session that started before the window can sit
+        // behind shorter ones that started inside it; every session is checked for straddling.
+        long clippedTotal(long now) {
+            long windowStart = now - lengthMs;
+            long clipped = total;
+            for (PlayerSession session : sessions) {
+                if (session.getStartTime() < windowStart) {
+                    clipped -= Math.min(session.getDuration(), windowStart - session.getStartTime());
+                }
+            }
+            return clipped;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Player/server subscriptions under small integer ids. Changes are made under the lock and published
+// as an immutable snapshot; polls read through a View, and ids freed by a removal are only handed out
+// again once no view is open, so a poll never sees an id change owner under it.
+public class SubscriptionTable {
+    private static final int[] NO_SUBSCRIPTIONS = new int[0];
+
+    private record Snapshot(String[] players, Map<String, int[]> byServer) {
+    }
+
+    private String[] players;
+    private int highWater;
+    private int[] freeIds;
+    private int freeCount;
+    private int[] retiredIds;
+    private int retiredCount;
+    private int size;
+
+    private final Map<String, Map<String, Integer>> byPlayer;
+    private final AtomicInteger openViews;
+    private volatile Snapshot current;
+
+    public SubscriptionTable() {
+        this.players = new String[16];
+        this.freeIds = new int[16];
+        this.retiredIds = new int[16];
+        this.byPlayer = new LinkedHashMap<>();
+        this.openViews = new AtomicInteger();
+        this.current = new Snapshot(new String[0], Collections.emptyMap());
+    }
+
+    public synchronized int add(String playerName, String serverName) {
+        Map<String, Integer> playerServers = byPlayer.computeIfAbsent(playerName, k -> new LinkedHashMap<>());
+        if (playerServers.containsKey(serverName)) {
+            return -1;
+        }
+
+        if (retiredCount > 0 && openViews.get() == 0) {
+            while (retiredCount > 0) {
+                release(retiredIds[--retiredCount]);
+            }
+        }
+
+        int id = freeCount > 0 ? freeIds[--freeCount] : highWater++;
+        if (id >= players.length) {
+            players = Arrays.copyOf(players, players.length * 2);
+        }
+
+        players[id] = playerName;
+        playerServers.put(serverName, id);
+        size++;
+
+        Map<String, int[]> index = new HashMap<>(current.byServer());
+        int[] ids = index.getOrDefault(serverName, NO_SUBSCRIPTIONS);
+        int[] updated = Arrays.copyOf(ids, ids.length + 1);
+        updated[ids.length] = id;
+        index.put(serverName, updated);
+        publish(index);
+
+        return id;
+    }
+
+    public synchronized int remove(String playerName, String serverName) {
+        Map<String, Integer> playerServers = byPlayer.get(playerName);
+        if (playerServers == null || !playerServers.containsKey(serverName)) {
+            return -1;
+        }
+
+        int id = playerServers.remove(serverName);
+        if (playerServers.isEmpty()) {
+            byPlayer.remove(playerName);
+        }
+
+        players[id] = null;
+        retire(id);
+        size--;
+
+        Map<String, int[]> index = new HashMap<>(current.byServer());
+        int[] ids = index.get(serverName);
+        int[] updated = new int[ids.length - 1];
+        int j = 0;
+        for (int existing : ids) {
+            if (existing != id) {
+                updated[j++] = existing;
+            }
+        }
+        if (updated.length == 0) {
+            index.remove(serverName);
+        } else {
+            index.put(serverName, updated);
+        }
+        publish(index);
+
+        return id;
+    }
+
+    public synchronized List<Integer> removePlayer(String playerName) {
+        List<Integer> removed = new ArrayList<>();
+        Map<String, Integer> playerServers = byPlayer.get(playerName);
+        if (playerServers == null) {
+            return removed;
+        }
+
+        for (String serverName : new ArrayList<>(playerServers.keySet())) {
+            removed.add(remove(playerName, serverName));
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        for (Map<String, Integer> playerServers : byPlayer.values()) {
+            for (int id : playerServers.values()) {
+                players[id] = null;
+                retire(id);
+            }
+        }
+        size = 0;
+        byPlayer.clear();
+        publish(Collections.emptyMap());
+    }
+
+    private void retire(int id) {
+        if (retiredCount == retiredIds.length) {
+            retiredIds = Arrays.copyOf(retiredIds, retiredIds.length * 2);
+        }
+        retiredIds[retiredCount++] = id;
+    }
+
+    private void release(int id) {
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    private void publish(Map<String, int[]> byServer) {
+        current = new Snapshot(Arrays.copyOf(players, highWater), byServer);
+    }
+
+    // Callers close the view once they are done with the ids it returned.
+    public View view() {
+        openViews.incrementAndGet();
+        return new View(current);
+    }
+
+    public int[] subscribersOf(String serverName) {
+        return current.byServer().getOrDefault(serverName, NO_SUBSCRIPTIONS);
+    }
+
+    public Set<String> activeServers() {
+        return current.byServer().keySet();
+    }
+
+    public synchronized boolean contains(String playerName) {
+        return byPlayer.containsKey(playerName);
+    }
+
+    public synchronized boolean contains(String playerName, String serverName) {
+        Map<String, Integer> playerServers = byPlayer.get(playerName);
+        return playerServers != null && playerServers.containsKey(serverName);
+    }
+
+    public synchronized List<String> playerNames() {
+        return new ArrayList<>(byPlayer.keySet());
+    }
+
+    public synchronized Map<String, List<String>> snapshot() {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : byPlayer.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue().keySet()));
+        }
+        return copy;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public final class View implements AutoCloseable {
+        private final Snapshot snapshot;
+        private boolean closed;
+
+        private View(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public int[] subscribersOf(String serverName) {
+            return snapshot.byServer().getOrDefault(serverName, NO_SUBSCRIPTIONS);
+        }
+
+        public String playerOf(int id) {
+            return id < snapshot.players().length ? snapshot.players()[id] : null;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                openViews.decrementAndGet();
+            }
+        }
+    }
+}
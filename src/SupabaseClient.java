@@ -1,87 +1,263 @@
 import java.io.*;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 public record SupabaseClient(String supabaseUrl, String supabaseKey) {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Supabase-Read-Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final HttpClient HTTP_CLIENT = createHttpClient();
 
+    private static HttpClient createHttpClient() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4, r -> {
+            Thread thread = new Thread(r, "Supabase-Http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
 
-    public void insert(String table, String jsonData) throws IOException {
-        HttpURLConnection conn = getHttpURLConnection(table);
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .executor(executor)
+                .build();
+    }
 
-        try (OutputStream os = conn.getOutputStream()) {
-            byte[] input = jsonData.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-        }
+    public void insertBatch(String table, String jsonArray) throws IOException {
+        join(insertAsync(table, jsonArray, "return=minimal"));
+    }
 
-        int responseCode = conn.getResponseCode();
-        if (responseCode >= 200 && responseCode < 300) {
-            readResponse(conn.getInputStream());
-        } else {
-            String error = readResponse(conn.getErrorStream());
-            throw new IOException("Supabase insert failed: " + responseCode + " - " + error);
-        }
+    private CompletableFuture<String> insertAsync(String table, String jsonData, String prefer) {
+        HttpRequest request = newRequest(table, null)
+                .header("Content-Type", "application/json")
+                .header("Prefer", prefer)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8))
+                .build();
+        return send(request, "insert");
     }
 
-    private HttpURLConnection getHttpURLConnection(String table) throws IOException {
-        URL url = URI.create(supabaseUrl + "/rest/v1/" + table).toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    public String rpc(String function, String jsonArgs) throws IOException {
+        HttpRequest request = newRequest("rpc/" + function, null)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonArgs, StandardCharsets.UTF_8))
+                .build();
+        return join(send(request, "rpc"));
+    }
 
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("apikey", supabaseKey);
-        conn.setRequestProperty("Authorization", "Bearer " + supabaseKey);
-        conn.setRequestProperty("Prefer", "return=representation");
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(5000);
-        conn.setDoOutput(true);
-        return conn;
+    public void delete(String table, String filter) throws IOException {
+        HttpRequest request = newRequest(table, filter)
+                .header("Prefer", "return=minimal")
+                .DELETE()
+                .build();
+        join(send(request, "delete"));
     }
 
     public String select(String table, String filter) throws IOException {
-        HttpURLConnection conn = getHttpURLConnection(table, filter);
+        return join(selectAsync(table, filter));
+    }
 
-        int responseCode = conn.getResponseCode();
-        if (responseCode >= 200 && responseCode < 300) {
-            return readResponse(conn.getInputStream());
-        } else {
-            String error = readResponse(conn.getErrorStream());
-            throw new IOException("Supabase select failed: " + responseCode + " - " + error);
+    public CompletableFuture<String> selectAsync(String table, String filter) {
+        return send(newRequest(table, filter).GET().build(), "select");
+    }
+
+    // Streams the response body; a read that makes no progress for READ_TIMEOUT closes the stream
+    // and fails, so a stalled body cannot hang the caller.
+    public InputStream openSelect(String table, String filter) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = HTTP_CLIENT.send(newRequest(table, filter).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Supabase select interrupted", e);
+        }
+
+        InputStream body = new DeadlineInputStream(response.body(), READ_TIMEOUT.toMillis());
+        if (isGzip(response)) {
+            try {
+                body = new GZIPInputStream(body);
+            } catch (IOException e) {
+                // A truncated or corrupt gzip header; closing also stops the watchdog and the connection.
+                try {
+                    body.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
         }
+
+        int responseCode = response.statusCode();
+        if (responseCode < 200 || responseCode >= 300) {
+            try (InputStream error = body) {
+                throw new StatusException("select", responseCode,
+                        new String(error.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return body;
     }
 
-    private HttpURLConnection getHttpURLConnection(String table, String filter) throws IOException {
+    private HttpRequest.Builder newRequest(String table, String filter) {
         String urlStr = supabaseUrl + "/rest/v1/" + table;
         if (filter != null && !filter.isEmpty()) {
             urlStr += "?" + filter;
         }
 
-        URL url = URI.create(urlStr).toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        return HttpRequest.newBuilder(URI.create(urlStr))
+                .timeout(REQUEST_TIMEOUT)
+                .header("apikey", supabaseKey)
+                .header("Authorization", "Bearer " + supabaseKey)
+                .header("Accept-Encoding", "gzip");
+    }
+
+    // The body is buffered by the client itself, so nothing here blocks the client's executor,
+    // and the whole exchange is bounded by RESPONSE_TIMEOUT.
+    private CompletableFuture<String> send(HttpRequest request, String operation) {
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .orTimeout(RESPONSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(response -> {
+                    String body = decode(response);
+                    int responseCode = response.statusCode();
+                    if (responseCode < 200 || responseCode >= 300) {
+                        throw new CompletionException(new StatusException(operation, responseCode, body));
+                    }
+                    return body;
+                });
+    }
 
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("apikey", supabaseKey);
-        conn.setRequestProperty("Authorization", "Bearer " + supabaseKey);
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(5000);
-        return conn;
+    private static String join(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new IOException("Supabase request timed out after " + RESPONSE_TIMEOUT.toSeconds() + "s", cause);
+            }
+            throw new IOException(cause != null ? cause.getMessage() : e.getMessage(), cause);
+        }
     }
 
-    private String readResponse(InputStream is) throws IOException {
-        if (is == null) return "";
+    private static boolean isGzip(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+    }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line);
+    private static String decode(HttpResponse<byte[]> response) {
+        if (!isGzip(response)) {
+            return new String(response.body(), StandardCharsets.UTF_8);
+        }
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class DeadlineInputStream extends FilterInputStream {
+        private final long timeoutMs;
+        private final ScheduledFuture<?> watchdog;
+        private volatile long lastProgress;
+        private volatile boolean timedOut;
+
+        DeadlineInputStream(InputStream in, long timeoutMs) {
+            super(in);
+            this.timeoutMs = timeoutMs;
+            this.lastProgress = System.currentTimeMillis();
+            long period = Math.max(100, timeoutMs / 4);
+            this.watchdog = WATCHDOG.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        private void check() {
+            if (System.currentTimeMillis() - lastProgress > timeoutMs) {
+                timedOut = true;
+                watchdog.cancel(false);
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            return guard(() -> super.read());
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return guard(() -> super.read(buffer, offset, length));
+        }
+
+        private int guard(IoRead read) throws IOException {
+            if (timedOut) throw timeout();
+            try {
+                int result = read.run();
+                lastProgress = System.currentTimeMillis();
+                return result;
+            } catch (IOException e) {
+                throw timedOut ? timeout() : e;
             }
-            return response.toString();
+        }
+
+        private IOException timeout() {
+            return new IOException("Supabase read timed out after " + timeoutMs + " ms without data");
+        }
+
+        @Override
+        public void close() throws IOException {
+            watchdog.cancel(false);
+            super.close();
         }
     }
 
-    private String escapeJson(String s) {
-        return Utils.escapeJson(s);
+    private interface IoRead {
+        int run() throws IOException;
+    }
+
+    // A non-2xx response. 4xx other than 429 means the request itself was rejected and will be
+    // rejected again; everything else is worth retrying.
+    public static class StatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+
+        public StatusException(String operation, int statusCode, String body) {
+            super("Supabase " + operation + " failed: " + statusCode + " - " + body);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public boolean isPermanent() {
+            return statusCode >= 400 && statusCode < 500 && statusCode != 429;
+        }
     }
 }
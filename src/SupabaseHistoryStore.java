@@ -0,0 +1,477 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+
+public class SupabaseHistoryStore implements HistoryStore {
+    private static final int PAGE_SIZE = 1000;
+    private static final int IN_LIST_SIZE = 100;
+
+    private final SupabaseClient supabase;
+    private final HistoryWriter writer;
+    private final HistoryWriter sessionWriter;
+    private final HistoryWriter timelineWriter;
+    private boolean sessionsEnabled;
+    private boolean timelineEnabled;
+    private volatile boolean aggregateRpcAvailable = true;
+    private volatile WriteListener writeListener;
+
+    public SupabaseHistoryStore(SupabaseClient supabase, ConfigLoader config) {
+        this.supabase = supabase;
+        initializeDatabase();
+        this.writer = createWriter(config, "player_history");
+        this.writer.setFlushListener(this::onStatusesFlushed);
+        this.sessionWriter = sessionsEnabled ? createWriter(config, "player_sessions") : null;
+        if (sessionWriter != null) {
+            sessionWriter.setFlushListener(this::onSessionsFlushed);
+        }
+        this.timelineWriter = timelineEnabled ? createWriter(config, "timeline_events") : null;
+    }
+
+    public static SupabaseHistoryStore fromEnvironment(ConfigLoader config) {
+        String supabaseUrl = System.getenv("VITE_SUPABASE_URL");
+        String supabaseKey = System.getenv("VITE_SUPABASE_ANON_KEY");
+
+        if (supabaseUrl == null || supabaseKey == null) {
+            Map<String, String> env = Utils.loadEnvFile(".env");
+            supabaseUrl = env.get("VITE_SUPABASE_URL");
+            supabaseKey = env.get("VITE_SUPABASE_ANON_KEY");
+        }
+
+        if (supabaseUrl == null || supabaseUrl.isEmpty() || supabaseKey == null || supabaseKey.isEmpty()) {
+            return null;
+        }
+        return new SupabaseHistoryStore(new SupabaseClient(supabaseUrl, supabaseKey), config);
+    }
+
+    private HistoryWriter createWriter(ConfigLoader config, String table) {
+        HistorySpool spool = null;
+        if (config.isHistorySpoolEnabled()) {
+            try {
+                spool = new HistorySpool(new File(config.getHistorySpoolDir(), table),
+                        config.getHistorySpoolSegmentKb() * 1024, config.getHistorySpoolMaxMb() * 1024L * 1024);
+            } catch (Exception e) {
+                System.err.println("Warning: Could not open history spool for " + table + ": " + e.getMessage());
+            }
+        }
+        return new HistoryWriter(supabase, table, config.getHistoryBatchSize(), config.getHistoryFlushIntervalMs(),
+                config.getHistoryMaxPending(), spool);
+    }
+
+    private void initializeDatabase() {
+        try {
+            supabase.select("player_history", "limit=1");
+        } catch (Exception e) {
+            throw new RuntimeException("""
+                    Cannot connect to Supabase or table 'player_history' does not exist. \
+                    Please create the table manually in Supabase dashboard:
+                    CREATE TABLE player_history (
+                      id SERIAL PRIMARY KEY,
+                      player_name TEXT NOT NULL,
+                      server_name TEXT NOT NULL,
+                      status TEXT NOT NULL,
+                      timestamp TIMESTAMPTZ DEFAULT NOW(),
+                      online_count INTEGER,
+                      query_data TEXT
+                    );""", e);
+        }
+
+        try {
+            supabase.select("player_sessions", "limit=1");
+            sessionsEnabled = true;
+        } catch (Exception e) {
+            sessionsEnabled = false;
+            System.err.println("""
+                    Warning: table 'player_sessions' not found, session intervals will not be stored. \
+                    Create it in the Supabase dashboard to enable them:
+                    CREATE TABLE player_sessions (
+                      id SERIAL PRIMARY KEY,
+                      player_name TEXT NOT NULL,
+                      server_name TEXT NOT NULL,
+                      started_at TIMESTAMPTZ NOT NULL,
+                      ended_at TIMESTAMPTZ NOT NULL,
+                      duration_seconds INTEGER
+                    );""");
+        }
+
+        try {
+            supabase.select("timeline_events", "limit=1");
+            timelineEnabled = true;
+        } catch (Exception e) {
+            timelineEnabled = false;
+            System.err.println("""
+                    Warning: table 'timeline_events' not found, timeline events will not be stored. \
+                    Create it in the Supabase dashboard to enable them:
+                    CREATE TABLE timeline_events (
+                      id BIGSERIAL PRIMARY KEY,
+                      occurred_at TIMESTAMPTZ NOT NULL,
+                      event_type TEXT NOT NULL CHECK (event_type IN ('PLAYER_JOIN', 'PLAYER_LEAVE',
+                        'SERVER_UP', 'SERVER_DOWN', 'CHECK_START', 'CHECK_COMPLETE')),
+                      player_name TEXT,
+                      server_name TEXT,
+                      message TEXT
+                    );
+                    CREATE INDEX timeline_events_occurred_at ON timeline_events (occurred_at);""");
+        }
+    }
+
+    @Override
+    public void setWriteListener(WriteListener listener) {
+        this.writeListener = listener;
+    }
+
+    private void onStatusesFlushed(List<String> rows) throws IOException {
+        WriteListener listener = writeListener;
+        if (listener == null) return;
+        Set<List<String>> written = new LinkedHashSet<>();
+        for (String row : rows) {
+            Map<String, String> fields = JsonRowReader.parseObject(row);
+            written.add(List.of(fields.get("player_name"), fields.get("server_name")));
+        }
+        for (List<String> names : written) {
+            listener.onStatusStored(names.get(0), names.get(1));
+        }
+    }
+
+    private void onSessionsFlushed(List<String> rows) throws IOException {
+        WriteListener listener = writeListener;
+        if (listener == null) return;
+        Set<String> written = new LinkedHashSet<>();
+        for (String row : rows) {
+            written.add(JsonRowReader.parseObject(row).get("player_name"));
+        }
+        for (String playerName : written) {
+            listener.onSessionStored(playerName);
+        }
+    }
+
+    @Override
+    public void appendStatus(String playerName, String serverName, boolean online, int onlineCount, long timestamp) {
+        writer.enqueue(String.format(
+            "{\"player_name\":\"%s\",\"server_name\":\"%s\",\"status\":\"%s\",\"online_count\":%d,\"timestamp\":\"%s\"}",
+            Utils.escapeJson(playerName),
+            Utils.escapeJson(serverName),
+            online ? "online" : "offline",
+            onlineCount,
+            Timestamps.formatUtc(timestamp)
+        ));
+    }
+
+    @Override
+    public void appendSession(PlayerSession session) {
+        if (sessionWriter == null) {
+            return;
+        }
+
+        sessionWriter.enqueue(String.format(
+            "{\"player_name\":\"%s\",\"server_name\":\"%s\",\"started_at\":\"%s\",\"ended_at\":\"%s\",\"duration_seconds\":%d}",
+            Utils.escapeJson(session.getPlayerName()),
+            Utils.escapeJson(session.getServerName()),
+            Instant.ofEpochMilli(session.getStartTime()),
+            Instant.ofEpochMilli(session.getEndTime()),
+            session.getDuration() / 1000
+        ));
+    }
+
+    @Override
+    public void appendTimelineEvents(List<LiveTimeline.TimelineEvent> events) {
+        if (timelineWriter == null) {
+            return;
+        }
+
+        for (LiveTimeline.TimelineEvent event : events) {
+            timelineWriter.enqueue(String.format(
+                "{\"occurred_at\":\"%s\",\"event_type\":\"%s\",\"player_name\":%s,\"server_name\":%s,\"message\":%s}",
+                Instant.ofEpochMilli(event.getTimestamp()),
+                event.getType(),
+                jsonStringOrNull(event.getPlayerName()),
+                jsonStringOrNull(event.getServerName()),
+                jsonStringOrNull(event.getMessage())
+            ));
+        }
+    }
+
+    private static String jsonStringOrNull(String value) {
+        return value != null ? "\"" + Utils.escapeJson(value) + "\"" : "null";
+    }
+
+    @Override
+    public boolean scanPlayerHistory(String playerName, long from, long to, boolean ascending, EntryVisitor visitor) {
+        return scanHistory("player_name", playerName, from, to, ascending, visitor);
+    }
+
+    @Override
+    public boolean scanServerHistory(String serverName, long from, long to, boolean ascending, EntryVisitor visitor) {
+        return scanHistory("server_name", serverName, from, to, ascending, visitor);
+    }
+
+    private boolean scanHistory(String column, String value, long from, long to, boolean ascending,
+                             EntryVisitor visitor) {
+        String filter = String.format(
+            "%s=eq.%s&timestamp=gte.%s&timestamp=lte.%s&select=id,player_name,server_name,status,timestamp,online_count",
+            column,
+            URLEncoder.encode(value, StandardCharsets.UTF_8),
+            URLEncoder.encode(Instant.ofEpochMilli(from).toString(), StandardCharsets.UTF_8),
+            URLEncoder.encode(Instant.ofEpochMilli(to).toString(), StandardCharsets.UTF_8)
+        );
+
+        try {
+            scanPages("player_history", filter, "timestamp", ascending, row -> {
+                HistoryEntry entry = new HistoryEntry();
+                entry.setPlayerName(row.get("player_name"));
+                entry.setServerName(row.get("server_name"));
+                entry.setStatus(row.get("status"));
+                entry.setTimestampMillis(Timestamps.parse(row.get("timestamp")));
+
+                String onlineCount = row.get("online_count");
+                if (onlineCount != null) {
+                    try {
+                        entry.setOnlineCount(Integer.parseInt(onlineCount));
+                    } catch (NumberFormatException e) {
+                        entry.setOnlineCount(0);
+                    }
+                }
+                return visitor.visit(entry);
+            });
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to fetch history: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean scanTimelineEvents(long from, long to, boolean ascending, TimelineVisitor visitor) {
+        if (!timelineEnabled) {
+            return true;
+        }
+
+        String filter = String.format(
+            "occurred_at=gte.%s&occurred_at=lte.%s&select=id,occurred_at,event_type,player_name,server_name,message",
+            URLEncoder.encode(Instant.ofEpochMilli(from).toString(), StandardCharsets.UTF_8),
+            URLEncoder.encode(Instant.ofEpochMilli(to).toString(), StandardCharsets.UTF_8)
+        );
+
+        try {
+            scanPages("timeline_events", filter, "occurred_at", ascending, row -> {
+                LiveTimeline.TimelineEvent.EventType type;
+                try {
+                    type = LiveTimeline.TimelineEvent.EventType.valueOf(row.get("event_type"));
+                } catch (RuntimeException e) {
+                    return true;
+                }
+                return visitor.visit(new LiveTimeline.TimelineEvent(Timestamps.parse(row.get("occurred_at")), type,
+                        row.get("player_name"), row.get("server_name"), row.get("message")));
+            });
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to fetch timeline events: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<PlayerSession> querySessions(String playerName, long from, long to) {
+        List<PlayerSession> sessions = new ArrayList<>();
+        scanSessionRows("player_name=eq." + URLEncoder.encode(playerName, StandardCharsets.UTF_8), from, to,
+                sessions::add);
+        return sessions;
+    }
+
+    @Override
+    public Map<String, List<PlayerSession>> querySessions(Collection<String> playerNames, long from, long to) {
+        Map<String, List<PlayerSession>> sessions = new HashMap<>();
+        List<String> names = new ArrayList<>(playerNames);
+        for (String playerName : names) {
+            sessions.put(playerName, new ArrayList<>());
+        }
+
+        for (int i = 0; i < names.size(); i += IN_LIST_SIZE) {
+            StringJoiner list = new StringJoiner(",", "(", ")");
+            for (String playerName : names.subList(i, Math.min(names.size(), i + IN_LIST_SIZE))) {
+                list.add("\"" + playerName.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+            }
+            scanSessionRows("player_name=in." + URLEncoder.encode(list.toString(), StandardCharsets.UTF_8), from, to,
+                    session -> sessions.computeIfAbsent(session.getPlayerName(), k -> new ArrayList<>()).add(session));
+        }
+        return sessions;
+    }
+
+    @Override
+    public void scanSessions(String serverName, long from, long to, SessionVisitor visitor) {
+        String filter = serverName != null
+                ? "server_name=eq." + URLEncoder.encode(serverName, StandardCharsets.UTF_8)
+                : "server_name=not.is.null";
+        scanSessionRows(filter, from, to, visitor);
+    }
+
+    private void scanSessionRows(String selector, long from, long to, SessionVisitor visitor) {
+        if (!sessionsEnabled) {
+            return;
+        }
+
+        String filter = String.format(
+            "%s&ended_at=gte.%s&started_at=lte.%s&select=id,player_name,server_name,started_at,ended_at",
+            selector,
+            URLEncoder.encode(Instant.ofEpochMilli(from).toString(), StandardCharsets.UTF_8),
+            URLEncoder.encode(Instant.ofEpochMilli(to).toString(), StandardCharsets.UTF_8)
+        );
+
+        try {
+            scanPages("player_sessions", filter, "started_at", true, row -> {
+                long start = Timestamps.parse(row.get("started_at"));
+                long end = Timestamps.parse(row.get("ended_at"));
+                if (start == 0 || end == 0) {
+                    return true;
+                }
+                return visitor.visit(new PlayerSession(row.get("player_name"), row.get("server_name"), start, end, false));
+            });
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to fetch sessions: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public HistoryAggregate aggregatePlayer(String playerName, long from, long to, ZoneId zone) {
+        if (!aggregateRpcAvailable || !sessionsEnabled) {
+            return HistoryStore.super.aggregatePlayer(playerName, from, to, zone);
+        }
+
+        try {
+            String args = String.format(
+                "{\"p_player\":\"%s\",\"p_from\":\"%s\",\"p_to\":\"%s\",\"p_tz\":\"%s\"}",
+                Utils.escapeJson(playerName),
+                Instant.ofEpochMilli(from),
+                Instant.ofEpochMilli(to),
+                Utils.escapeJson(zone.getId())
+            );
+            return parseAggregate(supabase.rpc("player_history_aggregate", args), from, to, zone);
+        } catch (Exception e) {
+            if (e instanceof SupabaseClient.StatusException status
+                    && (status.getStatusCode() == 404 || String.valueOf(e.getMessage()).contains("PGRST202"))) {
+                aggregateRpcAvailable = false;
+                System.err.println("Warning: Function 'player_history_aggregate' not found, aggregating on the client. "
+                        + "Create it from FEATURES.md to push aggregation down to Supabase.");
+            } else {
+                System.err.println("Warning: Aggregation query failed: " + e.getMessage());
+            }
+            return HistoryStore.super.aggregatePlayer(playerName, from, to, zone);
+        }
+    }
+
+    private HistoryAggregate parseAggregate(String json, long from, long to, ZoneId zone) throws IOException {
+        HistoryAggregate aggregate = new HistoryAggregate(from, to, zone);
+        Map<String, String> result = JsonRowReader.parseObject(json);
+
+        String daily = result.get("daily");
+        if (daily != null) {
+            for (Map.Entry<String, String> day : JsonRowReader.parseObject(daily).entrySet()) {
+                aggregate.addDailyTime(day.getKey(), parseLong(day.getValue()));
+            }
+        }
+
+        String hourly = result.get("hourly");
+        if (hourly != null) {
+            for (Map.Entry<String, String> hour : JsonRowReader.parseObject(hourly).entrySet()) {
+                aggregate.addHourlyTime(Integer.parseInt(hour.getKey()), parseLong(hour.getValue()));
+            }
+        }
+
+        String sessions = result.get("sessions");
+        if (sessions != null) {
+            Map<String, String> totals = JsonRowReader.parseObject(sessions);
+            aggregate.addSessionTotals(
+                (int) parseLong(totals.get("count")),
+                parseLong(totals.get("total_ms")),
+                parseLong(totals.get("longest_ms")),
+                parseLong(totals.get("day_ms")),
+                parseLong(totals.get("week_ms"))
+            );
+        }
+        return aggregate;
+    }
+
+    private static long parseLong(String value) {
+        return value != null ? (long) Double.parseDouble(value) : 0;
+    }
+
+    // Keyset pagination on (orderColumn, id): each page continues strictly after the last row of the
+    // previous one, so rows are never skipped or repeated and no page needs an OFFSET scan.
+    private void scanPages(String table, String filter, String orderColumn, boolean ascending, RowVisitor visitor)
+            throws IOException {
+        String direction = ascending ? "asc" : "desc";
+        String comparison = ascending ? "gt" : "lt";
+        String lastValue = null;
+        String lastId = null;
+
+        while (true) {
+            StringBuilder page = new StringBuilder(filter)
+                    .append("&order=").append(orderColumn).append('.').append(direction)
+                    .append(",id.").append(direction)
+                    .append("&limit=").append(PAGE_SIZE);
+            if (lastValue != null) {
+                String quoted = "\"" + lastValue + "\"";
+                page.append("&or=").append(URLEncoder.encode(String.format("(%1$s.%2$s.%3$s,and(%1$s.eq.%3$s,id.%2$s.%4$s))",
+                        orderColumn, comparison, quoted, lastId), StandardCharsets.UTF_8));
+            }
+
+            int rows = 0;
+            try (JsonRowReader reader = new JsonRowReader(supabase.openSelect(table, page.toString()))) {
+                Map<String, String> row;
+                while ((row = reader.nextRow()) != null) {
+                    rows++;
+                    lastValue = row.get(orderColumn);
+                    lastId = row.get("id");
+                    if (!visitor.visit(row)) {
+                        return;
+                    }
+                }
+            }
+
+            if (rows < PAGE_SIZE || lastValue == null || lastId == null) {
+                return;
+            }
+        }
+    }
+
+    private interface RowVisitor {
+        boolean visit(Map<String, String> row);
+    }
+
+    @Override
+    public void deleteStatusBefore(long cutoff) {
+        try {
+            supabase.delete("player_history",
+                    "timestamp=lt." + URLEncoder.encode(Instant.ofEpochMilli(cutoff).toString(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to delete old history rows: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<HistoryWriter> getWriters() {
+        List<HistoryWriter> writers = new ArrayList<>();
+        writers.add(writer);
+        if (sessionWriter != null) {
+            writers.add(sessionWriter);
+        }
+        if (timelineWriter != null) {
+            writers.add(timelineWriter);
+        }
+        return writers;
+    }
+
+    @Override
+    public void shutdown() {
+        writer.shutdown();
+        if (sessionWriter != null) {
+            sessionWriter.shutdown();
+        }
+        if (timelineWriter != null) {
+            timelineWriter.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+// Timestamp codec for the edges of the application. Inside, times are epoch milliseconds.
+public final class Timestamps {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final DateTimeFormatter UTC_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter LOCAL_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter CLOCK_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private Timestamps() {
+    }
+
+    public static String formatUtc(long millis) {
+        return UTC_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    public static String formatLocal(long millis) {
+        return LOCAL_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    public static String formatClock(long millis) {
+        return CLOCK_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    public static String formatIso(long millis) {
+        return Instant.ofEpochMilli(millis).truncatedTo(ChronoUnit.SECONDS).toString();
+    }
+
+    // Parses "yyyy-MM-dd HH:mm:ss" (UTC) and ISO-8601 timestamps with an optional fraction and
+    // offset, as returned by PostgREST. Returns 0 if the text is not a timestamp.
+    public static long parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int length = text.length();
+        if (length < 19 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != ' ' && text.charAt(10) != 'T')
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return parseFallback(text);
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = digits(text, 17, 19);
+        if ((year | month | day | hour | minute | second) < 0 || hour > 23 || minute > 59 || second > 59) {
+            return parseFallback(text);
+        }
+
+        long millis;
+        try {
+            millis = LocalDate.of(year, month, day).toEpochDay() * DAY_MS
+                    + hour * 3_600_000L + minute * 60_000L + second * 1000L;
+        } catch (DateTimeException e) {
+            return 0;
+        }
+
+        int i = 19;
+        if (i < length && text.charAt(i) == '.') {
+            int scale = 100;
+            for (i++; i < length && Character.isDigit(text.charAt(i)); i++) {
+                millis += (text.charAt(i) - '0') * scale;
+                scale /= 10;
+            }
+        }
+
+        if (i == length || (i == length - 1 && text.charAt(i) == 'Z')) {
+            return millis;
+        }
+
+        char sign = text.charAt(i);
+        if ((sign != '+' && sign != '-') || i + 3 > length) {
+            return parseFallback(text);
+        }
+        int offsetHours = digits(text, i + 1, i + 3);
+        int offsetMinutes = 0;
+        int rest = i + 3;
+        if (rest < length && text.charAt(rest) == ':') rest++;
+        if (rest + 2 == length) {
+            offsetMinutes = digits(text, rest, rest + 2);
+        } else if (rest != length) {
+            return parseFallback(text);
+        }
+        if ((offsetHours | offsetMinutes) < 0) {
+            return parseFallback(text);
+        }
+
+        long offsetMs = offsetHours * 3_600_000L + offsetMinutes * 60_000L;
+        return sign == '+' ? millis - offsetMs : millis + offsetMs;
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long parseFallback(String text) {
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            try {
+                return LocalDateTime.parse(text.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (Exception ignored) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class TransitionDetector {
+    private static final int SEGMENT_BITS = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final int KNOWN = 1;
+    private static final int REACHABLE = 2;
+    private static final int ONLINE = 4;
+    private static final int PRESENCE_KNOWN = 8;
+
+    private volatile AtomicIntegerArray[] segments;
+    private final List<TransitionSink> sinks;
+
+    public TransitionDetector() {
+        this.segments = new AtomicIntegerArray[] { new AtomicIntegerArray(SEGMENT_SIZE) };
+        this.sinks = new CopyOnWriteArrayList<>();
+    }
+
+    public void addSink(TransitionSink sink) {
+        sinks.add(sink);
+    }
+
+    public void reset(int id) {
+        segmentFor(id).set(id & SEGMENT_MASK, 0);
+    }
+
+    public boolean observe(int id, String playerName, String serverName, boolean reachable, boolean online,
+                           int onlineCount, String errorMessage) {
+        AtomicIntegerArray segment = segmentFor(id);
+        int slot = id & SEGMENT_MASK;
+
+        int previous;
+        int next;
+        do {
+            previous = segment.get(slot);
+            if (reachable) {
+                next = KNOWN | REACHABLE | PRESENCE_KNOWN | (online ? ONLINE : 0);
+            } else {
+                next = KNOWN | (previous & (ONLINE | PRESENCE_KNOWN));
+            }
+            if (previous == next) {
+                return false;
+            }
+        } while (!segment.compareAndSet(slot, previous, next));
+
+        if ((previous & KNOWN) == 0) {
+            return false;
+        }
+
+        // Reachability changes still count as a change for polling, but outages are reported once
+        // per server by ServerHealthTracker rather than once per watched player.
+        if (!reachable) {
+            return true;
+        }
+
+        boolean wasOnline = (previous & ONLINE) != 0;
+        if ((previous & PRESENCE_KNOWN) != 0 && wasOnline != online) {
+            emit(online ? TransitionType.JOIN : TransitionType.LEAVE, playerName, serverName, onlineCount, null);
+        }
+        return true;
+    }
+
+    private void emit(TransitionType type, String playerName, String serverName, int onlineCount,
+                      String errorMessage) {
+        TransitionEvent event = new TransitionEvent(type, playerName, serverName, onlineCount, errorMessage);
+        for (TransitionSink sink : sinks) {
+            try {
+                sink.onTransition(event);
+            } catch (Exception e) {
+                System.err.println("Warning: Transition sink failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private AtomicIntegerArray segmentFor(int id) {
+        int index = id >>> SEGMENT_BITS;
+        AtomicIntegerArray[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+        return grow(index);
+    }
+
+    private synchronized AtomicIntegerArray grow(int index) {
+        AtomicIntegerArray[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+
+        AtomicIntegerArray[] grown = Arrays.copyOf(current, index + 1);
+        for (int i = current.length; i < grown.length; i++) {
+            grown[i] = new AtomicIntegerArray(SEGMENT_SIZE);
+        }
+        segments = grown;
+        return grown[index];
+    }
+
+    public enum TransitionType {
+        JOIN,
+        LEAVE,
+        OUTAGE,
+        RECOVERY;
+
+        public boolean isPresenceChange() {
+            return this == JOIN || this == LEAVE;
+        }
+    }
+
+    public interface TransitionSink {
+        void onTransition(TransitionEvent event);
+    }
+
+    public static class TransitionEvent {
+        private final long timestamp;
+        private final TransitionType type;
+        private final String playerName;
+        private final String serverName;
+        private final int onlineCount;
+        private final String errorMessage;
+
+        public TransitionEvent(TransitionType type, String playerName, String serverName, int onlineCount,
+                               String errorMessage) {
+            this.timestamp = System.currentTimeMillis();
+            this.type = type;
+            this.playerName = playerName;
+            this.serverName = serverName;
+            this.onlineCount = onlineCount;
+            this.errorMessage = errorMessage;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public TransitionType getType() {
+            return type;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public String getServerName() {
+            return serverName;
+        }
+
+        public int getOnlineCount() {
+            return onlineCount;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+public class TransitionSinks {
+
+    public static TransitionDetector.TransitionSink discord(DiscordWebhook discord, boolean includeOutages) {
+        return event -> {
+            if (!discord.isEnabled()) return;
+
+            switch (event.getType()) {
+                case JOIN -> discord.sendPlayerOnlineNotification(event.getPlayerName(), event.getServerName());
+                case LEAVE -> discord.sendPlayerOfflineNotification(event.getPlayerName(), event.getServerName());
+                case OUTAGE -> {
+                    if (includeOutages) {
+                        discord.sendServerOutageNotification(event.getServerName(), event.getErrorMessage());
+                    }
+                }
+                case RECOVERY -> {
+                    if (includeOutages) {
+                        discord.sendServerOnlineNotification(event.getServerName());
+                    }
+                }
+            }
+        };
+    }
+
+    public static TransitionDetector.TransitionSink timeline(LiveTimeline timeline) {
+        return event -> {
+            switch (event.getType()) {
+                case JOIN -> timeline.recordPlayerJoin(event.getPlayerName(), event.getServerName());
+                case LEAVE -> timeline.recordPlayerLeave(event.getPlayerName(), event.getServerName());
+                case OUTAGE -> timeline.recordServerDown(event.getServerName());
+                case RECOVERY -> timeline.recordServerUp(event.getServerName());
+            }
+        };
+    }
+}
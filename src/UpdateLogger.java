@@ -1,10 +1,7 @@
 import java.io.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 public class UpdateLogger {
     private static final String LOG_FILE = "update.log";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     private PrintWriter logWriter;
 
     public UpdateLogger() {
@@ -17,7 +14,7 @@ public class UpdateLogger {
     }
 
     public void logInfo(String message) {
-        String timestamp = DATE_FORMAT.format(new Date());
+        String timestamp = Timestamps.formatLocal(System.currentTimeMillis());
         String logMessage = "[" + timestamp + "] [INFO] " + message;
 
         System.out.println(logMessage);
@@ -29,7 +26,7 @@ public class UpdateLogger {
     }
 
     public void logError(String message) {
-        String timestamp = DATE_FORMAT.format(new Date());
+        String timestamp = Timestamps.formatLocal(System.currentTimeMillis());
         String logMessage = "[" + timestamp + "] [ERROR] " + message;
 
         System.err.println(logMessage);
@@ -41,7 +38,7 @@ public class UpdateLogger {
     }
 
     public void logWarning(String message) {
-        String timestamp = DATE_FORMAT.format(new Date());
+        String timestamp = Timestamps.formatLocal(System.currentTimeMillis());
         String logMessage = "[" + timestamp + "] [WARNING] " + message;
 
         System.out.println(logMessage);
@@ -97,6 +97,15 @@ public class Utils {
         return json.toString();
     }
 
+    public static StringBuilder appendJsonArray(StringBuilder json, int[] values) {
+        json.append("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) json.append(",");
+            json.append(values[i]);
+        }
+        return json.append("]");
+    }
+
     public static String mapToJson(Map<String, String> map) {
         StringBuilder json = new StringBuilder("{");
         boolean first = true;
@@ -0,0 +1,65 @@
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class AdaptivePollSchedulerCheck {
+    public static void main(String[] args) throws InterruptedException {
+        AtomicInteger polls = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler("Check", 2, 100, 800, 2.0, 0.0, server -> {
+            if (server.getName().equals("Broken")) {
+                failures.incrementAndGet();
+                throw new IllegalStateException("query failed");
+            }
+            polls.incrementAndGet();
+            return false;
+        });
+        ServerConfig survival = new ServerConfig("Survival", "127.0.0.1", 25565);
+
+        Expect.that(scheduler.schedule(survival), "server scheduled");
+        Expect.that(!scheduler.schedule(survival), "server scheduled once");
+        Expect.that(waitFor(() -> interval(scheduler, "Survival") == 800L, 5000), "idle server backs off to the maximum");
+
+        int before = polls.get();
+        scheduler.markActive("Survival");
+        Expect.that(waitFor(() -> polls.get() > before, 400), "wake polls before the backed-off delay");
+        Expect.that(interval(scheduler, "Survival") <= 200L, "wake restarts at the base interval");
+
+        scheduler.setFocus(server -> true);
+        Thread.sleep(500);
+        Expect.equal(100L, interval(scheduler, "Survival"), "focused server held at the base interval");
+        scheduler.setFocus(null);
+
+        scheduler.schedule(new ServerConfig("Broken", "127.0.0.1", 25566));
+        Expect.that(waitFor(() -> failures.get() >= 3, 3000), "failing polls keep being scheduled");
+
+        Expect.that(scheduler.unschedule("Survival"), "server unscheduled");
+        Expect.that(!scheduler.unschedule("Survival"), "server unscheduled once");
+        Map<String, Long> intervals = scheduler.getCurrentIntervals();
+        Expect.that(!intervals.containsKey("Survival") && intervals.containsKey("Broken"), "only scheduled servers listed");
+        int stopped = polls.get();
+        Thread.sleep(300);
+        Expect.equal(stopped, polls.get(), "no polls after unschedule");
+
+        scheduler.shutdown();
+        Expect.that(scheduler.awaitTermination(2000), "scheduler terminates");
+        Expect.equal(0, scheduler.getCurrentIntervals().size(), "nothing scheduled after shutdown");
+
+        Expect.done("AdaptivePollSchedulerCheck");
+    }
+
+    private static Long interval(AdaptivePollScheduler scheduler, String serverName) {
+        return scheduler.getCurrentIntervals().get(serverName);
+    }
+
+    private static boolean waitFor(Supplier<Boolean> condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.get()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class EventBusCheck {
+    public static void main(String[] args) throws Exception {
+        EventBus<Integer> bus = new EventBus<>("Check", 16, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> delivered = new ArrayList<>();
+        bus.addConsumer("slow", EventBus.OverflowPolicy.DROP_OLDEST, 4, batch -> {
+            release.await(5, TimeUnit.SECONDS);
+            synchronized (delivered) {
+                delivered.addAll(batch);
+            }
+        });
+
+        int published = 200;
+        for (int i = 0; i < published; i++) {
+            bus.publish(i);
+        }
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bus.getLag("slow") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        bus.shutdown();
+
+        synchronized (delivered) {
+            Expect.equal(16, bus.getCapacity(), "capacity");
+            Expect.that(bus.getDroppedCount("slow") > 0, "a stalled consumer loses the oldest events");
+            Expect.equal((long) published, delivered.size() + bus.getDroppedCount("slow"), "delivered plus dropped");
+            boolean ordered = true;
+            for (int i = 1; i < delivered.size(); i++) {
+                ordered &= delivered.get(i) > delivered.get(i - 1);
+            }
+            Expect.that(ordered, "events arrive in publish order without repeats");
+            Expect.equal(published - 1, delivered.get(delivered.size() - 1), "newest event delivered");
+        }
+
+        checkProducers(EventBus.OverflowPolicy.DROP_OLDEST, 4, 50_000);
+        checkProducers(EventBus.OverflowPolicy.BLOCK_WITH_TIMEOUT, 3, 5_000);
+
+        Expect.done("EventBusCheck");
+    }
+
+    // Producers lap a 16-slot ring many times over. Every delivered event must be one that was
+    // published, at most once and in each producer's order; under BLOCK_WITH_TIMEOUT nothing is lost.
+    private static void checkProducers(EventBus.OverflowPolicy policy, int producers, int perProducer)
+            throws Exception {
+        EventBus<Long> bus = new EventBus<>("Check", 16, 10_000);
+        List<Long> delivered = new ArrayList<>();
+        bus.addConsumer("consumer", policy, 8, batch -> {
+            delivered.addAll(batch);
+            if (delivered.size() % 512 < batch.size()) {
+                Thread.sleep(1);
+            }
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * 1_000_000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(base + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (bus.getLag("consumer") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        bus.shutdown();
+
+        String label = policy + ": ";
+        long[] last = new long[producers];
+        java.util.Arrays.fill(last, -1);
+        Set<Long> seen = new HashSet<>();
+        boolean ordered = true;
+        for (long event : delivered) {
+            int producer = (int) (event / 1_000_000);
+            long n = event % 1_000_000;
+            ordered &= seen.add(event) && n > last[producer];
+            last[producer] = n;
+        }
+        long dropped = bus.getDroppedCount("consumer");
+        Expect.that(ordered, label + "no repeated or reordered events");
+        Expect.equal((long) producers * perProducer, delivered.size() + dropped, label + "delivered plus dropped");
+        if (policy == EventBus.OverflowPolicy.BLOCK_WITH_TIMEOUT) {
+            Expect.equal(0L, dropped, label + "nothing dropped while publishers wait");
+        }
+    }
+}
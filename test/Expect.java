@@ -0,0 +1,30 @@
+import java.util.Objects;
+
+// Minimal assertions for the runnable checks; each check class calls done() at the end of main.
+final class Expect {
+    private static int passed;
+    private static int failed;
+
+    private Expect() {
+    }
+
+    static void equal(Object expected, Object actual, String what) {
+        that(Objects.equals(expected, actual), what + ": expected " + expected + " but was " + actual);
+    }
+
+    static void that(boolean condition, String what) {
+        if (condition) {
+            passed++;
+        } else {
+            failed++;
+            System.err.println("FAIL " + what);
+        }
+    }
+
+    static void done(String name) {
+        System.out.println(name + ": " + passed + " passed, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
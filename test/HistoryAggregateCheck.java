@@ -0,0 +1,70 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class HistoryAggregateCheck {
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    public static void main(String[] args) throws IOException {
+        long midnight = Instant.parse("2024-03-02T00:00:00Z").toEpochMilli();
+        long from = midnight - 2 * 24 * HOUR_MS;
+        long to = midnight + 24 * HOUR_MS;
+
+        HistoryAggregate aggregate = new HistoryAggregate(from, to, ZoneOffset.UTC);
+        aggregate.addSession(midnight - 30 * 60_000L, midnight + 90 * 60_000L);
+        Expect.equal(30 * 60_000L, aggregate.getDailyOnlineTime().get("2024-03-01"), "time before midnight");
+        Expect.equal(90 * 60_000L, aggregate.getDailyOnlineTime().get("2024-03-02"), "time after midnight");
+        Expect.equal(30 * 60_000L, aggregate.getHourlyOnlineTime()[23], "hour 23");
+        Expect.equal(HOUR_MS, aggregate.getHourlyOnlineTime()[0], "hour 0");
+        Expect.equal(30 * 60_000L, aggregate.getHourlyOnlineTime()[1], "hour 1");
+
+        aggregate.addSession(from - HOUR_MS, from + HOUR_MS);
+        Expect.equal(HOUR_MS, aggregate.getDailyOnlineTime().get("2024-02-29"), "clipped at the window start");
+        Expect.equal(2, aggregate.getSessionCount(), "session count");
+        Expect.equal(4 * HOUR_MS, aggregate.getTotalOnlineTime(), "total keeps whole sessions");
+        Expect.equal(2 * HOUR_MS, aggregate.getLongestSession(), "longest session");
+
+        aggregate.addSession(midnight + 10_000, midnight + 40_000);
+        Expect.equal(2 * HOUR_MS + 30_000, aggregate.getHourlyOnlineTime()[0], "sub-minute session counted");
+
+        File directory = Files.createTempDirectory("aggregate-check").toFile();
+        try {
+            LocalHistoryStore store = new LocalHistoryStore(directory, 4);
+            List<PlayerSession> sessions = List.of(
+                    new PlayerSession("Steve", "Survival", from - HOUR_MS, from + HOUR_MS, false),
+                    new PlayerSession("Steve", "Survival", midnight - 30 * 60_000L, midnight + 90 * 60_000L, false),
+                    new PlayerSession("Steve", "Creative", midnight + 5 * HOUR_MS, midnight + 6 * HOUR_MS, false),
+                    new PlayerSession("Alex", "Survival", midnight, midnight + HOUR_MS, false));
+            for (PlayerSession session : sessions) {
+                store.appendSession(session);
+            }
+
+            ZoneId zone = ZoneId.of("Europe/Berlin");
+            HistoryAggregate local = store.aggregatePlayer("Steve", from, to, zone);
+            HistoryAggregate reference = new HistoryAggregate(from, to, zone);
+            for (PlayerSession session : store.querySessions("Steve", from, to)) {
+                reference.addSession(session.getStartTime(), session.getEndTime());
+            }
+            Expect.equal(3, local.getSessionCount(), "local session count");
+            Expect.equal(reference.getDailyOnlineTime(), local.getDailyOnlineTime(), "local daily matches reference");
+            Expect.that(Arrays.equals(reference.getHourlyOnlineTime(), local.getHourlyOnlineTime()),
+                    "local hourly matches reference");
+            Expect.equal(reference.getLastDayOnlineTime(), local.getLastDayOnlineTime(), "local last day");
+            Expect.equal(0, store.aggregatePlayer("Nobody", from, to, zone).getSessionCount(), "unknown player");
+            store.shutdown();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("HistoryAggregateCheck");
+    }
+}
@@ -0,0 +1,146 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HistoryCacheCheck {
+    public static void main(String[] args) throws Exception {
+        checkLookups();
+        checkWriteDuringLoad();
+        checkFlushInvalidation();
+        Expect.done("HistoryCacheCheck");
+    }
+
+    private static void checkLookups() throws InterruptedException {
+        HistoryCache cache = new HistoryCache(2, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        Expect.equal("a", cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> load(loads, "a"), v -> true), "first read loads");
+        Expect.equal("a", cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> load(loads, "b"), v -> true), "second read hits");
+        Expect.equal(1, loads.get(), "loaded once");
+        Expect.equal(1L, cache.getHits(), "hit counted");
+        Expect.equal(1L, cache.getMisses(), "miss counted");
+
+        cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 30, () -> load(loads, "c"), v -> true);
+        Expect.equal(2, loads.get(), "day range is part of the key");
+
+        cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> load(loads, "x"), v -> true);
+        cache.get(HistoryCache.Kind.SERVER_HISTORY, "Survival", 7, () -> load(loads, "d"), v -> true);
+        Expect.equal(2, cache.size(), "bounded to the entry limit");
+        Expect.equal("e", cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 30, () -> load(loads, "e"), v -> true),
+                "least recently used entry evicted");
+
+        cache.get(HistoryCache.Kind.AGGREGATE, "Alex", 7, () -> load(loads, "partial"), v -> false);
+        Expect.equal("f", cache.get(HistoryCache.Kind.AGGREGATE, "Alex", 7, () -> load(loads, "f"), v -> true),
+                "uncacheable value not kept");
+
+        cache.clear();
+        cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> load(loads, "g"), v -> true);
+        cache.get(HistoryCache.Kind.SERVER_HISTORY, "Survival", 7, () -> load(loads, "h"), v -> true);
+        cache.onSessionStored("Steve");
+        Expect.equal(2, cache.size(), "session leaves history lists");
+        cache.onStatusStored("Steve", "Creative");
+        Expect.equal(1, cache.size(), "status drops the player's list only");
+        cache.onStatusStored("Alex", "Survival");
+        Expect.equal(0, cache.size(), "status drops the server's list");
+
+        cache.get(HistoryCache.Kind.AGGREGATE, "Steve", 7, () -> load(loads, "i"), v -> true);
+        cache.onSessionStored("Steve");
+        Expect.equal(0, cache.size(), "session drops the player's aggregate");
+
+        HistoryCache shortLived = new HistoryCache(4, 20);
+        shortLived.get(HistoryCache.Kind.AGGREGATE, "Steve", 7, () -> "old", v -> true);
+        Thread.sleep(40);
+        Expect.equal("new", shortLived.get(HistoryCache.Kind.AGGREGATE, "Steve", 7, () -> "new", v -> true),
+                "expired entry reloaded");
+    }
+
+    private static void checkWriteDuringLoad() {
+        HistoryCache cache = new HistoryCache(4, 60_000);
+        cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> {
+            cache.onStatusStored("Alex", "Creative");
+            return "raced";
+        }, v -> true);
+        Expect.equal("fresh", cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> "fresh", v -> true),
+                "value loaded across a write not cached");
+    }
+
+    // The cached list must survive until the writer has actually sent the row, and go right after.
+    private static void checkFlushInvalidation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inserts = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/v1/", exchange -> {
+            int status = 200;
+            if ("POST".equals(exchange.getRequestMethod())) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inserts.incrementAndGet();
+                status = 201;
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        File directory = Files.createTempDirectory("cache-check").toFile();
+        try {
+            File configFile = new File(directory, "config.properties");
+            try (Writer writer = new FileWriter(configFile)) {
+                writer.write("history.spoolEnabled=false\n");
+                writer.write("history.flushIntervalMs=20\n");
+            }
+            SupabaseHistoryStore store = new SupabaseHistoryStore(
+                    new SupabaseClient("http://127.0.0.1:" + server.getAddress().getPort(), "key"),
+                    new ConfigLoader(configFile.getPath()));
+            HistoryCache cache = new HistoryCache(8, 60_000);
+            store.setWriteListener(cache);
+
+            cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Steve", 7, () -> "steve", v -> true);
+            cache.get(HistoryCache.Kind.SERVER_HISTORY, "Survival", 7, () -> "survival", v -> true);
+            cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Alex", 7, () -> "alex", v -> true);
+
+            store.appendStatus("Steve", "Survival", true, 3, System.currentTimeMillis());
+            Thread.sleep(200);
+            Expect.equal(3, cache.size(), "queued row leaves the cache alone");
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.size() > 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Expect.equal(1, inserts.get(), "row sent");
+            Expect.equal(1, cache.size(), "flushed row drops the player's and server's lists");
+            Expect.equal("alex", cache.get(HistoryCache.Kind.PLAYER_HISTORY, "Alex", 7, () -> "reloaded", v -> true),
+                    "other players stay cached");
+
+            store.shutdown();
+        } finally {
+            server.stop(0);
+            try (java.util.stream.Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static String load(AtomicInteger loads, String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
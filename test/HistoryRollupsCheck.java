@@ -0,0 +1,97 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+public class HistoryRollupsCheck {
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("rollups-check").toFile();
+        try {
+            long day0 = Instant.parse("2024-03-01T00:00:00Z").toEpochMilli();
+            long firstDay = day0 / DAY_MS;
+
+            // 23:30 to 01:15 the next day crosses an hour and a day edge.
+            HistoryRollups rollups = new HistoryRollups(directory);
+            rollups.addSession(session("Steve", "Survival", day0 + 23 * HOUR_MS + 30 * MINUTE_MS, day0 + DAY_MS + HOUR_MS + 15 * MINUTE_MS));
+            rollups.addSession(session("Alex", "Survival", day0 + 2 * HOUR_MS, day0 + 2 * HOUR_MS + 20 * MINUTE_MS));
+            rollups.addSession(session("Steve", "Creative", day0 + 5 * HOUR_MS, day0 + 5 * HOUR_MS));
+
+            TreeMap<Long, long[]> steve = rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay, firstDay + 1);
+            Expect.equal(2, steve.size(), "session split across days");
+            Expect.equal(30 * MINUTE_MS, steve.get(firstDay)[23], "last hour of the first day");
+            Expect.equal(HOUR_MS, steve.get(firstDay + 1)[0], "first hour of the next day");
+            Expect.equal(15 * MINUTE_MS, steve.get(firstDay + 1)[1], "partial hour of the next day");
+            Expect.equal(0L, steve.get(firstDay)[5], "empty session ignored");
+            Expect.equal(1, rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay + 1, firstDay + 1).size(),
+                    "day range is inclusive");
+
+            steve.get(firstDay)[23] = 0;
+            Expect.equal(30 * MINUTE_MS, rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay, firstDay)
+                    .get(firstDay)[23], "cells are returned as copies");
+
+            TreeMap<Long, long[]> survival = rollups.getCells(HistoryRollups.Scope.SERVER, "Survival", firstDay, firstDay + 1);
+            Map<String, Long> daily = HistoryRollups.dailyTotals(survival);
+            Expect.equal(50 * MINUTE_MS, daily.get("2024-03-01"), "server total for the first day");
+            Expect.equal(75 * MINUTE_MS, daily.get("2024-03-02"), "server total for the next day");
+            Expect.that(rollups.getCells(HistoryRollups.Scope.SERVER, "Creative", firstDay, firstDay).isEmpty(),
+                    "no cells for an empty session");
+
+            long[] shifted = HistoryRollups.hourOfDayTotals(survival, ZoneOffset.ofHours(2));
+            Expect.equal(20 * MINUTE_MS, shifted[4], "UTC 02:00 is 04:00 at +02:00");
+            Expect.equal(30 * MINUTE_MS, shifted[1], "UTC 23:00 is 01:00 at +02:00");
+            Expect.equal(HOUR_MS, shifted[2], "UTC 00:00 is 02:00 at +02:00");
+
+            // Not closed: the delta log alone has to bring these back.
+            rollups.addSession(session("Steve", "Survival", day0 + 3 * DAY_MS, day0 + 3 * DAY_MS + 10 * MINUTE_MS));
+            rollups = new HistoryRollups(directory);
+            Expect.equal(10 * MINUTE_MS, rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay + 3, firstDay + 3)
+                    .get(firstDay + 3)[0], "logged session replayed after an unclean stop");
+            Expect.equal(30 * MINUTE_MS, rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay, firstDay)
+                    .get(firstDay)[23], "snapshot reloaded");
+
+            rollups.addSession(session("Alex", "Survival", day0 + 3 * DAY_MS, day0 + 3 * DAY_MS + 5 * MINUTE_MS));
+            File[] logs = directory.listFiles((dir, name) -> name.endsWith(".log"));
+            Expect.equal(1, logs.length, "one live delta log");
+            Files.write(logs[0].toPath(), new byte[]{0, 5, 'S'}, StandardOpenOption.APPEND);
+            rollups = new HistoryRollups(directory);
+            Expect.equal(5 * MINUTE_MS, rollups.getCells(HistoryRollups.Scope.PLAYER, "Alex", firstDay + 3, firstDay + 3)
+                    .get(firstDay + 3)[0], "records before a torn tail replayed");
+
+            rollups.compact(day0 + 2 * DAY_MS);
+            TreeMap<Long, long[]> compacted = rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay, firstDay + 3);
+            Expect.equal(1, compacted.get(firstDay).length, "old day compacted to one cell");
+            Expect.equal(75 * MINUTE_MS, compacted.get(firstDay + 1)[0], "compacted day keeps its total");
+            Expect.equal(24, compacted.get(firstDay + 3).length, "recent day stays hourly");
+            Expect.equal(0L, HistoryRollups.hourOfDayTotals(compacted, ZoneOffset.UTC)[23],
+                    "compacted days left out of hour-of-day totals");
+
+            rollups.addSession(session("Steve", "Survival", day0 + 10 * HOUR_MS, day0 + 11 * HOUR_MS));
+            rollups.close();
+            rollups = new HistoryRollups(directory);
+            long[] first = rollups.getCells(HistoryRollups.Scope.PLAYER, "Steve", firstDay, firstDay).get(firstDay);
+            Expect.equal(1, first.length, "compaction survives a restart");
+            Expect.equal(90 * MINUTE_MS, first[0], "late session added to the daily cell");
+            rollups.close();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("HistoryRollupsCheck");
+    }
+
+    private static PlayerSession session(String player, String server, long start, long end) {
+        return new PlayerSession(player, server, start, end, false);
+    }
+}
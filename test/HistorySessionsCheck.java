@@ -0,0 +1,86 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class HistorySessionsCheck {
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("sessions-check").toFile();
+        try {
+            File configFile = new File(directory, "config.properties");
+            try (Writer writer = new FileWriter(configFile)) {
+                writer.write("history.enabled=true\n");
+                writer.write("history.backend=local\n");
+                writer.write("history.localDir=" + new File(directory, "data").getPath().replace("\\", "/") + "\n");
+                writer.write("history.rollupDir=" + new File(directory, "rollups").getPath().replace("\\", "/") + "\n");
+                writer.write("history.staleSessionMinutes=5\n");
+            }
+            HistoryService history = new HistoryService(new ConfigLoader(configFile.getPath()));
+            List<PlayerSession> closed = new ArrayList<>();
+            history.addSessionListener(new HistoryService.SessionListener() {
+                public void onSessionOpened(String playerName, String serverName, long start) {
+                }
+
+                public void onSessionClosed(PlayerSession session) {
+                    closed.add(session);
+                }
+            });
+
+            long now = System.currentTimeMillis();
+            history.beginObservation("Steve", "Survival");
+            history.recordPlayerStatus("Steve", "Survival", true, 3, now - 60_000);
+            history.recordPlayerStatus("Steve", "Survival", true, 3, now - 30_000);
+            List<PlayerSession> open = history.getOpenSessions("Steve");
+            Expect.equal(1, open.size(), "session open while observed");
+            Expect.that(open.get(0).isOpen(), "observed session is open");
+            Expect.equal(now - 60_000, open.get(0).getStartTime(), "open session start");
+
+            history.endObservation("Steve", "Survival");
+            Expect.equal(0, history.getOpenSessions("Steve").size(), "no open session after unwatch");
+            Expect.equal(1, closed.size(), "session closed on unwatch");
+            Expect.equal(now - 30_000, closed.get(0).getEndTime(), "closed at the last observation");
+
+            history.beginObservation("Alex", "Survival");
+            history.beginObservation("Alex", "Survival");
+            history.recordPlayerStatus("Alex", "Survival", true, 3, now - 20_000);
+            history.endObservation("Alex", "Survival");
+            Expect.equal(1, history.getOpenSessions("Alex").size(), "still open while another monitor watches");
+            history.endObservation("Alex", "Survival");
+            Expect.equal(0, history.getOpenSessions("Alex").size(), "closed once the last monitor stops");
+            Expect.equal(2, closed.size(), "second session closed");
+
+            history.recordPlayerStatus("Herobrine", "Survival", true, 3, now - 10 * 60_000);
+            history.recordPlayerStatus("Herobrine", "Survival", true, 3, now - 8 * 60_000);
+            PlayerSession stale = history.getOpenSessions("Herobrine").get(0);
+            Expect.equal(now - 8 * 60_000, stale.getEndTime(), "stale session not extended to now");
+            Expect.that(!stale.isOpen(), "stale session not reported open");
+
+            history.expireStaleSessions(now);
+            Expect.equal(0, history.getOpenSessions("Herobrine").size(), "stale session expired");
+            Expect.equal(3, closed.size(), "stale session closed");
+            Expect.equal(now - 8 * 60_000, closed.get(2).getEndTime(), "stale session ends at last observation");
+
+            history.recordPlayerStatus("Herobrine", "Survival", true, 3, now - 60_000);
+            history.expireStaleSessions(now);
+            Expect.equal(1, history.getOpenSessions("Herobrine").size(), "fresh session survives the sweep");
+
+            List<PlayerSession> stored = history.getStore().querySessions("Steve", now - 3_600_000, now);
+            Expect.equal(1, stored.size(), "closed session stored");
+            Expect.equal(now - 60_000, stored.get(0).getStartTime(), "stored start");
+            Expect.equal(now - 30_000, stored.get(0).getEndTime(), "stored end");
+
+            history.shutdown();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("HistorySessionsCheck");
+    }
+}
@@ -0,0 +1,131 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class HistorySpoolCheck {
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    // Every record below is "r" plus three digits: an 8-byte header and a 4-byte payload.
+    private static final int RECORD_BYTES = 12;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("spool-check").toFile();
+        try {
+            replaysAfterRestart(new File(directory, "replay"));
+            resumesFromCheckpoint(new File(directory, "checkpoint"));
+            dropsTornTail(new File(directory, "torn"));
+            evictsOldestSegmentWhenFull(new File(directory, "full"));
+            quarantinesRejectedBatch(new File(directory, "quarantine"));
+        } finally {
+            delete(directory);
+        }
+        Expect.done("HistorySpoolCheck");
+    }
+
+    private static void replaysAfterRestart(File directory) throws IOException {
+        HistorySpool spool = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        append(spool, 0, 100);
+        spool.flush();
+
+        HistorySpool reopened = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        Expect.equal(100L, reopened.getPendingCount(), "pending after restart");
+        expectRecords(reopened.peek(1000).getRecords(), 0, 100, "replayed records");
+    }
+
+    private static void resumesFromCheckpoint(File directory) throws IOException {
+        HistorySpool spool = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        append(spool, 0, 100);
+        spool.commit(spool.peek(40));
+        spool.flush();
+
+        HistorySpool reopened = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        Expect.equal(60L, reopened.getPendingCount(), "pending after a committed batch");
+        expectRecords(reopened.peek(1000).getRecords(), 40, 60, "records after the checkpoint");
+
+        reopened.commit(reopened.peek(1000));
+        Expect.equal(0L, reopened.getPendingCount(), "pending after draining");
+        HistorySpool drained = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        Expect.equal(0L, drained.getPendingCount(), "pending after restarting a drained spool");
+        Expect.that(drained.peek(10).isEmpty(), "drained spool is empty");
+    }
+
+    // A crash can leave the last record half written; recovery stops before it and the next append
+    // overwrites it.
+    private static void dropsTornTail(File directory) throws IOException {
+        HistorySpool spool = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        append(spool, 0, 10);
+        spool.flush();
+
+        try (RandomAccessFile segment = new RandomAccessFile(new File(directory, "0000000000.seg"), "rw")) {
+            long payload = 9L * RECORD_BYTES + 8;
+            segment.seek(payload);
+            int value = segment.read();
+            segment.seek(payload);
+            segment.write(value ^ 0xFF);
+        }
+
+        HistorySpool reopened = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        Expect.equal(9L, reopened.getPendingCount(), "pending without the torn record");
+        append(reopened, 100, 1);
+        List<String> records = reopened.peek(1000).getRecords();
+        Expect.equal(10, records.size(), "records after appending past the torn tail");
+        Expect.equal("r100", records.get(records.size() - 1), "new record replaces the torn one");
+    }
+
+    private static void evictsOldestSegmentWhenFull(File directory) throws IOException {
+        HistorySpool spool = new HistorySpool(directory, SEGMENT_BYTES, 2L * SEGMENT_BYTES);
+        String payload = "x".repeat(1000);
+        int appended = 300;
+        for (int i = 0; i < appended; i++) {
+            spool.append(payload);
+        }
+        HistorySpool.Batch stale = new HistorySpool(directory, SEGMENT_BYTES, 2L * SEGMENT_BYTES).peek(10);
+
+        Expect.that(spool.getDroppedCount() > 0, "oldest rows dropped once the spool is full");
+        Expect.equal((long) appended, spool.getPendingCount() + spool.getDroppedCount(), "pending plus dropped");
+        Expect.equal(spool.getPendingCount(), (long) spool.peek(appended).getRecords().size(), "readable rows");
+
+        for (int i = 0; i < appended; i++) {
+            spool.append(payload);
+        }
+        long pending = spool.getPendingCount();
+        spool.commit(stale);
+        Expect.equal(pending, spool.getPendingCount(), "batch from an evicted segment is ignored");
+    }
+
+    private static void quarantinesRejectedBatch(File directory) throws IOException {
+        HistorySpool spool = new HistorySpool(directory, SEGMENT_BYTES, 0);
+        append(spool, 0, 5);
+        spool.quarantine(spool.peek(2), "rejected");
+
+        Expect.equal(2L, spool.getQuarantinedCount(), "quarantined rows");
+        Expect.equal(3L, spool.getPendingCount(), "pending after quarantine");
+        Expect.equal(List.of("r000", "r001"), Files.readAllLines(new File(directory, "quarantine.jsonl").toPath()),
+                "quarantine file");
+        expectRecords(spool.peek(10).getRecords(), 2, 3, "rows behind the rejected batch");
+    }
+
+    private static void append(HistorySpool spool, int first, int count) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            spool.append(String.format("r%03d", i));
+        }
+    }
+
+    private static void expectRecords(List<String> records, int first, int count, String what) {
+        List<String> expected = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            expected.add(String.format("r%03d", i));
+        }
+        Expect.equal(expected, records, what);
+    }
+
+    private static void delete(File directory) throws IOException {
+        try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
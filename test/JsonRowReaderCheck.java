@@ -0,0 +1,78 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class JsonRowReaderCheck {
+    public static void main(String[] args) throws IOException {
+        try (JsonRowReader reader = new JsonRowReader(new StringReader(" [ ] "))) {
+            Expect.equal(null, reader.nextRow(), "empty array");
+            Expect.equal(null, reader.nextRow(), "still finished");
+        }
+
+        String json = "[\n  {\"id\": 7, \"online\": true, \"count\": -1.5e3, \"server\": null},\n"
+                + "  {},\n"
+                + "  {\"name\":\"Zo\\u00eb \\\"Z\\\" \\\\ \\/ \\n\\t\",\"emoji\":\"🎮\"}\n]";
+        try (JsonRowReader reader = new JsonRowReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            Map<String, String> row = reader.nextRow();
+            Expect.equal("7", row.get("id"), "number as text");
+            Expect.equal("true", row.get("online"), "boolean as text");
+            Expect.equal("-1.5e3", row.get("count"), "exponent kept as written");
+            Expect.that(row.containsKey("server") && row.get("server") == null, "JSON null as null");
+            Expect.equal("[id, online, count, server]", row.keySet().toString(), "keys in document order");
+            Expect.equal(0, reader.nextRow().size(), "empty object");
+            row = reader.nextRow();
+            Expect.equal("Zoë \"Z\" \\ / \n\t", row.get("name"), "escapes decoded");
+            Expect.equal("🎮", row.get("emoji"), "multi-byte UTF-8 across the stream");
+            Expect.equal(null, reader.nextRow(), "end of rows");
+        }
+
+        Map<String, String> nested = JsonRowReader.parseObject(
+                "{\"a\":{\"b\":[1,{\"c\":\"x}]\\\"y\\nz\"}]},\"d\":[],\"e\":\"after\"}");
+        Expect.equal("{\"b\":[1,{\"c\":\"x}]\\\"y\\nz\"}]}", nested.get("a"), "nested object as valid raw JSON");
+        Expect.equal("[]", nested.get("d"), "empty array as raw JSON");
+        Expect.equal("after", nested.get("e"), "value after a nested one");
+        String inner = JsonRowReader.parseObject("{\"o\":{\"c\":\"x\\ty\\n\"}}").get("o");
+        Expect.equal("x\ty\n", JsonRowReader.parseObject(inner).get("c"), "raw nested JSON parses again");
+        Expect.equal(0, JsonRowReader.parseObject("{}").size(), "parse empty object");
+
+        StringBuilder many = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0) many.append(',');
+            many.append("{\"id\":").append(i).append(",\"player_name\":\"p").append(i).append("\"}");
+        }
+        many.append(']');
+        int rows = 0;
+        boolean ordered = true;
+        try (JsonRowReader reader = new JsonRowReader(new StringReader(many.toString()))) {
+            Map<String, String> row;
+            while ((row = reader.nextRow()) != null) {
+                ordered &= Integer.toString(rows).equals(row.get("id")) && ("p" + rows).equals(row.get("player_name"));
+                rows++;
+            }
+        }
+        Expect.equal(10_000, rows, "rows streamed past the read buffer");
+        Expect.that(ordered, "rows streamed in order");
+
+        expectError("{\"a\":1}", "missing array");
+        expectError("[{\"a\":1} {\"b\":2}]", "missing comma between rows");
+        expectError("[{\"a\":1 \"b\":2}]", "missing comma between fields");
+        expectError("[{\"a\":\"open", "unterminated string");
+        expectError("[{\"a\":{\"b\":1}", "unterminated row");
+        expectError("[{a:1}]", "unquoted key");
+
+        Expect.done("JsonRowReaderCheck");
+    }
+
+    private static void expectError(String json, String what) {
+        try (JsonRowReader reader = new JsonRowReader(new StringReader(json))) {
+            while (reader.nextRow() != null) {
+                // Drain until the reader fails.
+            }
+            Expect.that(false, what + " rejected");
+        } catch (IOException e) {
+            Expect.that(e.getMessage().contains("JSON response"), what + " rejected");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.List;
+
+public class LiveTimelineCheck {
+    public static void main(String[] args) {
+        Expect.equal(16, new LiveTimeline(null, 16, 1, 1000).getCapacity(), "capacity kept at a power of two");
+        Expect.equal(32, new LiveTimeline(null, 17, 1, 1000).getCapacity(), "capacity rounded up");
+
+        LiveTimeline timeline = new LiveTimeline(null, 16, 1, 1000);
+        Expect.equal(-1L, timeline.getLastSequence(), "empty last sequence");
+        Expect.that(timeline.getRecentEvents(10).isEmpty(), "empty recent");
+        Expect.that(timeline.getEventsByPlayer("Steve").isEmpty(), "empty player chain");
+
+        add(timeline, 10);
+        Expect.equal(9L, timeline.getLastSequence(), "last sequence");
+        expectSequences(timeline.getRecentEvents(3), 7, 9, "recent events before wrapping");
+        expectSequences(timeline.getAllEvents(), 0, 9, "all events before wrapping");
+
+        // 40 events through a 16-slot ring leave sequences 24..39.
+        add(timeline, 30);
+        Expect.equal(39L, timeline.getLastSequence(), "last sequence after wrapping");
+        expectSequences(timeline.getRecentEvents(5), 35, 39, "recent events");
+        expectSequences(timeline.getRecentEvents(100), 24, 39, "recent events capped by capacity");
+
+        List<LiveTimeline.TimelineEvent> steve = timeline.getEventsByPlayer("Steve");
+        Expect.that(!steve.isEmpty() && steve.get(0).getSequence() >= 24, "player chain stops at overwritten events");
+        Expect.equal(8, steve.size(), "player chain keeps retained events");
+        boolean onlySteve = true;
+        for (LiveTimeline.TimelineEvent event : steve) {
+            onlySteve &= event.getSequence() % 2 == 0 && "Steve".equals(event.getPlayerName());
+        }
+        Expect.that(onlySteve, "player chain holds only that player's events");
+        Expect.equal(3, timeline.getEventsByPlayer("Alex", 3).size(), "player chain with a limit");
+        Expect.equal(16, timeline.getEventsByServer("Survival").size(), "server chain");
+
+        Expect.done("LiveTimelineCheck");
+    }
+
+    // Even sequences belong to Steve, odd ones to Alex.
+    private static void add(LiveTimeline timeline, int count) {
+        for (int i = 0; i < count; i++) {
+            long next = timeline.getLastSequence() + 1;
+            timeline.recordPlayerJoin(next % 2 == 0 ? "Steve" : "Alex", "Survival");
+        }
+    }
+
+    private static void expectSequences(List<LiveTimeline.TimelineEvent> events, long first, long last, String what) {
+        Expect.equal((int) (last - first + 1), events.size(), what + " size");
+        for (int i = 0; i < events.size(); i++) {
+            Expect.equal(first + i, events.get(i).getSequence(), what + " sequence at " + i);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import java.util.List;
+
+public class LiveTimelineCursorCheck {
+    public static void main(String[] args) {
+        LiveTimeline timeline = new LiveTimeline(null, 16, 1, 1000);
+        Expect.that(!timeline.getEpoch().isEmpty(), "cursor epoch");
+        Expect.that(timeline.since(-1, 10).isEmpty(), "empty since");
+
+        add(timeline, 10);
+        expectSequences(timeline.since(-1, 100), 0, 9, "since before the first event");
+        expectSequences(timeline.since(4, 3), 5, 7, "since with a limit");
+        Expect.that(timeline.since(9, 100).isEmpty(), "since at the head");
+        Expect.that(timeline.since(50, 100).isEmpty(), "since past the head");
+
+        // 40 events through a 16-slot ring leave sequences 24..39.
+        add(timeline, 30);
+        expectSequences(timeline.since(-1, 100), 24, 39, "since resumes at the oldest retained event");
+        expectSequences(timeline.since(22, 100), 24, 39, "since from an overwritten cursor");
+        expectSequences(timeline.since(23, 100), 24, 39, "since from just before the oldest");
+        expectSequences(timeline.since(24, 100), 25, 39, "since from the oldest");
+        expectSequences(timeline.since(30, 4), 31, 34, "since with a limit after wrapping");
+
+        long cursor = -1;
+        int read = 0;
+        List<LiveTimeline.TimelineEvent> page;
+        while (!(page = timeline.since(cursor, 5)).isEmpty()) {
+            read += page.size();
+            cursor = page.get(page.size() - 1).getSequence();
+        }
+        Expect.equal(16, read, "paging with the cursor reads every retained event once");
+        Expect.equal(39L, cursor, "paging ends at the head");
+
+        Expect.done("LiveTimelineCursorCheck");
+    }
+
+    private static void add(LiveTimeline timeline, int count) {
+        for (int i = 0; i < count; i++) {
+            timeline.recordPlayerJoin("Steve", "Survival");
+        }
+    }
+
+    private static void expectSequences(List<LiveTimeline.TimelineEvent> events, long first, long last, String what) {
+        Expect.equal((int) (last - first + 1), events.size(), what + " size");
+        for (int i = 0; i < events.size(); i++) {
+            Expect.equal(first + i, events.get(i).getSequence(), what + " sequence at " + i);
+        }
+    }
+}
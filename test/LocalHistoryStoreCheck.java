@@ -0,0 +1,136 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LocalHistoryStoreCheck {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("local-store-check").toFile();
+        try {
+            long day0 = Instant.parse("2024-03-01T00:00:00Z").toEpochMilli();
+
+            // Two partitions stay loaded, so touching four days forces evictions and reloads.
+            LocalHistoryStore store = new LocalHistoryStore(directory, 2);
+            for (int day = 0; day < 4; day++) {
+                for (int hour = 0; hour < 24; hour++) {
+                    store.appendStatus("Steve", "Survival", hour % 2 == 0, hour, day0 + day * DAY_MS + hour * HOUR_MS);
+                }
+                store.appendStatus("Alex", "Creative", true, 1, day0 + day * DAY_MS + 30 * 60_000L);
+            }
+            long to = day0 + 4 * DAY_MS;
+            checkStatus(store, day0, to, 96, "first pass");
+            checkStatus(store, day0, to, 96, "after reloading evicted partitions");
+
+            // A poller that observed earlier but appended later.
+            store.appendStatus("Steve", "Survival", true, 99, day0 + 5 * HOUR_MS + 1);
+            store.appendStatus("Steve", "Survival", true, 98, day0 + 2 * HOUR_MS + 1);
+            List<HistoryEntry> window = new ArrayList<>();
+            store.scanPlayerHistory("Steve", day0 + 2 * HOUR_MS, day0 + 2 * HOUR_MS + 1, true, window::add);
+            Expect.equal(2, window.size(), "out-of-order row found by a range query");
+            Expect.equal(98, window.get(1).getOnlineCount(), "out-of-order row in time order");
+
+            store.appendSession(new PlayerSession("Steve", "Survival", day0 + 10 * HOUR_MS, day0 + 12 * HOUR_MS, false));
+            store.appendSession(new PlayerSession("Steve", "Survival", day0 + HOUR_MS, day0 + 3 * HOUR_MS, false));
+            store.appendSession(new PlayerSession("Steve", "Creative", day0 + DAY_MS - HOUR_MS, day0 + DAY_MS + HOUR_MS, false));
+            List<PlayerSession> sessions = store.querySessions("Steve", day0 + 2 * HOUR_MS, day0 + 4 * HOUR_MS);
+            Expect.equal(1, sessions.size(), "out-of-order session found by its end time");
+            Expect.equal(day0 + HOUR_MS, sessions.get(0).getStartTime(), "session start");
+            Expect.equal(3, store.querySessions("Steve", day0, to).size(), "all sessions");
+            List<PlayerSession> creative = new ArrayList<>();
+            store.scanSessions("Creative", day0, to, creative::add);
+            Expect.equal(1, creative.size(), "sessions per server");
+
+            List<LiveTimeline.TimelineEvent> events = List.of(
+                    new LiveTimeline.TimelineEvent(day0 + 2 * HOUR_MS, LiveTimeline.TimelineEvent.EventType.PLAYER_JOIN,
+                            "Steve", "Survival", "Player joined the server"),
+                    new LiveTimeline.TimelineEvent(day0 + HOUR_MS, LiveTimeline.TimelineEvent.EventType.SERVER_UP,
+                            null, "Survival", "Server is now online"),
+                    new LiveTimeline.TimelineEvent(day0 + DAY_MS + HOUR_MS, LiveTimeline.TimelineEvent.EventType.PLAYER_LEAVE,
+                            "Steve", "Survival", "Player left the server"),
+                    new LiveTimeline.TimelineEvent(day0 + DAY_MS + 2 * HOUR_MS, LiveTimeline.TimelineEvent.EventType.PLAYER_JOIN,
+                            "Alex", "Creative", "Player joined the server"));
+            store.appendTimelineEvents(events);
+            store.shutdown();
+
+            // Reopening rebuilds everything from disk.
+            store = new LocalHistoryStore(directory, 2);
+            checkStatus(store, day0, to, 98, "after reopening");
+            Expect.equal(3, store.querySessions("Steve", day0, to).size(), "sessions after reopening");
+
+            List<LiveTimeline.TimelineEvent> read = new ArrayList<>();
+            Expect.that(store.scanTimelineEvents(day0, to, true, read::add), "timeline scan complete");
+            Expect.equal(4, read.size(), "timeline events read back");
+            Expect.equal(LiveTimeline.TimelineEvent.EventType.SERVER_UP, read.get(0).getType(), "timeline sorted by time");
+            Expect.equal(null, read.get(0).getPlayerName(), "missing player kept missing");
+            Expect.equal("Player joined the server", read.get(1).getMessage(), "message resolved");
+            Expect.equal("Creative", read.get(3).getServerName(), "server resolved");
+            List<LiveTimeline.TimelineEvent> newest = new ArrayList<>();
+            store.scanTimelineEvents(day0, to, false, event -> newest.add(event) && newest.size() < 2);
+            Expect.equal(day0 + DAY_MS + 2 * HOUR_MS, newest.get(0).getTimestamp(), "newest timeline event first");
+            Expect.equal(2, newest.size(), "timeline visitor stops the scan");
+
+            store.appendTimelineEvents(events);
+            store.shutdown();
+            List<String> messages = Files.readAllLines(new File(directory, "messages.dict").toPath());
+            Expect.equal(3, messages.size(), "messages written once");
+
+            // A dictionary written with duplicates by an older version.
+            Files.writeString(new File(directory, "messages.dict").toPath(), "Player joined the server\n",
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            store = new LocalHistoryStore(directory, 2);
+            store.appendTimelineEvents(events.subList(0, 1));
+            Expect.equal(4, Files.readAllLines(new File(directory, "messages.dict").toPath()).size(),
+                    "known message not appended again");
+
+            // A record torn by a crash is dropped, the rows before it survive.
+            store.shutdown();
+            File statusLog = new File(directory, "2024-03-02/status.log");
+            Files.write(statusLog.toPath(), new byte[]{40, 1, 2}, StandardOpenOption.APPEND);
+            store = new LocalHistoryStore(directory, 2);
+            List<HistoryEntry> day1 = new ArrayList<>();
+            store.scanPlayerHistory("Steve", day0 + DAY_MS, day0 + 2 * DAY_MS - 1, true, day1::add);
+            Expect.equal(24, day1.size(), "rows before a torn record");
+
+            store.deleteStatusBefore(day0 + DAY_MS);
+            List<HistoryEntry> afterDelete = new ArrayList<>();
+            store.scanPlayerHistory("Steve", day0, to, true, afterDelete::add);
+            Expect.equal(72, afterDelete.size(), "status rows before the cutoff day deleted");
+            Expect.equal(3, store.querySessions("Steve", day0, to).size(), "sessions kept");
+            store.shutdown();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("LocalHistoryStoreCheck");
+    }
+
+    private static void checkStatus(LocalHistoryStore store, long day0, long to, int rows, String when) {
+        List<HistoryEntry> ascending = new ArrayList<>();
+        Expect.that(store.scanPlayerHistory("Steve", day0, to, true, ascending::add), when + ": scan complete");
+        Expect.equal(rows, ascending.size(), when + ": every row");
+        Expect.equal(day0, ascending.get(0).getTimestampMillis(), when + ": oldest first");
+        Expect.equal(23, ascending.get(rows - 1).getOnlineCount(), when + ": values decoded");
+        Expect.equal("Survival", ascending.get(rows - 1).getServerName(), when + ": server resolved");
+
+        List<HistoryEntry> descending = new ArrayList<>();
+        store.scanPlayerHistory("Steve", day0 + DAY_MS + HOUR_MS, day0 + 2 * DAY_MS + HOUR_MS, false,
+                entry -> descending.add(entry) && descending.size() < 30);
+        Expect.equal(day0 + 2 * DAY_MS + HOUR_MS, descending.get(0).getTimestampMillis(), when + ": newest first");
+        Expect.equal(25, descending.size(), when + ": range spans the day edge");
+
+        List<HistoryEntry> server = new ArrayList<>();
+        store.scanServerHistory("Creative", day0, to, true, server::add);
+        Expect.equal(4, server.size(), when + ": server history");
+    }
+}
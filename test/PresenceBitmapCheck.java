@@ -0,0 +1,72 @@
+import java.time.Instant;
+
+public class PresenceBitmapCheck {
+    private static final long MINUTE_MS = 60_000L;
+    private static final long DAY_MS = 24 * 60 * MINUTE_MS;
+
+    public static void main(String[] args) {
+        long day0 = Instant.parse("2024-03-01T00:00:00Z").toEpochMilli();
+        long firstDay = PresenceBitmap.dayOf(day0);
+        Expect.equal(firstDay, PresenceBitmap.dayOf(day0 + DAY_MS - 1), "last millisecond of a day");
+        Expect.equal(firstDay - 1, PresenceBitmap.dayOf(day0 - 1), "day before");
+
+        PresenceBitmap empty = new PresenceBitmap(firstDay, 3);
+        Expect.that(empty.isEmpty(), "new bitmap is empty");
+        Expect.equal(0, empty.minutes(), "new bitmap has no minutes");
+
+        // Minutes 63 and 64 sit on either side of the first word boundary.
+        PresenceBitmap word0 = at(firstDay, 3, day0, 63, 64);
+        PresenceBitmap word1 = at(firstDay, 3, day0, 64, 65);
+        Expect.equal(1, word0.minutes(), "last minute of a word");
+        Expect.equal(1, word1.minutes(), "first minute of a word");
+        Expect.equal(0, word0.overlapMinutes(word1), "neighbours across a word boundary do not overlap");
+        Expect.equal(2, at(firstDay, 3, day0, 60, 70).overlapMinutes(at(firstDay, 3, day0, 63, 65)),
+                "overlap across a word boundary");
+        Expect.equal(130, at(firstDay, 3, day0, 0, 200).overlapMinutes(at(firstDay, 3, day0, 70, 300)),
+                "overlap spanning whole words");
+
+        // A day is 1440 minutes, so its last word only holds 32.
+        PresenceBitmap lateNight = at(firstDay, 3, day0, 1430, 1450);
+        Expect.equal(20, lateNight.minutes(), "interval across midnight");
+        PresenceBitmap earlyMorning = at(firstDay, 3, day0, 1440, 1470);
+        Expect.equal(10, lateNight.overlapMinutes(earlyMorning), "overlap after midnight only");
+        PresenceBitmap beforeMidnight = at(firstDay, 3, day0, 1400, 1440);
+        Expect.equal(10, lateNight.overlapMinutes(beforeMidnight), "overlap before midnight only");
+        Expect.equal(0, beforeMidnight.overlapMinutes(earlyMorning), "days do not bleed into each other");
+        Expect.equal(1440, at(firstDay, 3, day0, 0, 1440).minutes(), "whole day");
+
+        PresenceBitmap partial = new PresenceBitmap(firstDay, 3);
+        partial.addInterval(day0 + 600 * MINUTE_MS + 30_000, day0 + 601 * MINUTE_MS + 10_000);
+        Expect.equal(2, partial.minutes(), "every touched minute counts");
+
+        PresenceBitmap clipped = new PresenceBitmap(firstDay, 3);
+        clipped.addInterval(day0 - DAY_MS, day0 + 10 * MINUTE_MS);
+        clipped.addInterval(day0 + 3 * DAY_MS - 5 * MINUTE_MS, day0 + 5 * DAY_MS);
+        Expect.equal(15, clipped.minutes(), "intervals clipped to the window");
+        PresenceBitmap outside = new PresenceBitmap(firstDay, 3);
+        outside.addInterval(day0 + 4 * DAY_MS, day0 + 5 * DAY_MS);
+        Expect.that(outside.isEmpty(), "interval outside the window ignored");
+
+        // Day 65 lives in the second word of the active-day mask.
+        long late = day0 + 65 * DAY_MS;
+        PresenceBitmap a = at(firstDay, 70, late, 0, 30);
+        PresenceBitmap b = at(firstDay, 70, late, 20, 40);
+        Expect.equal(10, a.overlapMinutes(b), "overlap on a day past the first mask word");
+        Expect.equal(0, a.overlapMinutes(at(firstDay, 70, day0 + DAY_MS, 0, 30)), "same minutes on another day");
+
+        PresenceBitmap union = new PresenceBitmap(firstDay, 70);
+        union.or(a);
+        union.or(b);
+        Expect.equal(40, union.minutes(), "union of overlapping intervals");
+        Expect.equal(30, union.overlapMinutes(a), "union overlaps each part fully");
+        Expect.that(!union.isEmpty(), "union not empty");
+
+        Expect.done("PresenceBitmapCheck");
+    }
+
+    private static PresenceBitmap at(long firstDay, int days, long dayStart, int fromMinute, int toMinute) {
+        PresenceBitmap bitmap = new PresenceBitmap(firstDay, days);
+        bitmap.addInterval(dayStart + fromMinute * MINUTE_MS, dayStart + toMinute * MINUTE_MS);
+        return bitmap;
+    }
+}
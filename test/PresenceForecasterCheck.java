@@ -0,0 +1,106 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PresenceForecasterCheck {
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long WEEK_MS = 7 * 24 * HOUR_MS;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("forecaster-check").toFile();
+        try {
+            File configFile = new File(directory, "config.properties");
+            try (Writer writer = new FileWriter(configFile)) {
+                writer.write("history.enabled=true\n");
+                writer.write("history.backend=local\n");
+                writer.write("history.localDir=" + new File(directory, "data").getPath().replace("\\", "/") + "\n");
+                writer.write("history.rollupDir=" + new File(directory, "rollups").getPath().replace("\\", "/") + "\n");
+            }
+            HistoryService history = new HistoryService(new ConfigLoader(configFile.getPath()));
+            HistoryStore store = history.getStore();
+            long now = System.currentTimeMillis();
+
+            // Online in the same hour-of-week for each of the last three weeks.
+            int steveSlot = -1;
+            for (int week = 1; week <= 3; week++) {
+                long start = hourStart(now + 3 * HOUR_MS - week * WEEK_MS);
+                store.appendSession(new PlayerSession("Steve", "Survival", start, start + HOUR_MS, false));
+                steveSlot = slotOf(start);
+            }
+            // Online through the current and the next hour-of-week slot.
+            for (int week = 1; week <= 3; week++) {
+                long start = hourStart(now - week * WEEK_MS);
+                store.appendSession(new PlayerSession("Alex", "Survival", start, start + 2 * HOUR_MS, false));
+            }
+
+            PresenceForecaster forecaster = new PresenceForecaster(history, 1000);
+            double[][] steve = forecaster.getWeeklyProfile("Steve");
+            Expect.that(steve[steveSlot / 24][steveSlot % 24] > 0.95, "weekly habit reads as likely");
+            int otherSlot = (steveSlot + 1) % 168;
+            Expect.equal(0.0, steve[otherSlot / 24][otherSlot % 24], "other slots stay empty");
+            Expect.that(forecaster.probabilityNextHour("Steve") < 0.05, "habit three hours away is not next hour");
+
+            Expect.that(forecaster.probabilityNextHour("Alex") > 0.95, "habit covering the next hour");
+            Expect.that(forecaster.isLikelyOnlineSoon("Alex", 0.5), "likely online soon");
+            Expect.equal(0.0, forecaster.probabilityNextHour("Nobody"), "unknown player");
+            Expect.that(!forecaster.isLikelyOnlineSoon("Nobody", 0.1), "unknown player not likely online");
+
+            // A single half hour is not read as certainty.
+            long notchStart = hourStart(now + 5 * HOUR_MS - WEEK_MS);
+            forecaster.onSessionClosed(new PlayerSession("Notch", "Survival", notchStart, notchStart + HOUR_MS / 2, false));
+            int notchSlot = slotOf(notchStart);
+            double notch = forecaster.getWeeklyProfile("Notch")[notchSlot / 24][notchSlot % 24];
+            Expect.that(Math.abs(notch - 0.5) < 0.01, "live session credited by its online fraction: " + notch);
+
+            // With a one-week half-life an old habit counts for less than a recent one.
+            long oldStart = hourStart(now + 2 * HOUR_MS - 3 * WEEK_MS);
+            long recentStart = hourStart(now + 6 * HOUR_MS - WEEK_MS);
+            store.appendSession(new PlayerSession("Herobrine", "Survival", oldStart, oldStart + HOUR_MS, false));
+            store.appendSession(new PlayerSession("Herobrine", "Survival", recentStart, recentStart + HOUR_MS, false));
+            PresenceForecaster decaying = new PresenceForecaster(history, 1);
+            double[][] herobrine = decaying.getWeeklyProfile("Herobrine");
+            int oldSlot = slotOf(oldStart);
+            int recentSlot = slotOf(recentStart);
+            Expect.that(herobrine[oldSlot / 24][oldSlot % 24] < herobrine[recentSlot / 24][recentSlot % 24],
+                    "older sessions decay");
+
+            // Prefetched profiles are seeded once; later store rows arrive through the listener instead.
+            long jebStart = hourStart(now + 4 * HOUR_MS - WEEK_MS);
+            store.appendSession(new PlayerSession("Jeb", "Survival", jebStart, jebStart + HOUR_MS, false));
+            decaying.prefetch(List.of("Jeb", "Herobrine"));
+            store.appendSession(new PlayerSession("Jeb", "Survival", jebStart + HOUR_MS, jebStart + 2 * HOUR_MS, false));
+            double[][] jeb = decaying.getWeeklyProfile("Jeb");
+            int jebSlot = slotOf(jebStart);
+            int laterSlot = slotOf(jebStart + HOUR_MS);
+            Expect.that(jeb[jebSlot / 24][jebSlot % 24] > 0.4, "prefetch seeds from the store");
+            Expect.equal(0.0, jeb[laterSlot / 24][laterSlot % 24], "seeded once");
+
+            history.shutdown();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("PresenceForecasterCheck");
+    }
+
+    private static long hourStart(long timestamp) {
+        return Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()).truncatedTo(ChronoUnit.HOURS)
+                .toInstant().toEpochMilli();
+    }
+
+    private static int slotOf(long timestamp) {
+        ZonedDateTime time = Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault());
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+}
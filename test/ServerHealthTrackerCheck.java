@@ -0,0 +1,60 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class ServerHealthTrackerCheck {
+    public static void main(String[] args) {
+        ServerHealthTracker tracker = new ServerHealthTracker(3, 2);
+        List<TransitionDetector.TransitionEvent> events = new ArrayList<>();
+        tracker.addSink(event -> {
+            throw new IllegalStateException("sink failure");
+        });
+        tracker.addSink(events::add);
+
+        Expect.equal(ServerHealthTracker.State.UNKNOWN, tracker.getState("Survival"), "unseen server");
+        tracker.observe("Survival", true, 5, null);
+        Expect.equal(ServerHealthTracker.State.UNKNOWN, tracker.getState("Survival"), "one success is not enough");
+        tracker.observe("Survival", true, 5, null);
+        Expect.equal(ServerHealthTracker.State.UP, tracker.getState("Survival"), "up after two successes");
+        Expect.equal(0, events.size(), "first verdict is only a baseline");
+
+        tracker.observe("Survival", false, 0, "timeout");
+        tracker.observe("Survival", false, 0, "timeout");
+        tracker.observe("Survival", true, 5, null);
+        tracker.observe("Survival", false, 0, "timeout");
+        tracker.observe("Survival", false, 0, "timeout");
+        Expect.equal(ServerHealthTracker.State.UP, tracker.getState("Survival"), "a success resets the failure run");
+        Expect.equal(0, events.size(), "no outage for interrupted failures");
+
+        tracker.observe("Survival", false, 0, "connection refused");
+        Expect.equal(ServerHealthTracker.State.DOWN, tracker.getState("Survival"), "down after three failures");
+        Expect.equal(1, events.size(), "outage reported past a failing sink");
+        TransitionDetector.TransitionEvent outage = events.get(0);
+        Expect.equal(TransitionDetector.TransitionType.OUTAGE, outage.getType(), "outage type");
+        Expect.equal("Survival", outage.getServerName(), "outage server");
+        Expect.equal(null, outage.getPlayerName(), "outage is per server");
+        Expect.equal("connection refused", outage.getErrorMessage(), "outage error");
+
+        tracker.observe("Survival", false, 0, "connection refused");
+        tracker.observe("Survival", true, 4, null);
+        Expect.equal(1, events.size(), "no repeat outage and no early recovery");
+        tracker.observe("Survival", true, 4, null);
+        Expect.equal(ServerHealthTracker.State.UP, tracker.getState("Survival"), "up again after two successes");
+        Expect.equal(2, events.size(), "recovery reported once");
+        Expect.equal(TransitionDetector.TransitionType.RECOVERY, events.get(1).getType(), "recovery type");
+        Expect.equal(4, events.get(1).getOnlineCount(), "recovery online count");
+        Expect.equal(null, events.get(1).getErrorMessage(), "recovery has no error");
+
+        for (int i = 0; i < 3; i++) {
+            tracker.observe("Creative", false, 0, "timeout");
+        }
+        Expect.equal(ServerHealthTracker.State.DOWN, tracker.getState("Creative"), "down baseline");
+        Expect.equal(2, events.size(), "down baseline is not an outage");
+        Expect.equal(ServerHealthTracker.State.UP, tracker.getState("Survival"), "servers tracked separately");
+
+        ServerHealthTracker eager = new ServerHealthTracker(0, 0);
+        eager.observe("Survival", true, 1, null);
+        Expect.equal(ServerHealthTracker.State.UP, eager.getState("Survival"), "thresholds of at least one");
+
+        Expect.done("ServerHealthTrackerCheck");
+    }
+}
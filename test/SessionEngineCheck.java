@@ -0,0 +1,84 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class SessionEngineCheck {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("session-engine-check").toFile();
+        try {
+            File configFile = new File(directory, "config.properties");
+            try (Writer writer = new FileWriter(configFile)) {
+                writer.write("history.enabled=true\n");
+                writer.write("history.backend=local\n");
+                writer.write("history.localDir=" + new File(directory, "data").getPath().replace("\\", "/") + "\n");
+                writer.write("history.rollupDir=" + new File(directory, "rollups").getPath().replace("\\", "/") + "\n");
+            }
+            HistoryService history = new HistoryService(new ConfigLoader(configFile.getPath()));
+            ZoneId zone = ZoneId.systemDefault();
+            long now = System.currentTimeMillis();
+
+            // Four 45-second sessions inside one local hour two days ago, and one outside the window.
+            ZonedDateTime hour = Instant.ofEpochMilli(now - 2 * DAY_MS).atZone(zone).truncatedTo(ChronoUnit.HOURS);
+            long base = hour.toInstant().toEpochMilli() + 10 * 60_000L;
+            for (int i = 0; i < 4; i++) {
+                long start = base + i * 120_000L;
+                history.getStore().appendSession(new PlayerSession("Steve", "Survival", start, start + 45_000, false));
+            }
+            history.getStore().appendSession(new PlayerSession("Steve", "Survival",
+                    now - 40 * DAY_MS, now - 40 * DAY_MS + 3_600_000, false));
+
+            SessionEngine engine = new SessionEngine(history);
+            Expect.equal(null, engine.getInsights("Nobody"), "no insights without sessions");
+
+            PlayerAnalytics.PlayerInsights insights = engine.getInsights("Steve");
+            Expect.equal(4, insights.getSessionCount(), "stored sessions inside the window");
+            Expect.equal(180_000L, insights.getTotalOnlineTime(), "total online time");
+            Expect.equal(45_000L, insights.getLongestSession(), "longest session");
+            Expect.equal(0L, insights.getDailyOnlineTime(), "nothing in the last day");
+            Expect.equal(180_000L, insights.getWeeklyOnlineTime(), "week online time");
+            Expect.equal(3, insights.getHourlyActivity()[hour.getHour()], "partial minutes add up per hour");
+            Expect.equal(3, insights.getWeekdayActivity()[hour.getDayOfWeek().getValue() - 1],
+                    "partial minutes add up per weekday");
+            long today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate().toEpochDay();
+            int dayIndex = (int) (PlayerAnalytics.PlayerInsights.WINDOW_DAYS - 1 - (today - hour.toLocalDate().toEpochDay()));
+            Expect.equal(3, insights.getDailyActivity()[dayIndex], "partial minutes add up per day");
+
+            engine.onSessionOpened("Steve", "Creative", now - 90_000);
+            insights = engine.getInsights("Steve");
+            Expect.equal(5, insights.getSessionCount(), "open session counted");
+            Expect.that(insights.getDailyOnlineTime() >= 90_000, "open session runs up to now");
+
+            engine.onSessionClosed(new PlayerSession("Steve", "Creative", now - 90_000, now - 1_000, false));
+            insights = engine.getInsights("Steve");
+            Expect.equal(5, insights.getSessionCount(), "closed session replaces the open one");
+            Expect.equal(269_000L, insights.getTotalOnlineTime(), "closed session added once");
+            Expect.equal(89_000L, insights.getLongestSession(), "longest session after close");
+            Expect.equal(89_000L, insights.getDailyOnlineTime(), "day online time after close");
+
+            // Closed before anything asked for the player: kept until the store is read, then merged.
+            engine.onSessionOpened("Alex", "Survival", now - 30 * 60_000);
+            engine.onSessionClosed(new PlayerSession("Alex", "Survival", now - 30 * 60_000, now - 60_000, false));
+            insights = engine.getInsights("Alex");
+            Expect.equal(1, insights.getSessionCount(), "live session before seeding");
+            Expect.equal(29 * 60_000L, insights.getTotalOnlineTime(), "live session time before seeding");
+
+            history.shutdown();
+        } finally {
+            try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("SessionEngineCheck");
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubscriptionTableCheck {
+    public static void main(String[] args) throws Exception {
+        SubscriptionTable table = new SubscriptionTable();
+        int steve = table.add("Steve", "Survival");
+        int alex = table.add("Alex", "Survival");
+        int creative = table.add("Steve", "Creative");
+        Expect.equal(-1, table.add("Steve", "Survival"), "duplicate rejected");
+        Expect.equal(3, table.size(), "size");
+        Expect.equal(List.of("Steve", "Alex"), table.playerNames(), "players in insertion order");
+        Expect.equal(List.of("Survival", "Creative"), table.snapshot().get("Steve"), "servers per player");
+        Expect.equal(2, table.subscribersOf("Survival").length, "subscribers per server");
+
+        SubscriptionTable.View before = table.view();
+        Expect.equal(steve, table.remove("Steve", "Survival"), "remove returns the id");
+        Expect.that(!table.contains("Steve", "Survival") && table.contains("Steve"), "pair removed, player kept");
+        Expect.equal("Steve", before.playerOf(steve), "open view keeps its snapshot");
+        Expect.equal(2, before.subscribersOf("Survival").length, "open view keeps its server index");
+
+        int herobrine = table.add("Herobrine", "Survival");
+        Expect.that(herobrine != steve, "freed id held back while a view is open");
+        before.close();
+        before.close();
+
+        int notch = table.add("Notch", "Survival");
+        Expect.equal(steve, notch, "freed id reused once views are closed");
+        try (SubscriptionTable.View after = table.view()) {
+            Expect.equal("Notch", after.playerOf(notch), "new owner visible in a new view");
+            Expect.equal(null, after.playerOf(1000), "unknown id");
+        }
+
+        table.removePlayer("Steve");
+        Expect.equal(0, table.subscribersOf("Creative").length, "server index emptied");
+        Expect.that(!table.activeServers().contains("Creative"), "idle server not active");
+
+        SubscriptionTable.View held = table.view();
+        table.clear();
+        Expect.that(table.isEmpty(), "cleared");
+        int first = table.add("Jeb", "Survival");
+        Expect.that(first != alex && first != herobrine && first != notch && first != creative,
+                "clear holds ids back while a view is open");
+        held.close();
+
+        for (int i = 0; i < 40; i++) {
+            table.add("p" + i, "Survival");
+        }
+        Expect.equal(41, table.subscribersOf("Survival").length, "grows past the initial capacity");
+
+        checkConcurrentPolls();
+        Expect.done("SubscriptionTableCheck");
+    }
+
+    // A writer churns subscriptions while readers resolve ids the way a poll does; a reader must never
+    // see a player resolved under another server's id.
+    private static void checkConcurrentPolls() throws InterruptedException {
+        SubscriptionTable table = new SubscriptionTable();
+        String[] servers = {"s0", "s1", "s2"};
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mismatches = new AtomicInteger();
+        AtomicInteger resolved = new AtomicInteger();
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            String server = servers[r];
+            readers[r] = new Thread(() -> {
+                while (running.get()) {
+                    try (SubscriptionTable.View view = table.view()) {
+                        for (int id : view.subscribersOf(server)) {
+                            String player = view.playerOf(id);
+                            if (player == null || !player.startsWith(server + "/")) {
+                                mismatches.incrementAndGet();
+                            }
+                            resolved.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readers[r].start();
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            String server = servers[i % servers.length];
+            table.add(server + "/p" + i, server);
+            if (i >= 30) {
+                int old = i - 30;
+                table.remove(servers[old % servers.length] + "/p" + old, servers[old % servers.length]);
+            }
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        Expect.that(resolved.get() > 0, "readers resolved ids");
+        Expect.equal(0, mismatches.get(), "ids never resolve to another server's player");
+    }
+}
@@ -0,0 +1,183 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs the Supabase store against a minimal in-process PostgREST stand-in for player_history.
+public class SupabaseHistoryStoreCheck {
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX").withZone(ZoneOffset.UTC);
+    private static final Pattern AFTER = Pattern.compile(
+            "\\(timestamp\\.(gt|lt)\\.\"([^\"]+)\",and\\(timestamp\\.eq\\.\"[^\"]+\",id\\.(?:gt|lt)\\.(\\d+)\\)\\)");
+    private static final int ROWS = 2500;
+
+    private record Row(int id, String timestamp) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkRowReader();
+
+        // Three rows per timestamp, so page boundaries fall inside groups of equal timestamps.
+        long base = Instant.parse("2024-03-01T00:00:00Z").toEpochMilli();
+        List<Row> rows = new ArrayList<>();
+        for (int id = 1; id <= ROWS; id++) {
+            rows.add(new Row(id, TIMESTAMP.format(Instant.ofEpochMilli(base + (id - 1) / 3 * 1000L))));
+        }
+
+        AtomicInteger pageRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/v1/", exchange -> serve(exchange, rows, pageRequests));
+        server.start();
+
+        File directory = Files.createTempDirectory("supabase-check").toFile();
+        try {
+            File configFile = new File(directory, "config.properties");
+            try (Writer writer = new FileWriter(configFile)) {
+                writer.write("history.spoolEnabled=false\n");
+            }
+            SupabaseHistoryStore store = new SupabaseHistoryStore(
+                    new SupabaseClient("http://127.0.0.1:" + server.getAddress().getPort(), "key"),
+                    new ConfigLoader(configFile.getPath()));
+            long from = base - 1000;
+            long to = base + ROWS * 1000L;
+
+            List<HistoryEntry> ascending = new ArrayList<>();
+            Expect.that(store.scanPlayerHistory("Steve", from, to, true, ascending::add), "ascending scan complete");
+            Expect.equal(ROWS, ascending.size(), "every row visited once ascending");
+            Expect.equal(3, pageRequests.get(), "three keyset pages");
+            boolean ordered = true;
+            for (int i = 1; i < ascending.size(); i++) {
+                ordered &= ascending.get(i - 1).getTimestampMillis() <= ascending.get(i).getTimestampMillis();
+            }
+            Expect.that(ordered, "ascending order kept across pages");
+
+            pageRequests.set(0);
+            List<HistoryEntry> descending = new ArrayList<>();
+            Expect.that(store.scanPlayerHistory("Steve", from, to, false, descending::add), "descending scan complete");
+            Expect.equal(ROWS, descending.size(), "every row visited once descending");
+            Expect.equal(base + (ROWS - 1) / 3 * 1000L, descending.get(0).getTimestampMillis(), "newest row first");
+            Expect.equal(base, descending.get(ROWS - 1).getTimestampMillis(), "oldest row last");
+
+            pageRequests.set(0);
+            List<HistoryEntry> stopped = new ArrayList<>();
+            store.scanPlayerHistory("Steve", from, to, true, entry -> stopped.add(entry) && stopped.size() < 10);
+            Expect.equal(10, stopped.size(), "visitor stops the scan");
+            Expect.equal(1, pageRequests.get(), "stopped scan reads one page");
+
+            HistoryPage limited = store.queryPlayerHistory("Steve", from, to, 1000);
+            Expect.equal(1000, limited.entries().size(), "limited page size");
+            Expect.that(limited.truncated(), "limited page marked truncated");
+            Expect.that(!limited.partial(), "limited page not partial");
+
+            HistoryPage whole = store.queryPlayerHistory("Steve", from, to, ROWS);
+            Expect.equal(ROWS, whole.entries().size(), "whole range fits the limit");
+            Expect.that(!whole.truncated(), "whole range not truncated");
+
+            server.stop(0);
+            HistoryPage failed = store.queryPlayerHistory("Steve", from, to, 10);
+            Expect.that(failed.partial(), "unreachable store gives a partial page");
+
+            store.shutdown();
+        } finally {
+            server.stop(0);
+            try (java.util.stream.Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        Expect.done("SupabaseHistoryStoreCheck");
+    }
+
+    private static void checkRowReader() throws IOException {
+        String json = " [ {\"id\": 1, \"name\": \"Ste\\\"ve\\n\\u00e9\", \"count\": null, \"data\": {\"a\": [1, \"x}\"]}},"
+                + "{} , {\"ok\":true}]";
+        try (JsonRowReader reader = new JsonRowReader(new StringReader(json))) {
+            Map<String, String> first = reader.nextRow();
+            Expect.equal("1", first.get("id"), "number as text");
+            Expect.equal("Ste\"ve\né", first.get("name"), "string escapes");
+            Expect.that(first.containsKey("count") && first.get("count") == null, "null value");
+            Expect.equal("{\"a\": [1, \"x}\"]}", first.get("data"), "nested value kept raw");
+            Expect.equal(0, reader.nextRow().size(), "empty object");
+            Expect.equal("true", reader.nextRow().get("ok"), "literal");
+            Expect.equal(null, reader.nextRow(), "end of array");
+        }
+        try (JsonRowReader reader = new JsonRowReader(new StringReader("[]"))) {
+            Expect.equal(null, reader.nextRow(), "empty array");
+        }
+        try (JsonRowReader reader = new JsonRowReader(new StringReader("[{\"id\":1} {\"id\":2}]"))) {
+            reader.nextRow();
+            reader.nextRow();
+            Expect.that(false, "missing comma rejected");
+        } catch (IOException e) {
+            Expect.that(e.getMessage().contains("Expected ','"), "missing comma rejected");
+        }
+    }
+
+    private static void serve(HttpExchange exchange, List<Row> rows, AtomicInteger pageRequests) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        for (String pair : query == null ? new String[0] : query.split("&")) {
+            int eq = pair.indexOf('=');
+            params.putIfAbsent(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+
+        StringBuilder body = new StringBuilder("[");
+        if (exchange.getRequestURI().getPath().endsWith("/player_history") && "eq.Steve".equals(params.get("player_name"))) {
+            pageRequests.incrementAndGet();
+            boolean ascending = params.get("order").startsWith("timestamp.asc");
+            List<Row> ordered = new ArrayList<>(rows);
+            Comparator<Row> order = Comparator.comparing(Row::timestamp).thenComparingInt(Row::id);
+            ordered.sort(ascending ? order : order.reversed());
+
+            String after = params.get("or");
+            int limit = Integer.parseInt(params.get("limit"));
+            int written = 0;
+            for (Row row : ordered) {
+                if (after != null && !isAfter(row, after)) continue;
+                if (written++ > 0) body.append(',');
+                body.append("{\"id\":").append(row.id())
+                        .append(",\"player_name\":\"Steve\",\"server_name\":\"Survival\",\"status\":\"online\"")
+                        .append(",\"timestamp\":\"").append(row.timestamp()).append("\",\"online_count\":3}");
+                if (written == limit) break;
+            }
+        }
+        body.append(']');
+
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static boolean isAfter(Row row, String filter) {
+        Matcher matcher = AFTER.matcher(filter);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unexpected keyset filter: " + filter);
+        }
+        int sign = matcher.group(1).equals("gt") ? 1 : -1;
+        int byTime = row.timestamp().compareTo(matcher.group(2));
+        return byTime * sign > 0 || (byTime == 0 && Integer.compare(row.id(), Integer.parseInt(matcher.group(3))) * sign > 0);
+    }
+}
@@ -0,0 +1,37 @@
+import java.time.Instant;
+
+public class TimestampsCheck {
+    public static void main(String[] args) {
+        long noon = Instant.parse("2024-03-01T12:00:00Z").toEpochMilli();
+
+        Expect.equal(noon, Timestamps.parse("2024-03-01 12:00:00"), "space-separated UTC");
+        Expect.equal(noon, Timestamps.parse("2024-03-01T12:00:00"), "ISO without offset");
+        Expect.equal(noon, Timestamps.parse("2024-03-01T12:00:00Z"), "Z suffix");
+        Expect.equal(noon, Timestamps.parse("2024-03-01T12:00:00+00:00"), "zero offset");
+        Expect.equal(noon + 123, Timestamps.parse("2024-03-01T12:00:00.123456+00:00"), "microseconds truncate");
+        Expect.equal(noon + 500, Timestamps.parse("2024-03-01T12:00:00.5Z"), "short fraction");
+
+        Expect.equal(noon - 2 * 3_600_000L, Timestamps.parse("2024-03-01T12:00:00+02:00"), "positive offset");
+        Expect.equal(noon + 5 * 3_600_000L + 30 * 60_000L, Timestamps.parse("2024-03-01T12:00:00-05:30"),
+                "negative offset with minutes");
+        Expect.equal(noon - 5 * 3_600_000L - 30 * 60_000L, Timestamps.parse("2024-03-01T12:00:00+0530"),
+                "offset without colon");
+        Expect.equal(noon - 5 * 3_600_000L, Timestamps.parse("2024-03-01T12:00:00+05"), "hour-only offset");
+        Expect.equal(Instant.parse("2024-02-29T23:00:00Z").toEpochMilli(),
+                Timestamps.parse("2024-03-01T01:00:00+02:00"), "offset crossing a leap day");
+        Expect.equal(Instant.parse("2024-03-01T12:00:00.250Z").toEpochMilli(),
+                Timestamps.parse("2024-03-01T14:00:00.25+02:00"), "fraction and offset together");
+
+        Expect.equal(0L, Timestamps.parse(null), "null");
+        Expect.equal(0L, Timestamps.parse(""), "empty");
+        Expect.equal(0L, Timestamps.parse("not a timestamp"), "garbage");
+        Expect.equal(0L, Timestamps.parse("2024-02-30 00:00:00"), "invalid date");
+        Expect.equal(0L, Timestamps.parse("2024-03-01T12:00:00+02:00junk"), "trailing text after offset");
+
+        long millis = Instant.parse("2023-11-05T06:07:08Z").toEpochMilli();
+        Expect.equal(millis, Timestamps.parse(Timestamps.formatIso(millis)), "formatIso round trip");
+        Expect.equal(millis, Timestamps.parse(Timestamps.formatUtc(millis)), "formatUtc round trip");
+
+        Expect.done("TimestampsCheck");
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransitionDetectorCheck {
+    public static void main(String[] args) {
+        TransitionDetector detector = new TransitionDetector();
+        List<TransitionDetector.TransitionEvent> events = new ArrayList<>();
+        detector.addSink(event -> {
+            throw new IllegalStateException("sink failure");
+        });
+        detector.addSink(events::add);
+
+        Expect.that(!detector.observe(0, "Steve", "Survival", true, false, 3, null), "first observation is no change");
+        Expect.that(!detector.observe(0, "Steve", "Survival", true, false, 3, null), "same state is no change");
+        Expect.that(detector.observe(0, "Steve", "Survival", true, true, 4, null), "join is a change");
+        Expect.equal(1, events.size(), "join reported past a failing sink");
+        Expect.equal(TransitionDetector.TransitionType.JOIN, events.get(0).getType(), "join type");
+        Expect.equal("Steve", events.get(0).getPlayerName(), "join player");
+        Expect.equal(4, events.get(0).getOnlineCount(), "join online count");
+
+        Expect.that(detector.observe(0, "Steve", "Survival", false, false, 0, "timeout"), "outage is a change");
+        Expect.that(!detector.observe(0, "Steve", "Survival", false, false, 0, "timeout"), "ongoing outage is no change");
+        Expect.equal(1, events.size(), "outages are left to the health tracker");
+        Expect.that(detector.observe(0, "Steve", "Survival", true, true, 4, null), "recovery is a change");
+        Expect.equal(1, events.size(), "presence unchanged across the outage");
+        detector.observe(0, "Steve", "Survival", false, false, 0, "timeout");
+        detector.observe(0, "Steve", "Survival", true, false, 3, null);
+        Expect.equal(2, events.size(), "presence changed across an outage");
+        Expect.equal(TransitionDetector.TransitionType.LEAVE, events.get(1).getType(), "leave type");
+
+        detector.reset(0);
+        Expect.that(!detector.observe(0, "Alex", "Survival", true, true, 3, null), "reset slot starts over");
+        Expect.equal(2, events.size(), "no transition for a reused slot");
+
+        Expect.that(!detector.observe(5000, "Alex", "Creative", true, false, 1, null), "slot in a new segment");
+        Expect.that(detector.observe(5000, "Alex", "Creative", true, true, 2, null), "change in a new segment");
+        Expect.equal("Creative", events.get(2).getServerName(), "event from a new segment");
+        Expect.that(!detector.observe(0, "Alex", "Survival", true, true, 3, null), "first segment kept after growth");
+
+        Expect.done("TransitionDetectorCheck");
+    }
+}